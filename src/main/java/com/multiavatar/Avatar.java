@@ -1,6 +1,11 @@
 package com.multiavatar;
 
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -8,9 +13,15 @@ import java.util.Random;
  */
 public class Avatar {
 
-	private static final String SVG_START = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 231 231\">";
-	private static final String SVG_END = "</svg>";
     private static final String STROKE = "stroke-linecap:round;stroke-linejoin:round;stroke-width:";
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	/**
+	 * The maximum number of buffers produced by {@link #renderBuffers(ByteBuffer[], int, boolean)}:
+	 * header, metadata, six parts and footer.
+	 */
+	public static final int MAX_BUFFERS = PARTS.length + 3;
 	
     Coordinate env;
     Coordinate clo;
@@ -31,6 +42,17 @@ public class Avatar {
         }
     }
 
+    void setValue(AvatarPart part, Coordinate value) {
+        switch (part) {
+            case ENV: env = value; break;
+            case CLO: clo = value; break;
+            case HEAD: head = value; break;
+            case MOUTH: mouth = value; break;
+            case EYES: eyes = value; break;
+            case TOP: top = value; break;
+        }
+    }
+
 	/**
 	 * Creates a pure avatar where all parts use the same character and theme.
 	 *
@@ -57,48 +79,25 @@ public class Avatar {
 	 * @return A new {@link Avatar} generated deterministically from the id
 	 */
 	public static Avatar fromId(String id) {
-		// Get SHA-256 hash
-        String hash = Avatar.sha256(id);
-
-        // Remove all non-digits from hash (JavaScript compatibility)
-        String hashDigitsOnly = hash.replaceAll("\\D", "");
-
-        // Extract first 12 digits
-        String hashString = hashDigitsOnly.substring(0, Math.min(12, hashDigitsOnly.length()));
-
-        // Convert hash string to parts (6 parts, 2 digits each)
-        return Avatar.fromHash(hashString);
+		// Select parts from the decimal digits of the SHA-256 hash (JavaScript compatibility)
+		return Avatar.fromKey(IdHasher.hash(id));
 	}
-	
+
 	/**
-	 * Calculates SHA-256 hash of a string
-	 */
-	private static String sha256(String input) {
-	    try {
-	        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-	        byte[] hash = digest.digest(input.getBytes("UTF-8"));
-	        StringBuilder hexString = new StringBuilder();
-	        for (byte b : hash) {
-	            String hex = Integer.toHexString(0xff & b);
-	            if (hex.length() == 1) hexString.append('0');
-	            hexString.append(hex);
-	        }
-	        return hexString.toString();
-	    } catch (Exception e) {
-	        throw new RuntimeException("Error calculating SHA-256", e);
-	    }
-	}
-    
-	private static Avatar fromHash(String hashString) {
+	 * Creates an avatar from its packed {@link AvatarKey}.
+	 *
+	 * @param key The avatar key, see {@link #toKey()}
+	 * @return A new {@link Avatar} with the parts encoded in the key
+	 * @throws IllegalArgumentException If the given value is not a valid key
+	 */
+	public static Avatar fromKey(long key) {
+		AvatarKey.checkValid(key);
+
 		Avatar avatar = new Avatar();
-		// Get parts (range 0-47) and convert to {@link Coordinate} (0-15 + theme)
-        avatar.env = Avatar.fromPartNumber(getPartNumber(hashString.substring(0, 2)));
-        avatar.clo = Avatar.fromPartNumber(getPartNumber(hashString.substring(2, 4)));
-        avatar.head = Avatar.fromPartNumber(getPartNumber(hashString.substring(4, 6)));
-        avatar.mouth = Avatar.fromPartNumber(getPartNumber(hashString.substring(6, 8)));
-        avatar.eyes = Avatar.fromPartNumber(getPartNumber(hashString.substring(8, 10)));
-        avatar.top = Avatar.fromPartNumber(getPartNumber(hashString.substring(10, 12)));
-        return avatar;
+		for (AvatarPart part : PARTS) {
+			avatar.setValue(part, AvatarKey.coordinate(key, part));
+		}
+		return avatar;
 	}
 
 	/**
@@ -108,44 +107,94 @@ public class Avatar {
 	 * @return A new {@link Avatar} with randomly selected parts
 	 */
 	public static Avatar fromRandom(Random rnd) {
-		Avatar avatar = new Avatar();
 		// Generate random part numbers (0-47) for each avatar part
-		avatar.env = Avatar.fromPartNumber(rnd.nextInt(48));
-		avatar.clo = Avatar.fromPartNumber(rnd.nextInt(48));
-		avatar.head = Avatar.fromPartNumber(rnd.nextInt(48));
-		avatar.mouth = Avatar.fromPartNumber(rnd.nextInt(48));
-		avatar.eyes = Avatar.fromPartNumber(rnd.nextInt(48));
-		avatar.top = Avatar.fromPartNumber(rnd.nextInt(48));
-		return avatar;
+		return fromKey(AvatarKey.random(rnd));
 	}
 
-    /**
-	 * Creates a {@link Coordinate} from a part number (0-47)
+	/**
+	 * The packed {@link AvatarKey} of this avatar.
+	 *
+	 * @see #fromKey(long)
 	 */
-	private static Coordinate fromPartNumber(int nr) {
-	    Theme theme;
-	
-	    if (nr > 31) {
-	        nr = nr - 32;
-	        theme = Theme.C;
-	    } else if (nr > 15) {
-	        nr = nr - 16;
-	        theme = Theme.B;
-	    } else {
-	        theme = Theme.A;
-	    }
-	
-	    CharacterType character = CharacterType.fromIndex(nr);
-	    return Coordinate.coordinate(character, theme);
+	public long toKey() {
+		long key = 0;
+		for (AvatarPart part : PARTS) {
+			key = AvatarKey.with(key, part, getValue(part).getPartNumber());
+		}
+		return key;
 	}
 
 	/**
-     * Converts a 2-digit decimal string (0-99) to a part number (0-47)
-     */
-    private static int getPartNumber(String digitPair) {
-        int value = Integer.parseInt(digitPair);
-        return Math.round((47f / 100f) * value);
-    }
+	 * The number of characters in the result of {@link #render(boolean)}, computed without
+	 * rendering.
+	 *
+	 * @param sansEnv If true, computes the length without the circular background
+	 * @return The length of the SVG code
+	 */
+	public int renderedLength(boolean sansEnv) {
+		return renderedLength(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * The number of characters in the result of {@link #render(OutputProfile, boolean)}, computed
+	 * without rendering.
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, computes the length without the circular background
+	 * @return The length of the SVG code
+	 */
+	public int renderedLength(OutputProfile profile, boolean sansEnv) {
+		int length = svgStart(profile, sansEnv).length() + Fragment.METADATA.length() + Fragment.SVG_END.length();
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			length += fragments.get(getValue(part), part).length();
+		}
+		return length;
+	}
+
+	/**
+	 * The number of bytes in the UTF-8 encoding of {@link #render(boolean)}, computed without
+	 * rendering.
+	 *
+	 * <p>
+	 * This is the number of bytes written by {@link #renderTo(OutputStream, boolean)} and
+	 * {@link #renderTo(ByteBuffer, boolean)}, e.g. to be sent as <code>Content-Length</code>.
+	 * </p>
+	 *
+	 * @param sansEnv If true, computes the length without the circular background
+	 * @return The length of the UTF-8 encoded SVG code
+	 */
+	public int renderedByteLength(boolean sansEnv) {
+		return renderedByteLength(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * The number of bytes in the UTF-8 encoding of {@link #render(OutputProfile, boolean)}, computed
+	 * without rendering.
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, computes the length without the circular background
+	 * @return The length of the UTF-8 encoded SVG code
+	 */
+	public int renderedByteLength(OutputProfile profile, boolean sansEnv) {
+		// Colors are ASCII, the opening tag has as many bytes as characters.
+		int length = svgStart(profile, sansEnv).length() + Fragment.METADATA.byteLength() + Fragment.SVG_END.byteLength();
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			length += fragments.get(getValue(part), part).byteLength();
+		}
+		return length;
+	}
 
 	/**
 	 * Renders this avatar to SVG format
@@ -154,22 +203,562 @@ public class Avatar {
 	 * @return The complete SVG code as a string
 	 */
 	public String render(boolean sansEnv) {
-		StringBuilder result = new StringBuilder(SVG_START);
+		return render(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * The layers of this avatar in the order they are drawn.
+	 *
+	 * @param sansEnv If true, leaves out the circular background
+	 * @return The {@link Layer}s, whose {@link Layer#getKey() keys} describe this avatar
+	 */
+	public List<Layer> getLayers(boolean sansEnv) {
+		List<Layer> result = new ArrayList<>(PARTS.length);
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			result.add(Layer.layer(part, getValue(part)));
+		}
+		return result;
+	}
+
+	/**
+	 * The layers of this avatar that differ from the given previous avatar.
+	 *
+	 * <p>
+	 * An editor that shows the {@link #renderLayered(boolean) layered} rendering of the previous
+	 * avatar can replace the groups with the {@link Layer#getPart() parts} of the returned layers
+	 * by their {@link Layer#renderGroup() groups} to show this avatar.
+	 * </p>
+	 *
+	 * @param previous The avatar to compare with
+	 * @param sansEnv If true, ignores the circular background
+	 * @return The changed {@link Layer}s of this avatar in the order they are drawn, empty if both
+	 *         avatars look the same
+	 */
+	public List<Layer> diff(Avatar previous, boolean sansEnv) {
+		List<Layer> result = new ArrayList<>();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			Coordinate value = getValue(part);
+			if (value != previous.getValue(part)) {
+				result.add(Layer.layer(part, value));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Renders this avatar with each layer in a separate group.
+	 *
+	 * <p>
+	 * Each layer is wrapped in a group like
+	 * <code>&lt;g data-part="head" data-layer="02A-head"&gt;</code>, so that a client can locate
+	 * and replace single layers, see {@link #diff(Avatar, boolean)}. The result looks the same as
+	 * {@link #render(boolean)}.
+	 * </p>
+	 *
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 */
+	public String renderLayered(boolean sansEnv) {
+		return renderLayered(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Renders this avatar in the given {@link OutputProfile} with each layer in a separate group.
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 * @see #renderLayered(boolean)
+	 * @see Layer#renderGroup(OutputProfile)
+	 */
+	public String renderLayered(OutputProfile profile, boolean sansEnv) {
+		StringBuilder result = new StringBuilder(renderedLength(profile, sansEnv) + PARTS.length * 64);
+		result.append(Fragment.SVG_START.text());
+
+		// Add generator attribution (fulfills license requirement)
+		result.append(Fragment.METADATA.text());
+
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			Layer.layer(part, getValue(part)).appendGroup(result, profile);
+		}
+
+		result.append(Fragment.SVG_END.text());
+		return result.toString();
+	}
+
+	/**
+	 * The CSS custom property declarations holding the colors of this avatar.
+	 *
+	 * <p>
+	 * The result has the form <code>--ma-env-0:#ff2f2b;--ma-head-0:#f3a874;...</code> and supplies the
+	 * colors referenced by output in an {@link OutputProfile#withCssVariables() CSS variables}
+	 * profile, e.g. in the <code>style</code> attribute of an element containing references to
+	 * shared part geometry.
+	 * </p>
+	 *
+	 * @param sansEnv If true, leaves out the colors of the circular background
+	 * @return The declarations for a <code>style</code> attribute
+	 */
+	public String renderColorStyle(boolean sansEnv) {
+		StringBuilder result = new StringBuilder(256);
+		appendColorStyle(result, sansEnv);
+		return result.toString();
+	}
+
+	void appendColorStyle(StringBuilder out, boolean sansEnv) {
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			ColorVariables.appendStyle(out, getValue(part), part);
+		}
+	}
+
+	/**
+	 * The opening SVG tag, defining the colors of this avatar for the given profile.
+	 */
+	private String svgStart(OutputProfile profile, boolean sansEnv) {
+		if (!profile.hasCssVariables()) {
+			return Fragment.SVG_START.text();
+		}
+
+		String start = Fragment.SVG_START.text();
+		StringBuilder result = new StringBuilder(start.length() + 256);
+		result.append(start, 0, start.length() - 1);
+		result.append(" style=\"");
+		appendColorStyle(result, sansEnv);
+		result.append("\">");
+		return result.toString();
+	}
+
+	/**
+	 * The opening tag of {@link #svgStart(OutputProfile, boolean)} as shared fragment, or as new
+	 * fragment if it depends on the colors of this avatar.
+	 */
+	private Fragment svgStartFragment(OutputProfile profile, boolean sansEnv) {
+		return profile.hasCssVariables() ? new Fragment(svgStart(profile, sansEnv)) : Fragment.SVG_START;
+	}
+
+	/**
+	 * Renders this avatar to SVG format for display at the given size, leaving out detail that
+	 * cannot be seen at this size.
+	 *
+	 * @param pixelSize The width in pixels the avatar is displayed with
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 * @see OutputProfile#forSize(int)
+	 */
+	public String render(int pixelSize, boolean sansEnv) {
+		return render(OutputProfile.forSize(pixelSize), sansEnv);
+	}
+
+	/**
+	 * Renders this avatar to SVG format in the given {@link OutputProfile}
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 */
+	public String render(OutputProfile profile, boolean sansEnv) {
+		StringBuilder result = new StringBuilder(renderedLength(profile, sansEnv));
+		result.append(svgStart(profile, sansEnv));
 
 		// Add generator attribution (fulfills license requirement)
-		result.append("<metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:creator>Multiavatar</dc:creator><dc:source>https://multiavatar.com</dc:source></metadata>");
+		result.append(Fragment.METADATA.text());
 
-		for (AvatarPart part : AvatarPart.values()) {
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
 			if (part == AvatarPart.ENV && sansEnv) {
 				continue; // Skip environment if sansEnv is true
 			}
 
-			Coordinate coordinate = getValue(part);
-			coordinate.renderPart(result, part);
+			result.append(fragments.get(getValue(part), part).text());
 		}
 
-		result.append(SVG_END);
+		result.append(Fragment.SVG_END.text());
 		return result.toString();
 	}
 
+	/**
+	 * Writes the SVG code of this avatar to the given sink.
+	 *
+	 * <p>
+	 * The fragments are appended one by one, without building the complete SVG code as
+	 * intermediate string. The output is identical to {@link #render(boolean)}.
+	 * </p>
+	 *
+	 * @param out The sink to write to, e.g. a {@link java.io.Writer} or a {@link StringBuilder}
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the sink fails
+	 */
+	public void renderTo(Appendable out, boolean sansEnv) throws IOException {
+		renderTo(out, OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Writes the SVG code of this avatar in the given {@link OutputProfile} to the given sink.
+	 *
+	 * @param out The sink to write to, e.g. a {@link java.io.Writer} or a {@link StringBuilder}
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the sink fails
+	 * @see #renderTo(Appendable, boolean)
+	 */
+	public void renderTo(Appendable out, OutputProfile profile, boolean sansEnv) throws IOException {
+		out.append(svgStart(profile, sansEnv));
+		out.append(Fragment.METADATA.text());
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.append(fragments.get(getValue(part), part).text());
+		}
+
+		out.append(Fragment.SVG_END.text());
+	}
+
+	/**
+	 * Writes the UTF-8 encoded SVG of this avatar to the given stream.
+	 *
+	 * <p>
+	 * The output is written from pre-encoded fragments and is byte-identical to the UTF-8 encoding
+	 * of {@link #render(boolean)}.
+	 * </p>
+	 *
+	 * @param out The stream to write to
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the stream fails
+	 */
+	public void renderTo(OutputStream out, boolean sansEnv) throws IOException {
+		renderTo(out, OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Writes the UTF-8 encoded SVG of this avatar in the given {@link OutputProfile} to the given
+	 * stream.
+	 *
+	 * @param out The stream to write to
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the stream fails
+	 * @see #renderTo(OutputStream, boolean)
+	 */
+	public void renderTo(OutputStream out, OutputProfile profile, boolean sansEnv) throws IOException {
+		out.write(svgStartFragment(profile, sansEnv).utf8());
+		out.write(Fragment.METADATA.utf8());
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.write(fragments.get(getValue(part), part).utf8());
+		}
+
+		out.write(Fragment.SVG_END.utf8());
+	}
+
+	/**
+	 * Puts the UTF-8 encoded SVG of this avatar into the given buffer.
+	 *
+	 * <p>
+	 * The output is written from pre-encoded fragments and is byte-identical to the UTF-8 encoding
+	 * of {@link #render(boolean)}.
+	 * </p>
+	 *
+	 * @param buffer The buffer to write to, starting at its current position
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The number of bytes written
+	 * @throws BufferOverflowException If the remaining space in the buffer is too small, the buffer
+	 *         is left unmodified in that case
+	 */
+	public int renderTo(ByteBuffer buffer, boolean sansEnv) {
+		return renderTo(buffer, OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Puts the UTF-8 encoded SVG of this avatar in the given {@link OutputProfile} into the given
+	 * buffer.
+	 *
+	 * @param buffer The buffer to write to, starting at its current position
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The number of bytes written
+	 * @throws BufferOverflowException If the remaining space in the buffer is too small, the buffer
+	 *         is left unmodified in that case
+	 * @see #renderTo(ByteBuffer, boolean)
+	 */
+	public int renderTo(ByteBuffer buffer, OutputProfile profile, boolean sansEnv) {
+		int length = renderedByteLength(profile, sansEnv);
+		if (buffer.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+
+		buffer.put(svgStartFragment(profile, sansEnv).utf8());
+		buffer.put(Fragment.METADATA.utf8());
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			buffer.put(fragments.get(getValue(part), part).utf8());
+		}
+
+		buffer.put(Fragment.SVG_END.utf8());
+		return length;
+	}
+
+	/**
+	 * The UTF-8 encoding of {@link #render(boolean)}, e.g. to both {@link AvatarCodec#encode(byte[])
+	 * encode} and return an avatar without rendering it twice.
+	 */
+	byte[] renderBytes(boolean sansEnv) {
+		byte[] result = new byte[renderedByteLength(sansEnv)];
+		renderTo(ByteBuffer.wrap(result), sansEnv);
+		return result;
+	}
+
+	/**
+	 * Renders this avatar as a sequence of shared, read-only direct buffers.
+	 *
+	 * <p>
+	 * The concatenation of the returned buffers is the UTF-8 encoding of {@link #render(boolean)}.
+	 * The buffers are views of fragments that are encoded once and shared between all avatars, so
+	 * the result can be passed to {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])}
+	 * without copying any payload.
+	 * </p>
+	 *
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The buffers to write in order
+	 */
+	public ByteBuffer[] renderBuffers(boolean sansEnv) {
+		return renderBuffers(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Renders this avatar in the given {@link OutputProfile} as a sequence of read-only buffers.
+	 *
+	 * <p>
+	 * With {@link OutputProfile#hasCssVariables() CSS variables}, the opening tag carries the colors
+	 * of this avatar and is a heap buffer of its own, all other buffers are shared as in
+	 * {@link #renderBuffers(boolean)}.
+	 * </p>
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The buffers to write in order
+	 */
+	public ByteBuffer[] renderBuffers(OutputProfile profile, boolean sansEnv) {
+		ByteBuffer[] result = new ByteBuffer[sansEnv ? MAX_BUFFERS - 1 : MAX_BUFFERS];
+		renderBuffers(result, 0, profile, sansEnv);
+		return result;
+	}
+
+	/**
+	 * Stores the shared, read-only direct buffers of this avatar into the given array.
+	 *
+	 * @param buffers The array to fill, must have room for {@link #MAX_BUFFERS} entries starting at
+	 *        the given offset
+	 * @param offset The index of the first buffer to store
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The number of buffers stored
+	 * @see #renderBuffers(boolean)
+	 */
+	public int renderBuffers(ByteBuffer[] buffers, int offset, boolean sansEnv) {
+		return renderBuffers(buffers, offset, OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Stores the read-only buffers of this avatar in the given {@link OutputProfile} into the given
+	 * array.
+	 *
+	 * @param buffers The array to fill, must have room for {@link #MAX_BUFFERS} entries starting at
+	 *        the given offset
+	 * @param offset The index of the first buffer to store
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The number of buffers stored
+	 * @see #renderBuffers(OutputProfile, boolean)
+	 */
+	public int renderBuffers(ByteBuffer[] buffers, int offset, OutputProfile profile, boolean sansEnv) {
+		int pos = offset;
+		if (profile.hasCssVariables()) {
+			buffers[pos++] = ByteBuffer.wrap(svgStartFragment(profile, sansEnv).utf8()).asReadOnlyBuffer();
+		} else {
+			buffers[pos++] = Fragment.SVG_START.buffer();
+		}
+		buffers[pos++] = Fragment.METADATA.buffer();
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			buffers[pos++] = fragments.get(getValue(part), part).buffer();
+		}
+
+		buffers[pos++] = Fragment.SVG_END.buffer();
+		return pos - offset;
+	}
+
+	/**
+	 * Renders this avatar as gzip compressed SVG.
+	 *
+	 * <p>
+	 * The result is a multi-member gzip stream (RFC 1952) that decompresses to the UTF-8 encoding
+	 * of {@link #render(boolean)}. It is assembled by concatenating fragments that are compressed
+	 * once and shared between all avatars, so no compression happens per call. The result can be
+	 * served as is with <code>Content-Encoding: gzip</code>.
+	 * </p>
+	 *
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The gzip compressed SVG
+	 */
+	public byte[] renderGzip(boolean sansEnv) {
+		return renderGzip(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Renders this avatar in the given {@link OutputProfile} as gzip compressed SVG.
+	 *
+	 * <p>
+	 * With {@link OutputProfile#hasCssVariables() CSS variables}, the opening tag carries the colors
+	 * of this avatar and is compressed per call, all other members are shared as in
+	 * {@link #renderGzip(boolean)}.
+	 * </p>
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The gzip compressed SVG
+	 */
+	public byte[] renderGzip(OutputProfile profile, boolean sansEnv) {
+		Fragment start = svgStartFragment(profile, sansEnv);
+		FragmentTable fragments = profile.fragments();
+		byte[] result = new byte[gzipLength(start, fragments, sansEnv)];
+		int pos = put(result, 0, start.gzip());
+		pos = put(result, pos, Fragment.METADATA.gzip());
+
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			pos = put(result, pos, fragments.get(getValue(part), part).gzip());
+		}
+
+		put(result, pos, Fragment.SVG_END.gzip());
+		return result;
+	}
+
+	/**
+	 * Writes the gzip compressed SVG of this avatar to the given stream.
+	 *
+	 * @param out The stream to write to
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the stream fails
+	 * @see #renderGzip(boolean)
+	 */
+	public void renderGzipTo(OutputStream out, boolean sansEnv) throws IOException {
+		renderGzipTo(out, OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * Writes the gzip compressed SVG of this avatar in the given {@link OutputProfile} to the given
+	 * stream.
+	 *
+	 * @param out The stream to write to
+	 * @param profile The {@link OutputProfile} to render in
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the stream fails
+	 * @see #renderGzip(OutputProfile, boolean)
+	 */
+	public void renderGzipTo(OutputStream out, OutputProfile profile, boolean sansEnv) throws IOException {
+		out.write(svgStartFragment(profile, sansEnv).gzip());
+		out.write(Fragment.METADATA.gzip());
+
+		FragmentTable fragments = profile.fragments();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.write(fragments.get(getValue(part), part).gzip());
+		}
+
+		out.write(Fragment.SVG_END.gzip());
+	}
+
+	private static int put(byte[] buffer, int pos, byte[] bytes) {
+		System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+		return pos + bytes.length;
+	}
+
+	/**
+	 * The number of bytes produced by {@link #renderGzip(boolean)}.
+	 */
+	int gzipLength(boolean sansEnv) {
+		return gzipLength(OutputProfile.DEFAULT, sansEnv);
+	}
+
+	/**
+	 * The number of bytes produced by {@link #renderGzip(OutputProfile, boolean)}.
+	 */
+	int gzipLength(OutputProfile profile, boolean sansEnv) {
+		return gzipLength(svgStartFragment(profile, sansEnv), profile.fragments(), sansEnv);
+	}
+
+	private int gzipLength(Fragment start, FragmentTable fragments, boolean sansEnv) {
+		int length = start.gzipLength() + Fragment.METADATA.gzipLength() + Fragment.SVG_END.gzipLength();
+
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			length += fragments.get(getValue(part), part).gzipLength();
+		}
+		return length;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(toKey());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof Avatar)) {
+			return false;
+		}
+		return ((Avatar) obj).toKey() == toKey();
+	}
+
+	@Override
+	public String toString() {
+		return AvatarKey.format(toKey());
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,443 @@
+package com.multiavatar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of rendered avatar SVGs.
+ *
+ * <p>
+ * Entries are keyed by the packed {@link AvatarKey} and the <code>sansEnv</code> flag. The capacity
+ * is a budget for the total size of the cached SVG code rather than an entry count, since the
+ * output size differs a lot between characters. Sizes are measured in bytes of the UTF-8 encoding,
+ * for entries kept as strings as well as for encoded entries.
+ * </p>
+ *
+ * <p>
+ * The cache is split into independently locked segments. Each segment evicts in least recently
+ * used order, but only admits a new entry if it was requested more frequently than the entries it
+ * would replace (TinyLFU). Frequencies are estimated with a small {@link FrequencySketch}, so a
+ * stream of one-off requests cannot flush popular avatars from the cache.
+ * </p>
+ *
+ * <p>
+ * By default, the SVG code is kept as strings. With an {@link AvatarCodec}, entries are kept in
+ * encoded form and decoded on each hit, e.g. {@link AvatarCodec#DEFLATE} fits about five times as
+ * many avatars into the same budget, but makes each hit several times slower than rendering the
+ * avatar anew.
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * AvatarCache cache = new AvatarCache(64 * 1024 * 1024);
+ * String svgCode = cache.generate("Binx Bond", false);
+ * </pre>
+ */
+public class AvatarCache {
+
+	/**
+	 * Minimum budget of a single segment, smaller caches use fewer segments.
+	 */
+	private static final long MIN_SEGMENT_SIZE = 256 * 1024;
+
+	private static final int MAX_SEGMENTS = 16;
+
+	/**
+	 * Rough size of a rendered avatar, used to dimension the frequency sketches.
+	 */
+	private static final int AVERAGE_ENTRY_SIZE = 6 * 1024;
+
+	private final Segment[] _segments;
+
+	private final long _maxSize;
+
+	/**
+	 * The encoding of cached entries, <code>null</code> to keep strings.
+	 */
+	private final AvatarCodec _codec;
+
+	private final LongAdder _hits = new LongAdder();
+
+	private final LongAdder _misses = new LongAdder();
+
+	private final LongAdder _evictions = new LongAdder();
+
+	/**
+	 * Creates an {@link AvatarCache}.
+	 *
+	 * @param maxSize The maximum total size in bytes of the SVG code kept in the cache.
+	 */
+	public AvatarCache(long maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * Creates an {@link AvatarCache} keeping entries in encoded form.
+	 *
+	 * @param maxSize The maximum total size in bytes of the encoded entries kept in the cache.
+	 * @param codec The encoding of cached entries, <code>null</code> to keep the SVG code as
+	 *        strings.
+	 */
+	public AvatarCache(long maxSize, AvatarCodec codec) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+		}
+		_maxSize = maxSize;
+		_codec = codec;
+
+		int segmentCount = 1;
+		while (segmentCount < MAX_SEGMENTS && maxSize / (segmentCount * 2) >= MIN_SEGMENT_SIZE) {
+			segmentCount *= 2;
+		}
+
+		long segmentSize = maxSize / segmentCount;
+		int expectedEntries = (int) Math.min(1 << 20, Math.max(16, segmentSize / AVERAGE_ENTRY_SIZE));
+		_segments = new Segment[segmentCount];
+		for (int n = 0; n < segmentCount; n++) {
+			_segments[n] = new Segment(segmentSize, expectedEntries);
+		}
+	}
+
+	/**
+	 * Generates an avatar SVG from the given identifier, see
+	 * {@link Multiavatar#generate(String, boolean)}.
+	 *
+	 * @param id The identifier to generate the avatar from (e.g., username, email)
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return The complete SVG code as a string
+	 */
+	public String generate(String id, boolean sansEnv) {
+		if (id == null || id.length() == 0) {
+			// Return empty string for empty input (JavaScript compatibility)
+			return "";
+		}
+		return render(AvatarKey.fromId(id), sansEnv);
+	}
+
+	/**
+	 * Renders the given avatar, see {@link Avatar#render(boolean)}.
+	 *
+	 * @param avatar The avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 */
+	public String render(Avatar avatar, boolean sansEnv) {
+		return render(avatar.toKey(), sansEnv);
+	}
+
+	/**
+	 * Renders the avatar with the given key, see {@link Avatar#render(boolean)}.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 */
+	public String render(long key, boolean sansEnv) {
+		long entryKey = entryKey(AvatarKey.checkValid(key), sansEnv);
+		Segment segment = segment(entryKey);
+
+		Object value = segment.get(entryKey);
+		if (value != null) {
+			_hits.increment();
+			return _codec == null ? (String) value : _codec.decodeString((byte[]) value);
+		}
+
+		_misses.increment();
+		Avatar avatar = Avatar.fromKey(key);
+		if (_codec == null) {
+			String result = avatar.render(sansEnv);
+			_evictions.add(segment.put(entryKey, result, avatar.renderedByteLength(sansEnv)));
+			return result;
+		}
+
+		byte[] svg = avatar.renderBytes(sansEnv);
+		byte[] encoded = _codec.encode(svg);
+		_evictions.add(segment.put(entryKey, encoded, encoded.length));
+		return new String(svg, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Removes all entries from this cache.
+	 */
+	public void clear() {
+		for (Segment segment : _segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * The encoding of cached entries, <code>null</code> if the SVG code is kept as strings.
+	 */
+	public AvatarCodec getCodec() {
+		return _codec;
+	}
+
+	/**
+	 * The maximum total size of the SVG code kept in this cache, or of its encoded form when using
+	 * an {@link AvatarCodec}.
+	 */
+	public long getMaxSize() {
+		return _maxSize;
+	}
+
+	/**
+	 * The total size of the SVG code currently kept in this cache, or of its encoded form when using
+	 * an {@link AvatarCodec}.
+	 */
+	public long getSize() {
+		long result = 0;
+		for (Segment segment : _segments) {
+			result += segment.size();
+		}
+		return result;
+	}
+
+	/**
+	 * The number of entries currently kept in this cache.
+	 */
+	public int getEntryCount() {
+		int result = 0;
+		for (Segment segment : _segments) {
+			result += segment.count();
+		}
+		return result;
+	}
+
+	/**
+	 * The number of requests answered from the cache.
+	 */
+	public long getHitCount() {
+		return _hits.sum();
+	}
+
+	/**
+	 * The number of requests that required rendering.
+	 */
+	public long getMissCount() {
+		return _misses.sum();
+	}
+
+	/**
+	 * The number of entries removed to make room for more frequently requested ones.
+	 */
+	public long getEvictionCount() {
+		return _evictions.sum();
+	}
+
+	/**
+	 * Combines the given {@link AvatarKey} and the <code>sansEnv</code> flag into a cache key.
+	 */
+	static long entryKey(long key, boolean sansEnv) {
+		return (key << 1) | (sansEnv ? 1 : 0);
+	}
+
+	private Segment segment(long entryKey) {
+		long hash = entryKey * 0x9E3779B97F4A7C15L;
+		return _segments[(int) (hash >>> 40) & (_segments.length - 1)];
+	}
+
+	/**
+	 * Cache entry, linked into the hash chain and the LRU list of its segment.
+	 */
+	private static final class Node {
+
+		final long _key;
+
+		/**
+		 * The SVG code as {@link String}, or its encoded form as <code>byte[]</code>.
+		 */
+		final Object _value;
+
+		/**
+		 * The number of bytes charged against the budget, the length of the UTF-8 encoded SVG code
+		 * or of the encoded form.
+		 */
+		final int _size;
+
+		Node _chain;
+
+		Node _newer;
+
+		Node _older;
+
+		Node(long key, Object value, int size) {
+			_key = key;
+			_value = value;
+			_size = size;
+		}
+	}
+
+	/**
+	 * Independently locked part of the cache with its own budget, LRU order and frequency sketch.
+	 */
+	private static final class Segment {
+
+		private final long _maxSize;
+
+		private final FrequencySketch _sketch;
+
+		private Node[] _table = new Node[16];
+
+		private int _count;
+
+		private long _size;
+
+		/**
+		 * Sentinel of the LRU list, {@link Node#_older} of the head is the most recently used entry.
+		 */
+		private final Node _head = new Node(0, "", 0);
+
+		Segment(long maxSize, int expectedEntries) {
+			_maxSize = maxSize;
+			_sketch = new FrequencySketch(expectedEntries);
+			_head._newer = _head;
+			_head._older = _head;
+		}
+
+		synchronized Object get(long key) {
+			_sketch.increment(key);
+
+			Node node = lookup(key);
+			if (node == null) {
+				return null;
+			}
+
+			unlink(node);
+			linkFirst(node);
+			return node._value;
+		}
+
+		/**
+		 * Adds a new entry if it is more popular than the entries it would replace.
+		 *
+		 * @param size The size of the value in bytes, see {@link Node#_size}.
+		 * @return The number of evicted entries.
+		 */
+		synchronized int put(long key, Object value, int size) {
+			if (lookup(key) != null) {
+				// Rendered concurrently by another thread.
+				return 0;
+			}
+
+			Node candidate = new Node(key, value, size);
+			int candidateSize = size;
+			if (candidateSize > _maxSize) {
+				return 0;
+			}
+
+			long required = _size + candidateSize - _maxSize;
+			if (required > 0) {
+				// Only replace entries that are requested less frequently than the candidate.
+				int frequency = _sketch.frequency(key);
+				long freed = 0;
+				for (Node victim = _head._newer; freed < required; victim = victim._newer) {
+					if (_sketch.frequency(victim._key) >= frequency) {
+						return 0;
+					}
+					freed += victim._size;
+				}
+			}
+
+			int evicted = 0;
+			while (_size + candidateSize > _maxSize) {
+				remove(_head._newer);
+				evicted++;
+			}
+
+			insert(candidate);
+			return evicted;
+		}
+
+		synchronized void clear() {
+			_table = new Node[16];
+			_count = 0;
+			_size = 0;
+			_head._newer = _head;
+			_head._older = _head;
+		}
+
+		synchronized long size() {
+			return _size;
+		}
+
+		synchronized int count() {
+			return _count;
+		}
+
+		private Node lookup(long key) {
+			for (Node node = _table[bucket(key, _table.length)]; node != null; node = node._chain) {
+				if (node._key == key) {
+					return node;
+				}
+			}
+			return null;
+		}
+
+		private void insert(Node node) {
+			if (_count >= _table.length * 3 / 4) {
+				rehash();
+			}
+
+			int bucket = bucket(node._key, _table.length);
+			node._chain = _table[bucket];
+			_table[bucket] = node;
+			linkFirst(node);
+
+			_count++;
+			_size += node._size;
+		}
+
+		private void remove(Node node) {
+			int bucket = bucket(node._key, _table.length);
+			if (_table[bucket] == node) {
+				_table[bucket] = node._chain;
+			} else {
+				Node before = _table[bucket];
+				while (before._chain != node) {
+					before = before._chain;
+				}
+				before._chain = node._chain;
+			}
+			unlink(node);
+
+			_count--;
+			_size -= node._size;
+		}
+
+		private void rehash() {
+			Node[] table = new Node[_table.length * 2];
+			for (Node node : _table) {
+				while (node != null) {
+					Node next = node._chain;
+					int bucket = bucket(node._key, table.length);
+					node._chain = table[bucket];
+					table[bucket] = node;
+					node = next;
+				}
+			}
+			_table = table;
+		}
+
+		private void linkFirst(Node node) {
+			Node first = _head._older;
+			node._newer = _head;
+			node._older = first;
+			first._newer = node;
+			_head._older = node;
+		}
+
+		private static void unlink(Node node) {
+			node._newer._older = node._older;
+			node._older._newer = node._newer;
+		}
+
+		private static int bucket(long key, int tableSize) {
+			long hash = key * 0xC2B2AE3D27D4EB4FL;
+			return (int) (hash ^ (hash >>> 32)) & (tableSize - 1);
+		}
+	}
+
+}
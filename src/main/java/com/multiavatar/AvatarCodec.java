@@ -0,0 +1,91 @@
+package com.multiavatar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoding of rendered avatars stored in a cache.
+ *
+ * <p>
+ * {@link AvatarCache}, {@link OffHeapAvatarCache} and {@link MappedAvatarCache} keep the encoded
+ * form of each avatar and decode it on every lookup. {@link #PLAIN} stores the UTF-8 encoded SVG
+ * code and lets the caches serve entries without decoding. {@link #DEFLATE} stores about a fifth of
+ * that size, at the cost of decompressing each cache hit.
+ * </p>
+ *
+ * <p>
+ * Rendering an avatar from the precomputed fragments takes a few microseconds, decompressing it
+ * takes several times as long. {@link #DEFLATE} is therefore meant for the disk tier, i.e. a
+ * {@link MappedAvatarCache} that holds more avatars than fit into memory or is shared between
+ * restarts. In memory caches, it trades CPU time on every hit for capacity.
+ * </p>
+ *
+ * <p>
+ * Implementations must be thread-safe.
+ * </p>
+ */
+public interface AvatarCodec {
+
+	/**
+	 * Stores the UTF-8 encoded SVG code unchanged.
+	 */
+	AvatarCodec PLAIN = new PlainAvatarCodec();
+
+	/**
+	 * Compresses the SVG code with deflate, using a preset dictionary built from the constant parts
+	 * of the avatar templates.
+	 */
+	AvatarCodec DEFLATE = new DeflateAvatarCodec();
+
+	/**
+	 * Short name of this encoding.
+	 *
+	 * <p>
+	 * The name identifies the encoding of persistent cache files, see {@link MappedAvatarCache}.
+	 * </p>
+	 */
+	String name();
+
+	/**
+	 * Renders and encodes the given avatar.
+	 *
+	 * @param avatar The avatar to encode
+	 * @param sansEnv If true, encodes the avatar without the circular background
+	 * @return The encoded avatar
+	 */
+	default byte[] encode(Avatar avatar, boolean sansEnv) {
+		return encode(avatar.renderBytes(sansEnv));
+	}
+
+	/**
+	 * Encodes an avatar that is already rendered.
+	 *
+	 * @param svg The UTF-8 encoded SVG code, not modified
+	 * @return The encoded avatar, may be the given array itself
+	 */
+	byte[] encode(byte[] svg);
+
+	/**
+	 * Decodes an avatar encoded with {@link #encode(Avatar, boolean)}.
+	 *
+	 * @param data The remaining bytes of this buffer are the encoded avatar, its position is not
+	 *        modified
+	 * @return A buffer with the UTF-8 encoded SVG code, may be the given buffer itself
+	 */
+	ByteBuffer decode(ByteBuffer data);
+
+	/**
+	 * Decodes an avatar encoded with {@link #encode(Avatar, boolean)} to a string.
+	 *
+	 * @param data The encoded avatar
+	 * @return The SVG code
+	 */
+	default String decodeString(byte[] data) {
+		ByteBuffer svg = decode(ByteBuffer.wrap(data));
+		if (svg.hasArray()) {
+			return new String(svg.array(), svg.arrayOffset() + svg.position(), svg.remaining(), StandardCharsets.UTF_8);
+		}
+		return StandardCharsets.UTF_8.decode(svg.duplicate()).toString();
+	}
+
+}
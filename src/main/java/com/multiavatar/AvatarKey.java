@@ -0,0 +1,220 @@
+package com.multiavatar;
+
+import java.util.Random;
+
+/**
+ * Packed 64-bit encoding of an {@link Avatar} configuration.
+ *
+ * <p>
+ * An avatar consists of six {@link Coordinate}s, each of which is one of 48 part numbers (16
+ * {@link CharacterType}s times 3 {@link Theme}s). A key stores the part number of each
+ * {@link AvatarPart} in {@value #PART_BITS} bits at offset {@value #PART_BITS} times the ordinal of
+ * the part. All other bits are zero. Keys are plain <code>long</code> values and can be used in
+ * primitive collections, caches and URLs without allocating {@link Avatar} instances.
+ * </p>
+ *
+ * <p>
+ * The text form lists the {@link CharacterType#getId() character ID} and {@link Theme#getCode()
+ * theme code} of each part in {@link AvatarPart} order, e.g. <code>03B05A11C00A14C02B</code>.
+ * </p>
+ */
+public final class AvatarKey {
+
+	/**
+	 * Number of bits used for the part number of a single {@link AvatarPart}.
+	 */
+	public static final int PART_BITS = 6;
+
+	/**
+	 * Length of the text form of a key.
+	 */
+	public static final int TEXT_LENGTH = 3 * 6;
+
+	static final long PART_MASK = (1L << PART_BITS) - 1;
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	/**
+	 * The {@link AvatarPart}s in the order their part numbers are drawn by {@link #random(Random)}.
+	 */
+	private static final AvatarPart[] RANDOM_ORDER = {
+		AvatarPart.ENV, AvatarPart.CLO, AvatarPart.HEAD, AvatarPart.MOUTH, AvatarPart.EYES, AvatarPart.TOP
+	};
+
+	private AvatarKey() {
+		// Static utility.
+	}
+
+	/**
+	 * Computes the key of the avatar generated from the given identifier.
+	 *
+	 * <p>
+	 * Same as <code>Avatar.fromId(id).toKey()</code> without creating the {@link Avatar}.
+	 * </p>
+	 *
+	 * @param id The identifier to generate the avatar from (e.g., username, email)
+	 * @return The avatar key.
+	 */
+	public static long fromId(CharSequence id) {
+		return IdHasher.hash(id);
+	}
+
+	/**
+	 * Creates the key of a pure avatar where all parts use the same character and theme.
+	 *
+	 * @param character The {@link CharacterType} to use for all parts
+	 * @param theme The {@link Theme} to use for all parts
+	 * @return The avatar key.
+	 */
+	public static long pure(CharacterType character, Theme theme) {
+		long key = 0;
+		int nr = Coordinate.coordinate(character, theme).getPartNumber();
+		for (AvatarPart part : PARTS) {
+			key = with(key, part, nr);
+		}
+		return key;
+	}
+
+	/**
+	 * Creates the key of a random avatar.
+	 *
+	 * <p>
+	 * Draws the same random numbers as {@link Avatar#fromRandom(Random)}, so that both produce the
+	 * same avatar from equally seeded {@link Random}s.
+	 * </p>
+	 *
+	 * @param rnd The {@link Random} instance to use for generating random parts
+	 * @return The avatar key.
+	 */
+	public static long random(Random rnd) {
+		long key = 0;
+		for (AvatarPart part : RANDOM_ORDER) {
+			key = with(key, part, rnd.nextInt(Coordinate.PART_NUMBERS));
+		}
+		return key;
+	}
+
+	/**
+	 * The part number (0-47) of the given part in the given key.
+	 */
+	public static int partNumber(long key, AvatarPart part) {
+		return (int) ((key >>> (PART_BITS * part.ordinal())) & PART_MASK);
+	}
+
+	/**
+	 * The {@link Coordinate} of the given part in the given key.
+	 */
+	public static Coordinate coordinate(long key, AvatarPart part) {
+		return Coordinate.fromPartNumber(partNumber(key, part));
+	}
+
+	/**
+	 * Creates a key with the given part replaced by the given part number (0-47).
+	 *
+	 * @throws IllegalArgumentException If the part number is out of range.
+	 */
+	public static long with(long key, AvatarPart part, int partNumber) {
+		if (partNumber < 0 || partNumber >= Coordinate.PART_NUMBERS) {
+			throw new IllegalArgumentException("Not a valid part number: " + partNumber);
+		}
+		int shift = PART_BITS * part.ordinal();
+		return (key & ~(PART_MASK << shift)) | (((long) partNumber) << shift);
+	}
+
+	/**
+	 * Whether the given value is a valid avatar key.
+	 */
+	public static boolean isValid(long key) {
+		if ((key >>> (PART_BITS * PARTS.length)) != 0) {
+			return false;
+		}
+		for (AvatarPart part : PARTS) {
+			if (partNumber(key, part) >= Coordinate.PART_NUMBERS) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that the given value is a valid avatar key.
+	 *
+	 * @return The given key.
+	 * @throws IllegalArgumentException If the given value is not a valid key.
+	 */
+	static long checkValid(long key) {
+		if (!isValid(key)) {
+			throw new IllegalArgumentException("Not a valid avatar key: 0x" + Long.toHexString(key));
+		}
+		return key;
+	}
+
+	/**
+	 * Creates the text form of the given key.
+	 *
+	 * @see #parse(CharSequence)
+	 */
+	public static String format(long key) {
+		char[] buffer = new char[TEXT_LENGTH];
+		int pos = 0;
+		for (AvatarPart part : PARTS) {
+			int nr = partNumber(key, part);
+			int character = nr % CharacterType.COUNT;
+			buffer[pos++] = (char) ('0' + character / 10);
+			buffer[pos++] = (char) ('0' + character % 10);
+			buffer[pos++] = (char) ('A' + nr / CharacterType.COUNT);
+		}
+		return new String(buffer);
+	}
+
+	/**
+	 * Appends the text form of the given key to the given buffer.
+	 *
+	 * @see #format(long)
+	 */
+	public static StringBuilder formatTo(StringBuilder out, long key) {
+		for (AvatarPart part : PARTS) {
+			int nr = partNumber(key, part);
+			int character = nr % CharacterType.COUNT;
+			out.append((char) ('0' + character / 10));
+			out.append((char) ('0' + character % 10));
+			out.append((char) ('A' + nr / CharacterType.COUNT));
+		}
+		return out;
+	}
+
+	/**
+	 * Parses the text form of a key.
+	 *
+	 * @param text The text created by {@link #format(long)}.
+	 * @return The avatar key.
+	 * @throws IllegalArgumentException If the text is not a valid key.
+	 */
+	public static long parse(CharSequence text) {
+		if (text.length() != TEXT_LENGTH) {
+			throw invalidText(text);
+		}
+
+		long key = 0;
+		int pos = 0;
+		for (AvatarPart part : PARTS) {
+			int high = text.charAt(pos++) - '0';
+			int low = text.charAt(pos++) - '0';
+			int theme = text.charAt(pos++) - 'A';
+			if (high < 0 || high > 9 || low < 0 || low > 9 || theme < 0 || theme >= Theme.COUNT) {
+				throw invalidText(text);
+			}
+			int character = high * 10 + low;
+			if (character >= CharacterType.COUNT) {
+				throw invalidText(text);
+			}
+			key = with(key, part, theme * CharacterType.COUNT + character);
+		}
+		return key;
+	}
+
+	private static IllegalArgumentException invalidText(CharSequence text) {
+		return new IllegalArgumentException("Not a valid avatar key: '" + text + "'");
+	}
+
+}
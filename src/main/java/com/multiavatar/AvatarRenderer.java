@@ -0,0 +1,179 @@
+package com.multiavatar;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Reusable rendering context for generating many avatars in a loop.
+ *
+ * <p>
+ * A renderer owns its output buffers and reuses them for every call, so that after the buffers
+ * have grown to the size of the largest avatar, generating an avatar does not allocate at all. The
+ * result of each call is a view of the renderer's buffer that is only valid until the next call.
+ * </p>
+ *
+ * <p>
+ * A renderer is not thread-safe, each thread needs its own instance.
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * AvatarRenderer renderer = new AvatarRenderer();
+ * for (String id : ids) {
+ *     writer.append(renderer.generate(id, false));
+ * }
+ * </pre>
+ */
+public final class AvatarRenderer {
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	/**
+	 * Enough room for the largest built-in avatar.
+	 */
+	private static final int INITIAL_CAPACITY = 8 * 1024;
+
+	private final StringBuilder _chars = new StringBuilder(INITIAL_CAPACITY);
+
+	private ByteBuffer _bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+	private final Random _random = new Random();
+
+	/**
+	 * Generates an avatar SVG from the given identifier, see
+	 * {@link Multiavatar#generate(String, boolean)}.
+	 *
+	 * @param id The identifier to generate the avatar from (e.g., username, email)
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return The SVG code, valid until the next call to this renderer
+	 */
+	public CharSequence generate(CharSequence id, boolean sansEnv) {
+		if (id == null || id.length() == 0) {
+			// Return empty string for empty input (JavaScript compatibility)
+			_chars.setLength(0);
+			return _chars;
+		}
+		return render(AvatarKey.fromId(id), sansEnv);
+	}
+
+	/**
+	 * Generates a random avatar SVG using a seed value, see
+	 * {@link Multiavatar#generate(long, boolean)}.
+	 *
+	 * @param seed The seed value for the random number generator
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return The SVG code, valid until the next call to this renderer
+	 */
+	public CharSequence generate(long seed, boolean sansEnv) {
+		return render(randomKey(seed), sansEnv);
+	}
+
+	/**
+	 * Renders the avatar with the given key, see {@link Avatar#render(boolean)}.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The SVG code, valid until the next call to this renderer
+	 */
+	public CharSequence render(long key, boolean sansEnv) {
+		AvatarKey.checkValid(key);
+
+		StringBuilder out = _chars;
+		out.setLength(0);
+		out.append(Fragment.SVG_START.text());
+		out.append(Fragment.METADATA.text());
+
+		FragmentTable fragments = FragmentTable.DEFAULT;
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.append(fragments.get(AvatarKey.partNumber(key, part), part).text());
+		}
+
+		out.append(Fragment.SVG_END.text());
+		return out;
+	}
+
+	/**
+	 * Generates the UTF-8 encoded avatar SVG from the given identifier.
+	 *
+	 * @param id The identifier to generate the avatar from (e.g., username, email)
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return The renderer's buffer holding the SVG code between its position and limit, valid
+	 *         until the next call to this renderer
+	 * @see #generate(CharSequence, boolean)
+	 */
+	public ByteBuffer generateBytes(CharSequence id, boolean sansEnv) {
+		if (id == null || id.length() == 0) {
+			_bytes.clear();
+			_bytes.flip();
+			return _bytes;
+		}
+		return renderBytes(AvatarKey.fromId(id), sansEnv);
+	}
+
+	/**
+	 * Generates the UTF-8 encoded SVG of a random avatar using a seed value.
+	 *
+	 * @param seed The seed value for the random number generator
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return The renderer's buffer holding the SVG code between its position and limit, valid
+	 *         until the next call to this renderer
+	 * @see #generate(long, boolean)
+	 */
+	public ByteBuffer generateBytes(long seed, boolean sansEnv) {
+		return renderBytes(randomKey(seed), sansEnv);
+	}
+
+	/**
+	 * Renders the UTF-8 encoded SVG of the avatar with the given key.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The renderer's buffer holding the SVG code between its position and limit, valid
+	 *         until the next call to this renderer
+	 * @see #render(long, boolean)
+	 */
+	public ByteBuffer renderBytes(long key, boolean sansEnv) {
+		AvatarKey.checkValid(key);
+
+		int length = Fragment.SVG_START.byteLength() + Fragment.METADATA.byteLength() + Fragment.SVG_END.byteLength();
+		FragmentTable fragments = FragmentTable.DEFAULT;
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+			length += fragments.get(AvatarKey.partNumber(key, part), part).byteLength();
+		}
+
+		ByteBuffer out = _bytes;
+		if (out.capacity() < length) {
+			_bytes = out = ByteBuffer.allocate(Math.max(length, out.capacity() * 2));
+		}
+		out.clear();
+		out.put(Fragment.SVG_START.utf8());
+		out.put(Fragment.METADATA.utf8());
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.put(fragments.get(AvatarKey.partNumber(key, part), part).utf8());
+		}
+		out.put(Fragment.SVG_END.utf8());
+		out.flip();
+		return out;
+	}
+
+	private long randomKey(long seed) {
+		// Same sequence as new Random(seed).
+		_random.setSeed(seed);
+		return AvatarKey.random(_random);
+	}
+
+}
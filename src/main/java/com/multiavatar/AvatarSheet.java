@@ -0,0 +1,248 @@
+package com.multiavatar;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Page-level renderer that writes each distinct avatar fragment only once.
+ *
+ * <p>
+ * Avatars rendered through a sheet are tiny SVG elements that consist of <code>&lt;use&gt;</code>
+ * references only. The sheet records which fragments have been referenced, and
+ * {@link #renderDefs()} writes them once as <code>&lt;symbol&gt;</code> elements. Fragments with
+ * identical SVG code, e.g. the same background for different characters, share a single symbol.
+ * </p>
+ *
+ * <p>
+ * Since references may point forward in an HTML document, the definitions can be written after
+ * all avatars of the page have been rendered:
+ * </p>
+ *
+ * <pre>
+ * AvatarSheet sheet = new AvatarSheet();
+ * for (Member member : members) {
+ *     out.append(sheet.render(Avatar.fromId(member.getName()), false));
+ * }
+ * out.append(sheet.renderDefs());
+ * </pre>
+ *
+ * <p>
+ * Symbol ids are {@link Layer#getKey() layer keys} with the prefix <code>ma-</code>, e.g.
+ * <code>ma-02A-head</code>. They do not depend on the rendered avatars, so
+ * a page must only contain the definitions of a single sheet. A sheet is not thread-safe.
+ * </p>
+ *
+ * <p>
+ * In an {@link OutputProfile#withCssVariables() CSS variables} profile, the symbols do not depend
+ * on the theme and each avatar defines its colors in a <code>style</code> attribute. The
+ * definitions of {@link #includeAll() all} symbols can then be served as a static resource.
+ * </p>
+ */
+public final class AvatarSheet {
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	private static final String ID_PREFIX = "ma-";
+
+	private static final String USE_START = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 231 231\">";
+
+	private static final String DEFS_START = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"0\" height=\"0\" style=\"position:absolute\"><defs>";
+
+	private static final String DEFS_END = "</defs></svg>";
+
+	private final FragmentTable _fragments;
+
+	/**
+	 * For each fragment index, the index of the first fragment with the same SVG code.
+	 */
+	private final int[] _symbols;
+
+	/**
+	 * The symbol ids by symbol index.
+	 */
+	private final String[] _ids;
+
+	/**
+	 * The symbol indices referenced since the last {@link #reset()}.
+	 */
+	private final BitSet _used = new BitSet();
+
+	/**
+	 * Creates a sheet with the output of the JavaScript library.
+	 */
+	public AvatarSheet() {
+		this(OutputProfile.DEFAULT);
+	}
+
+	/**
+	 * Creates a sheet defining symbols in the given {@link OutputProfile}.
+	 *
+	 * @param profile The {@link OutputProfile} to render symbols in
+	 */
+	public AvatarSheet(OutputProfile profile) {
+		_fragments = profile.fragments();
+
+		int count = Coordinate.PART_NUMBERS * PARTS.length;
+		_symbols = new int[count];
+		_ids = new String[count];
+		Map<String, Integer> symbolByText = new HashMap<>();
+		for (int nr = 0; nr < Coordinate.PART_NUMBERS; nr++) {
+			for (AvatarPart part : PARTS) {
+				int index = index(nr, part);
+				Integer symbol = symbolByText.putIfAbsent(_fragments.get(nr, part).text(), index);
+				if (symbol == null) {
+					_symbols[index] = index;
+					_ids[index] = ID_PREFIX + Layer.layer(nr, part).getKey();
+				} else {
+					_symbols[index] = symbol.intValue();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renders the given avatar as references to the symbols of this sheet.
+	 *
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The SVG code of the avatar, only valid on a page that also contains
+	 *         {@link #renderDefs()}
+	 */
+	public String render(Avatar avatar, boolean sansEnv) {
+		StringBuilder result = new StringBuilder(USE_START.length() + PARTS.length * 24 + Fragment.SVG_END.length());
+		try {
+			renderTo(result, avatar, sansEnv);
+		} catch (IOException ex) {
+			throw new IllegalStateException("Writing to memory failed.", ex);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Writes the given avatar as references to the symbols of this sheet.
+	 *
+	 * @param out The sink to write to, e.g. a {@link java.io.Writer} or a {@link StringBuilder}
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the sink fails
+	 * @see #render(Avatar, boolean)
+	 */
+	public void renderTo(Appendable out, Avatar avatar, boolean sansEnv) throws IOException {
+		out.append(start(avatar, sansEnv));
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.append("<use href=\"#").append(use(avatar, part)).append("\"/>");
+		}
+		out.append(Fragment.SVG_END.text());
+	}
+
+	/**
+	 * The definitions of all symbols referenced by the avatars rendered so far.
+	 *
+	 * @return A hidden SVG element holding the symbols
+	 */
+	public String renderDefs() {
+		StringBuilder result = new StringBuilder(defsLength());
+		try {
+			renderDefsTo(result);
+		} catch (IOException ex) {
+			throw new IllegalStateException("Writing to memory failed.", ex);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Writes the definitions of all symbols referenced by the avatars rendered so far.
+	 *
+	 * @param out The sink to write to, e.g. a {@link java.io.Writer} or a {@link StringBuilder}
+	 * @throws IOException If writing to the sink fails
+	 * @see #renderDefs()
+	 */
+	public void renderDefsTo(Appendable out) throws IOException {
+		out.append(DEFS_START);
+
+		// Add generator attribution (fulfills license requirement)
+		out.append(Fragment.METADATA.text());
+
+		for (int symbol = _used.nextSetBit(0); symbol >= 0; symbol = _used.nextSetBit(symbol + 1)) {
+			out.append("<symbol id=\"").append(_ids[symbol]).append("\" viewBox=\"0 0 231 231\">");
+			out.append(_fragments.get(symbol / PARTS.length, PARTS[symbol % PARTS.length]).text());
+			out.append("</symbol>");
+		}
+		out.append(DEFS_END);
+	}
+
+	/**
+	 * The length of {@link #renderDefs()}, including some slack for the symbol tags.
+	 */
+	private int defsLength() {
+		int result = DEFS_START.length() + Fragment.METADATA.length() + DEFS_END.length();
+		for (int symbol = _used.nextSetBit(0); symbol >= 0; symbol = _used.nextSetBit(symbol + 1)) {
+			result += 64 + _fragments.get(symbol / PARTS.length, PARTS[symbol % PARTS.length]).length();
+		}
+		return result;
+	}
+
+	/**
+	 * Marks all symbols as referenced, so that {@link #renderDefs()} writes the complete set, e.g.
+	 * to create a static resource.
+	 */
+	public void includeAll() {
+		for (int symbol = 0; symbol < _ids.length; symbol++) {
+			if (_ids[symbol] != null) {
+				_used.set(symbol);
+			}
+		}
+	}
+
+	/**
+	 * The number of distinct symbols referenced since the last {@link #reset()}.
+	 */
+	public int getSymbolCount() {
+		return _used.cardinality();
+	}
+
+	/**
+	 * Forgets the referenced symbols to start a new page.
+	 */
+	public void reset() {
+		_used.clear();
+	}
+
+	/**
+	 * The opening tag of a rendered avatar.
+	 */
+	private String start(Avatar avatar, boolean sansEnv) {
+		if (!_fragments.hasVariables()) {
+			return USE_START;
+		}
+
+		StringBuilder result = new StringBuilder(USE_START.length() + 256);
+		result.append(USE_START, 0, USE_START.length() - 1);
+		result.append(" style=\"");
+		avatar.appendColorStyle(result, sansEnv);
+		result.append("\">");
+		return result.toString();
+	}
+
+	/**
+	 * Records the use of the symbol for the given part of the given avatar.
+	 *
+	 * @return The id of the symbol.
+	 */
+	private String use(Avatar avatar, AvatarPart part) {
+		int symbol = _symbols[index(avatar.getValue(part).getPartNumber(), part)];
+		_used.set(symbol);
+		return _ids[symbol];
+	}
+
+	private static int index(int partNumber, AvatarPart part) {
+		return partNumber * PARTS.length + part.ordinal();
+	}
+
+}
@@ -21,6 +21,11 @@ public enum CharacterType {
     RASTA("14", "Rasta"),
     STREET("15", "Street");
 
+    /**
+     * Number of character types.
+     */
+    static final int COUNT = values().length;
+
     private final String id;
     private final String displayName;
 
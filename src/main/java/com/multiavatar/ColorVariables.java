@@ -0,0 +1,124 @@
+package com.multiavatar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Naming and values of the CSS custom properties that supply the colors of an avatar in an
+ * {@link OutputProfile#withCssVariables() CSS variables} profile.
+ *
+ * <p>
+ * The color with index <code>n</code> of a part is held by the property <code>--ma-clo-n</code>,
+ * where <code>clo</code> is the lower-case {@link AvatarPart} name. Some theme colors carry
+ * additional declarations, e.g. <code>#1df7ff;opacity:0.64</code>. Each such declaration gets its
+ * own property, e.g. <code>--ma-eyes-1-opacity</code>, which is <code>initial</code> in the themes
+ * of the character that do not set it.
+ * </p>
+ *
+ * <p>
+ * Only colors that the template of a part references are defined, themes may list more.
+ * </p>
+ */
+final class ColorVariables {
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	/**
+	 * For each character and part, the names of the additional declarations per color index.
+	 */
+	private static final String[][][] PROPERTIES = new String[CharacterType.COUNT * PARTS.length][][];
+
+	/**
+	 * For each character and part, the template values referencing the custom properties.
+	 */
+	private static final String[][] REFERENCES = new String[CharacterType.COUNT * PARTS.length][];
+
+	static {
+		for (CharacterType character : CharacterType.values()) {
+			ThemeData.CharacterThemes themes = ThemeData.getCharacterThemes(character);
+			for (AvatarPart part : PARTS) {
+				int count = SvgData.getSvgTemplate(character, part).getParamCount();
+
+				String[][] properties = new String[count][];
+				String[] references = new String[count];
+				for (int n = 0; n < count; n++) {
+					List<String> names = new ArrayList<>();
+					for (Theme theme : Theme.values()) {
+						String[] declarations = themes.getTheme(theme).getColors(part)[n].split(";");
+						for (int i = 1; i < declarations.length; i++) {
+							String name = declarations[i].substring(0, declarations[i].indexOf(':'));
+							if (!names.contains(name)) {
+								names.add(name);
+							}
+						}
+					}
+					properties[n] = names.toArray(new String[names.size()]);
+
+					StringBuilder reference = new StringBuilder();
+					reference.append("var(").append(name(part, n)).append(')');
+					for (String name : properties[n]) {
+						reference.append(';').append(name).append(":var(").append(name(part, n)).append('-').append(name).append(')');
+					}
+					references[n] = reference.toString();
+				}
+
+				int index = index(character, part);
+				PROPERTIES[index] = properties;
+				REFERENCES[index] = references;
+			}
+		}
+	}
+
+	private ColorVariables() {
+		// Static utility.
+	}
+
+	/**
+	 * The name of the CSS custom property holding the color with the given index of the given
+	 * part, e.g. <code>--ma-clo-0</code>.
+	 */
+	static String name(AvatarPart part, int index) {
+		return "--ma-" + part.name().toLowerCase(Locale.ROOT) + "-" + index;
+	}
+
+	/**
+	 * The values to render the template of the given part of the given character with, instead of
+	 * theme colors.
+	 */
+	static String[] references(CharacterType character, AvatarPart part) {
+		return REFERENCES[index(character, part)];
+	}
+
+	/**
+	 * Appends the custom property declarations defining the colors of the given part.
+	 *
+	 * @param out The buffer to append to.
+	 * @param coordinate The character and theme of the part.
+	 * @param part The part to define the colors for.
+	 */
+	static void appendStyle(StringBuilder out, Coordinate coordinate, AvatarPart part) {
+		String[] colors = ThemeData.getCharacterThemes(coordinate.character).getTheme(coordinate.theme).getColors(part);
+		String[][] properties = PROPERTIES[index(coordinate.character, part)];
+		for (int n = 0; n < properties.length; n++) {
+			String color = colors[n];
+			int end = color.indexOf(';');
+			out.append(name(part, n)).append(':').append(color, 0, end < 0 ? color.length() : end).append(';');
+
+			for (String property : properties[n]) {
+				String value = "initial";
+				for (String declaration : color.split(";")) {
+					if (declaration.startsWith(property + ":")) {
+						value = declaration.substring(property.length() + 1);
+					}
+				}
+				out.append(name(part, n)).append('-').append(property).append(':').append(value).append(';');
+			}
+		}
+	}
+
+	private static int index(CharacterType character, AvatarPart part) {
+		return character.ordinal() * PARTS.length + part.ordinal();
+	}
+
+}
@@ -1,13 +1,51 @@
 package com.multiavatar;
 
-import com.multiavatar.SvgData.Template;
+import java.io.IOException;
 
 /**
  * Value class holding an avatar {@link CharacterType} and {@link Theme} together
+ *
+ * <p>
+ * Only 48 coordinates exist. Instances are interned, so two coordinates are equal if and only if
+ * they are identical.
+ * </p>
  */
 public class Coordinate {
+
+	/**
+	 * Number of distinct coordinates (16 characters times 3 themes).
+	 */
+	static final int PART_NUMBERS = CharacterType.COUNT * Theme.COUNT;
+
+	private static final Coordinate[] COORDINATES = new Coordinate[PART_NUMBERS];
+
+	static {
+		for (Theme theme : Theme.values()) {
+			for (CharacterType character : CharacterType.values()) {
+				Coordinate coordinate = new Coordinate(character, theme);
+				COORDINATES[coordinate.getPartNumber()] = coordinate;
+			}
+		}
+	}
+
     public static Coordinate coordinate(CharacterType character, Theme theme) {
-		return new Coordinate(character, theme);
+		return COORDINATES[partNumber(character, theme)];
+	}
+
+	/**
+	 * The {@link Coordinate} with the given part number.
+	 *
+	 * @param nr The part number (0-47), see {@link #getPartNumber()}.
+	 */
+	public static Coordinate fromPartNumber(int nr) {
+		if (nr < 0 || nr >= PART_NUMBERS) {
+			throw new IllegalArgumentException("Not a valid part number: " + nr);
+		}
+		return COORDINATES[nr];
+	}
+
+	private static int partNumber(CharacterType character, Theme theme) {
+		return theme.ordinal() * CharacterType.COUNT + character.ordinal();
 	}
 
 	final CharacterType character;
@@ -18,33 +56,70 @@ public class Coordinate {
         this.theme = theme;
     }
     
+	/**
+	 * The {@link CharacterType} of this coordinate.
+	 */
+	public CharacterType getCharacter() {
+		return character;
+	}
+
+	/**
+	 * The {@link Theme} of this coordinate.
+	 */
+	public Theme getTheme() {
+		return theme;
+	}
+
+	/**
+	 * The part number (0-47) of this coordinate.
+	 *
+	 * <p>
+	 * Part numbers 0-15 use theme A, 16-31 theme B, and 32-47 theme C.
+	 * </p>
+	 */
+	public int getPartNumber() {
+		return partNumber(character, theme);
+	}
+
+	@Override
+	public int hashCode() {
+		return getPartNumber();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj == this;
+	}
+
+	@Override
+	public String toString() {
+		return character.getId() + theme.getCode();
+	}
+
 	/**
 	 * Produces the final SVG string for a part with colors applied from the {@link Theme}
 	 *
+	 * <p>
+	 * The colored fragment is looked up from the pre-expanded {@link FragmentTable}.
+	 * </p>
+	 *
 	 * @param result The {@link StringBuilder} to append the SVG content to
 	 * @param part The {@link AvatarPart} to render
 	 */
 	public void renderPart(StringBuilder result, AvatarPart part) {
-	    if (character == null) {
-	        return;
-	    }
-	
-	    // Get theme colors
-	    ThemeData.CharacterThemes characterThemes = ThemeData.getCharacterThemes(character);
-	    if (characterThemes == null) {
-	        return;
-	    }
-	
-	    ThemeData.Colors themeData = characterThemes.getTheme(theme);
-	    if (themeData == null) {
-	        return;
-	    }
-	
-	    String[] colors = themeData.getColors(part);
-	
-	    // Get SVG template
-	    Template svgTemplate = SvgData.getSvgTemplate(character, part);
-	
-	    svgTemplate.render(result, colors);
+		result.append(FragmentTable.DEFAULT.get(this, part).text());
+	}
+
+	/**
+	 * Writes the final SVG string for a part with colors applied from the {@link Theme} to the
+	 * given sink.
+	 *
+	 * @param out The {@link Appendable} to write the SVG content to, e.g. a {@link java.io.Writer}
+	 * @param part The {@link AvatarPart} to render
+	 * @throws IOException If writing to the sink fails
+	 * @see #renderPart(StringBuilder, AvatarPart)
+	 */
+	public void renderPart(Appendable out, AvatarPart part) throws IOException {
+		out.append(FragmentTable.DEFAULT.get(this, part).text());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.multiavatar;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Build step that writes the built-in art as the default {@link TemplatePack}.
+ *
+ * <p>
+ * The build runs {@link #main(String[])} after compiling the library. It parses the
+ * {@link SvgData} templates and writes them together with the {@link ThemeData} themes as the
+ * class path resource <code>com/multiavatar/default.pack</code>. Loading a character at runtime
+ * then reads the pack and parses neither template sources nor colors.
+ * </p>
+ */
+final class DefaultPackWriter {
+
+	private DefaultPackWriter() {
+		// Static utility.
+	}
+
+	/**
+	 * Writes the default pack.
+	 *
+	 * @param args The class output directory of the build.
+	 */
+	public static void main(String[] args) throws IOException {
+		File dir = new File(args[0], DefaultPackWriter.class.getPackage().getName().replace('.', '/'));
+		try (OutputStream out = new FileOutputStream(new File(dir, "default.pack"))) {
+			TemplatePack.builtInSources().writeTo(out);
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+package com.multiavatar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link AvatarCodec} compressing the SVG code with deflate and a preset dictionary.
+ *
+ * <p>
+ * Most of an avatar is path data copied verbatim from the {@link SvgData} templates, and the same
+ * boilerplate appears in every avatar. Priming the compressor with these literals lets it encode
+ * most of an avatar as back references into the dictionary. A deflate window only covers 32 KB, so
+ * the dictionary holds the literals used by the most templates, placed closest to the data.
+ * </p>
+ *
+ * <p>
+ * Each thread keeps its own compressor and decompressor, which are primed with the dictionary for
+ * every avatar. Priming the decompressor only copies the dictionary into its window and takes about
+ * a microsecond, decoding an avatar takes about 20 microseconds in total, mostly for inflating the
+ * data. Priming the compressor hashes the complete dictionary and takes about 80 microseconds, the
+ * JDK offers no way to copy a primed compressor. Encoding therefore uses a medium compression
+ * level, which takes about half the time of the default level for 6% larger output. Both are
+ * several times the cost of rendering, so the codec pays off where cache memory rather than CPU
+ * time is the limit, i.e. for large persistent caches, see {@link MappedAvatarCache}.
+ * </p>
+ *
+ * <p>
+ * An encoded avatar consists of the length of the SVG code as 4-byte big-endian integer, followed
+ * by the raw deflate stream. Decoding rejects data with an implausible length, and data whose stream
+ * does not end exactly after that many bytes of SVG code.
+ * </p>
+ *
+ * @see AvatarCodec#DEFLATE
+ */
+final class DeflateAvatarCodec implements AvatarCodec {
+
+	/**
+	 * The size of the deflate window, longer dictionaries are truncated at the start.
+	 */
+	private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	private static final int LENGTH_SIZE = 4;
+
+	/**
+	 * Upper bound of the length of an encoded avatar, far above the size of any real avatar.
+	 */
+	private static final int MAX_LENGTH = 16 * 1024 * 1024;
+
+	/**
+	 * Maximum compression ratio of deflate, a length of 258 bytes per two bits of input.
+	 */
+	private static final int MAX_RATIO = 1032;
+
+	/**
+	 * Compression level, the back references into the dictionary make the default level barely
+	 * better but much slower.
+	 */
+	private static final int LEVEL = 4;
+
+	private final byte[] _dictionary;
+
+	private final ThreadLocal<Context> _context = ThreadLocal.withInitial(Context::new);
+
+	DeflateAvatarCodec() {
+		_dictionary = buildDictionary();
+	}
+
+	/**
+	 * The preset dictionary of the compressor.
+	 */
+	byte[] dictionary() {
+		return _dictionary;
+	}
+
+	private static byte[] buildDictionary() {
+		// Number of templates using each literal.
+		Map<String, Integer> usage = new LinkedHashMap<>();
+		for (CharacterType character : CharacterType.values()) {
+			for (AvatarPart part : AvatarPart.values()) {
+				for (String literal : new LinkedHashSet<>(SvgData.getSvgTemplate(character, part).getLiterals())) {
+					usage.merge(literal, 1, Integer::sum);
+				}
+			}
+		}
+
+		// Deflate encodes close matches cheaper, and only keeps the end of a long dictionary.
+		List<String> literals = new ArrayList<>(usage.keySet());
+		literals.sort(Comparator.comparingInt(usage::get));
+
+		StringBuilder buffer = new StringBuilder();
+		for (String literal : literals) {
+			buffer.append(literal);
+		}
+		buffer.append(Fragment.SVG_START.text());
+		buffer.append(Fragment.METADATA.text());
+		buffer.append(Fragment.SVG_END.text());
+
+		byte[] result = buffer.toString().getBytes(StandardCharsets.UTF_8);
+		return Arrays.copyOfRange(result, Math.max(0, result.length - MAX_DICTIONARY_SIZE), result.length);
+	}
+
+	@Override
+	public String name() {
+		return "deflate";
+	}
+
+	@Override
+	public byte[] encode(Avatar avatar, boolean sansEnv) {
+		Context context = _context.get();
+
+		int length = avatar.renderedByteLength(sansEnv);
+		byte[] svg = context.input(length);
+		avatar.renderTo(ByteBuffer.wrap(svg), sansEnv);
+		return encode(context, svg, length);
+	}
+
+	@Override
+	public byte[] encode(byte[] svg) {
+		return encode(_context.get(), svg, svg.length);
+	}
+
+	private byte[] encode(Context context, byte[] svg, int length) {
+		if (length == 0 || length > MAX_LENGTH) {
+			throw new IllegalArgumentException("Avatar length out of range: " + length);
+		}
+
+		Deflater deflater = context._deflater;
+		deflater.reset();
+		deflater.setDictionary(_dictionary);
+		deflater.setInput(svg, 0, length);
+		deflater.finish();
+
+		byte[] output = context._output;
+		int pos = LENGTH_SIZE;
+		while (!deflater.finished()) {
+			if (pos == output.length) {
+				context._output = output = Arrays.copyOf(output, output.length * 2);
+			}
+			pos += deflater.deflate(output, pos, output.length - pos);
+		}
+
+		byte[] result = Arrays.copyOf(output, pos);
+		ByteBuffer.wrap(result).putInt(0, length);
+		return result;
+	}
+
+	@Override
+	public ByteBuffer decode(ByteBuffer data) {
+		Context context = _context.get();
+
+		int start = data.position();
+		int dataLength = data.remaining() - LENGTH_SIZE;
+		if (dataLength <= 0) {
+			throw new IllegalArgumentException("Truncated avatar data.");
+		}
+
+		// Checked before allocating the result.
+		int length = data.getInt(start);
+		if (length <= 0 || length > MAX_LENGTH || length > (long) dataLength * MAX_RATIO) {
+			throw new IllegalArgumentException("Invalid avatar length: " + length);
+		}
+		byte[] input;
+		int offset;
+		if (data.hasArray()) {
+			input = data.array();
+			offset = data.arrayOffset() + start + LENGTH_SIZE;
+		} else {
+			input = context.input(dataLength);
+			offset = 0;
+			ByteBuffer source = data.duplicate();
+			source.position(start + LENGTH_SIZE);
+			source.get(input, 0, dataLength);
+		}
+
+		Inflater inflater = context._inflater;
+		inflater.reset();
+		inflater.setDictionary(_dictionary);
+		inflater.setInput(input, offset, dataLength);
+
+		byte[] result = new byte[length];
+		try {
+			int pos = 0;
+			while (pos < length) {
+				int cnt = inflater.inflate(result, pos, length - pos);
+				if (cnt == 0 && (inflater.finished() || inflater.needsInput())) {
+					throw new IllegalArgumentException("Truncated avatar data.");
+				}
+				pos += cnt;
+			}
+
+			// The stream must end exactly after the announced length.
+			if (!inflater.finished()) {
+				if (inflater.inflate(context._output, 0, 1) > 0) {
+					throw new IllegalArgumentException("Avatar data exceeds its length.");
+				}
+				if (!inflater.finished()) {
+					throw new IllegalArgumentException("Truncated avatar data.");
+				}
+			}
+			if (inflater.getRemaining() > 0) {
+				throw new IllegalArgumentException("Trailing avatar data.");
+			}
+		} catch (DataFormatException ex) {
+			throw new IllegalArgumentException("Invalid avatar data.", ex);
+		}
+		return ByteBuffer.wrap(result);
+	}
+
+	@Override
+	public String toString() {
+		return name();
+	}
+
+	/**
+	 * Per-thread compressor state and scratch buffers.
+	 */
+	private static final class Context {
+
+		final Deflater _deflater = new Deflater(LEVEL, true);
+
+		final Inflater _inflater = new Inflater(true);
+
+		byte[] _input = new byte[8 * 1024];
+
+		byte[] _output = new byte[4 * 1024];
+
+		byte[] input(int length) {
+			if (_input.length < length) {
+				_input = new byte[Math.max(length, _input.length * 2)];
+			}
+			return _input;
+		}
+	}
+
+}
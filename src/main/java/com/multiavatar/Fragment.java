@@ -0,0 +1,194 @@
+package com.multiavatar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An immutable piece of SVG output.
+ *
+ * <p>
+ * Every rendered avatar is a concatenation of fragments: the SVG header, the metadata block, one
+ * colored fragment per {@link AvatarPart} and the SVG footer.
+ * </p>
+ *
+ * @see FragmentTable
+ */
+final class Fragment {
+
+	/**
+	 * The opening SVG tag.
+	 */
+	static final Fragment SVG_START = new Fragment("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 231 231\">");
+
+	/**
+	 * Generator attribution (fulfills license requirement).
+	 */
+	static final Fragment METADATA = new Fragment("<metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:creator>Multiavatar</dc:creator><dc:source>https://multiavatar.com</dc:source></metadata>");
+
+	/**
+	 * The closing SVG tag.
+	 */
+	static final Fragment SVG_END = new Fragment("</svg>");
+
+	/**
+	 * Gzip member header: magic, deflate, no flags, no mtime, maximum compression, unknown OS.
+	 */
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 2, (byte) 0xff};
+
+	/**
+	 * Gzip member trailer: CRC-32 and size of the uncompressed content.
+	 */
+	private static final int GZIP_TRAILER_LENGTH = 8;
+
+	private final String _text;
+
+	private final byte[] _utf8;
+
+	/**
+	 * Read-only direct buffer holding {@link #_utf8}, allocated on first use.
+	 */
+	private volatile ByteBuffer _direct;
+
+	/**
+	 * Complete gzip member holding {@link #_utf8}, compressed on first use.
+	 */
+	private volatile byte[] _gzip;
+
+	Fragment(String text) {
+		_text = text;
+		_utf8 = text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a fragment from its UTF-8 encoding, e.g. as copied from a {@link TemplatePack}.
+	 *
+	 * @param utf8 The encoded SVG source, which is taken over and must not be modified.
+	 */
+	Fragment(byte[] utf8) {
+		_text = new String(utf8, StandardCharsets.UTF_8);
+		_utf8 = utf8;
+	}
+
+	/**
+	 * The SVG source of this fragment.
+	 */
+	String text() {
+		return _text;
+	}
+
+	/**
+	 * The number of characters in {@link #text()}.
+	 */
+	int length() {
+		return _text.length();
+	}
+
+	/**
+	 * The UTF-8 encoding of {@link #text()}.
+	 *
+	 * <p>
+	 * The array is shared and must not be modified.
+	 * </p>
+	 */
+	byte[] utf8() {
+		return _utf8;
+	}
+
+	/**
+	 * The number of bytes in {@link #utf8()}.
+	 */
+	int byteLength() {
+		return _utf8.length;
+	}
+
+	/**
+	 * A read-only view of the UTF-8 encoding of this fragment in direct memory.
+	 *
+	 * <p>
+	 * The direct memory is allocated once and shared by all callers. Each call returns a new view
+	 * with its own position and limit, so the result can be consumed by a channel write without
+	 * affecting other callers.
+	 * </p>
+	 */
+	ByteBuffer buffer() {
+		ByteBuffer direct = _direct;
+		if (direct == null) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(_utf8.length);
+			buffer.put(_utf8);
+			buffer.flip();
+
+			// Races only allocate the same content twice.
+			_direct = direct = buffer.asReadOnlyBuffer();
+		}
+		return direct.duplicate();
+	}
+
+	/**
+	 * A complete gzip member (RFC 1952) whose decompressed content is {@link #utf8()}.
+	 *
+	 * <p>
+	 * A gzip stream may consist of several members that decompress to the concatenation of their
+	 * contents. Concatenating the members of the fragments of an avatar therefore produces a valid
+	 * gzip encoding of the avatar without compressing anything per request. The member is
+	 * compressed once with maximum compression and shared. The array must not be modified.
+	 * </p>
+	 */
+	byte[] gzip() {
+		byte[] gzip = _gzip;
+		if (gzip == null) {
+			// Races only compress the same content twice.
+			_gzip = gzip = gzipMember(_utf8);
+		}
+		return gzip;
+	}
+
+	/**
+	 * The number of bytes in {@link #gzip()}.
+	 */
+	int gzipLength() {
+		return gzip().length;
+	}
+
+	private static byte[] gzipMember(byte[] content) {
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+		try {
+			deflater.setInput(content);
+			deflater.finish();
+
+			byte[] result = new byte[GZIP_HEADER.length + content.length + 64];
+			System.arraycopy(GZIP_HEADER, 0, result, 0, GZIP_HEADER.length);
+			int length = GZIP_HEADER.length;
+			while (!deflater.finished()) {
+				if (length == result.length) {
+					result = Arrays.copyOf(result, result.length * 2);
+				}
+				length += deflater.deflate(result, length, result.length - length);
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			result = Arrays.copyOf(result, length + GZIP_TRAILER_LENGTH);
+			putIntLE(result, length, (int) crc.getValue());
+			putIntLE(result, length + 4, content.length);
+			return result;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void putIntLE(byte[] buffer, int offset, int value) {
+		buffer[offset] = (byte) value;
+		buffer[offset + 1] = (byte) (value >>> 8);
+		buffer[offset + 2] = (byte) (value >>> 16);
+		buffer[offset + 3] = (byte) (value >>> 24);
+	}
+
+	@Override
+	public String toString() {
+		return _text;
+	}
+
+}
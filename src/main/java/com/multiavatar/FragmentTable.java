@@ -0,0 +1,219 @@
+package com.multiavatar;
+
+import java.util.function.UnaryOperator;
+
+import com.multiavatar.SvgData.Template;
+
+/**
+ * Pre-expanded SVG fragments for all (character, theme, part) combinations.
+ *
+ * <p>
+ * There are only 16 characters times 3 themes times 6 parts, i.e. 288 distinct colored fragments.
+ * They are expanded once from the {@link SvgData} templates and {@link ThemeData} colors, so that
+ * rendering an avatar is reduced to six array lookups. Each character is expanded on first use, so
+ * that the first avatar does not pay for loading all others. The fragments of the built-in data are
+ * rendered straight from the built-in {@link TemplatePack}.
+ * </p>
+ */
+final class FragmentTable {
+
+	private static final int PART_COUNT = AvatarPart.values().length;
+
+	/**
+	 * Fragments built from the built-in {@link SvgData} templates and {@link ThemeData} themes.
+	 */
+	static final FragmentTable DEFAULT = new FragmentTable(null);
+
+	/**
+	 * Fragments indexed by part number (0-47) times the number of parts plus the part ordinal.
+	 *
+	 * <p>
+	 * The fragments of a character are expanded when the first of them is requested. Entries are
+	 * read without synchronization, which is safe since {@link Fragment} is immutable.
+	 * </p>
+	 */
+	private final Fragment[] _fragments = new Fragment[Coordinate.PART_NUMBERS * PART_COUNT];
+
+	/**
+	 * Rewrites the source of each template before it is colored, <code>null</code> to use the
+	 * templates as they are.
+	 */
+	private final UnaryOperator<String> _transform;
+
+	/**
+	 * Whether colors are written as references to CSS custom properties.
+	 */
+	private final boolean _variables;
+
+	/**
+	 * The result of {@link #fingerprint()}, <code>0</code> before it is computed.
+	 */
+	private long _fingerprint;
+
+	/**
+	 * Creates fragments from the built-in templates.
+	 *
+	 * @param transform Rewrites the source of each template before it is colored, <code>null</code>
+	 *        to use the templates as they are.
+	 */
+	private FragmentTable(UnaryOperator<String> transform) {
+		this(transform, false);
+	}
+
+	/**
+	 * Creates fragments from the built-in templates.
+	 *
+	 * @param transform See {@link #FragmentTable(UnaryOperator)}.
+	 * @param variables Whether to write <code>var()</code> references instead of theme colors.
+	 */
+	private FragmentTable(UnaryOperator<String> transform, boolean variables) {
+		_transform = transform;
+		_variables = variables;
+	}
+
+	/**
+	 * Expands the fragments of the character of the given part number in all themes.
+	 *
+	 * @return The requested fragment.
+	 */
+	private synchronized Fragment expand(int partNumber, AvatarPart requested) {
+		Fragment result = _fragments[index(partNumber, requested)];
+		if (result != null) {
+			// Expanded concurrently.
+			return result;
+		}
+
+		CharacterType character = Coordinate.fromPartNumber(partNumber).character;
+		if (_transform == null && !_variables) {
+			TemplatePack pack = TemplatePack.builtIn();
+			for (Theme theme : Theme.values()) {
+				Coordinate coordinate = Coordinate.coordinate(character, theme);
+				for (AvatarPart part : AvatarPart.values()) {
+					_fragments[index(coordinate.getPartNumber(), part)] = pack.fragment(coordinate, part);
+				}
+			}
+			return _fragments[index(partNumber, requested)];
+		}
+
+		ThemeData.CharacterThemes themes = ThemeData.getCharacterThemes(character);
+		StringBuilder buffer = new StringBuilder();
+		for (AvatarPart part : AvatarPart.values()) {
+			Template template = SvgData.getSvgTemplate(character, part);
+			if (_transform != null) {
+				template = new Template(_transform.apply(template.toSource()));
+			}
+
+			for (Theme theme : Theme.values()) {
+				String[] values = _variables ? ColorVariables.references(character, part) : themes.getTheme(theme).getColors(part);
+
+				buffer.setLength(0);
+				template.render(buffer, values);
+				_fragments[index(Coordinate.coordinate(character, theme).getPartNumber(), part)] = new Fragment(buffer.toString());
+			}
+		}
+		return _fragments[index(partNumber, requested)];
+	}
+
+	/**
+	 * Creates fragments from the same templates as this table, with each color replaced by a
+	 * reference to a CSS custom property, see {@link ColorVariables}.
+	 *
+	 * <p>
+	 * The fragments no longer depend on the theme, all three themes of a character share the same
+	 * SVG code.
+	 * </p>
+	 */
+	FragmentTable withVariables() {
+		return _variables ? this : new FragmentTable(_transform, true);
+	}
+
+	/**
+	 * Whether colors are written as references to CSS custom properties.
+	 *
+	 * @see #withVariables()
+	 */
+	boolean hasVariables() {
+		return _variables;
+	}
+
+	/**
+	 * Creates fragments with path data re-encoded by {@link PathEncoder}.
+	 *
+	 * @param precision The number of decimals to keep in path data.
+	 */
+	static FragmentTable compact(int precision) {
+		return new FragmentTable(source -> PathEncoder.compactSvg(source, precision));
+	}
+
+	/**
+	 * Creates fragments with path data simplified by {@link PathSimplifier} and re-encoded by
+	 * {@link PathEncoder}.
+	 *
+	 * @param precision The number of decimals to keep in path data.
+	 * @param tolerance The maximum deviation of simplified outlines in user units.
+	 */
+	static FragmentTable simplified(int precision, double tolerance) {
+		return new FragmentTable(source -> PathEncoder.compactSvg(source, precision, tolerance));
+	}
+
+	/**
+	 * The colored fragment for the given part of the given coordinate.
+	 */
+	Fragment get(Coordinate coordinate, AvatarPart part) {
+		return get(coordinate.getPartNumber(), part);
+	}
+
+	/**
+	 * The colored fragment for the given part of the given part number (0-47).
+	 */
+	Fragment get(int partNumber, AvatarPart part) {
+		Fragment result = _fragments[index(partNumber, part)];
+		if (result == null) {
+			result = expand(partNumber, part);
+		}
+		return result;
+	}
+
+	/**
+	 * A 64-bit hash of the complete SVG output this table can produce.
+	 *
+	 * <p>
+	 * Covers the SVG header, metadata and footer and all colored fragments, i.e. all template and
+	 * theme data. Persistent caches use the fingerprint to reject content rendered from other data.
+	 * </p>
+	 */
+	synchronized long fingerprint() {
+		if (_fingerprint == 0) {
+			_fingerprint = computeFingerprint();
+		}
+		return _fingerprint;
+	}
+
+	private long computeFingerprint() {
+		// FNV-1a over the lengths and contents of all fragments.
+		long result = 0xCBF29CE484222325L;
+		result = hash(result, Fragment.SVG_START);
+		result = hash(result, Fragment.METADATA);
+		result = hash(result, Fragment.SVG_END);
+		for (int nr = 0; nr < Coordinate.PART_NUMBERS; nr++) {
+			for (AvatarPart part : AvatarPart.values()) {
+				result = hash(result, get(nr, part));
+			}
+		}
+		return result;
+	}
+
+	private static long hash(long hash, Fragment fragment) {
+		byte[] bytes = fragment.utf8();
+		hash = (hash ^ bytes.length) * 0x100000001B3L;
+		for (byte b : bytes) {
+			hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+		}
+		return hash;
+	}
+
+	private static int index(int partNumber, AvatarPart part) {
+		return partNumber * PART_COUNT + part.ordinal();
+	}
+
+}
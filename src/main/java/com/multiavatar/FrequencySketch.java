@@ -0,0 +1,97 @@
+package com.multiavatar;
+
+/**
+ * Approximate access frequency of keys in a count-min sketch.
+ *
+ * <p>
+ * Each counter occupies a byte, but saturates at 15 like the 4-bit counters of TinyLFU, which is
+ * enough to compare popularity. After ten increments per expected entry all counters are halved, so
+ * that the sketch reflects recent popularity rather than all-time popularity.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe, callers must synchronize.
+ * </p>
+ */
+final class FrequencySketch {
+
+	private static final int DEPTH = 4;
+
+	private static final int MAX_COUNT = 15;
+
+	private static final int COUNTERS_PER_ENTRY = 16;
+
+	private static final long[] SEEDS = {
+		0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+	};
+
+	private final byte[] _counters;
+
+	private final int _mask;
+
+	private final int _sampleSize;
+
+	private int _additions;
+
+	/**
+	 * Creates a {@link FrequencySketch}.
+	 *
+	 * @param expectedEntries The number of entries whose frequency should be distinguishable.
+	 */
+	FrequencySketch(int expectedEntries) {
+		int entries = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+
+		// Enough counters per row to keep the estimation error for unpopular keys well below one.
+		int width = COUNTERS_PER_ENTRY * entries;
+		_counters = new byte[DEPTH * width];
+		_mask = width - 1;
+		_sampleSize = 10 * entries;
+	}
+
+	/**
+	 * The estimated number of recent occurrences of the given key (0-15).
+	 */
+	int frequency(long key) {
+		int result = MAX_COUNT;
+		for (int row = 0; row < DEPTH; row++) {
+			result = Math.min(result, _counters[index(key, row)]);
+		}
+		return result;
+	}
+
+	/**
+	 * Records an occurrence of the given key.
+	 */
+	void increment(long key) {
+		int frequency = frequency(key);
+		if (frequency == MAX_COUNT) {
+			return;
+		}
+
+		// Conservative update: only raise the counters that define the minimum.
+		for (int row = 0; row < DEPTH; row++) {
+			int index = index(key, row);
+			if (_counters[index] == frequency) {
+				_counters[index]++;
+			}
+		}
+
+		if (++_additions == _sampleSize) {
+			reset();
+		}
+	}
+
+	private void reset() {
+		for (int n = 0; n < _counters.length; n++) {
+			_counters[n] >>>= 1;
+		}
+		_additions /= 2;
+	}
+
+	private int index(long key, int row) {
+		long hash = (key + SEEDS[row]) * SEEDS[row];
+		hash ^= hash >>> 32;
+		return row * (_mask + 1) + ((int) hash & _mask);
+	}
+
+}
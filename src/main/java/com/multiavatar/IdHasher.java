@@ -0,0 +1,154 @@
+package com.multiavatar;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Per-thread SHA-256 hashing of avatar identifiers.
+ *
+ * <p>
+ * The JavaScript implementation hex-encodes the SHA-256 digest of the identifier, removes all
+ * non-digit characters and reads the first six digit pairs. This class produces the same digit
+ * stream directly from the nibbles of the digest bytes, so that no intermediate strings are built.
+ * </p>
+ */
+final class IdHasher {
+
+	/**
+	 * The {@link AvatarPart}s in the order their digit pairs appear in the hash.
+	 */
+	private static final AvatarPart[] HASH_ORDER = {
+		AvatarPart.ENV, AvatarPart.CLO, AvatarPart.HEAD, AvatarPart.MOUTH, AvatarPart.EYES, AvatarPart.TOP
+	};
+
+	/**
+	 * Part number (0-47) for each two digit decimal value (0-99).
+	 */
+	private static final byte[] PART_BY_DIGIT_PAIR = new byte[100];
+
+	static {
+		for (int value = 0; value < PART_BY_DIGIT_PAIR.length; value++) {
+			// Same float arithmetic as the string based implementation.
+			PART_BY_DIGIT_PAIR[value] = (byte) Math.round((47f / 100f) * value);
+		}
+	}
+
+	/**
+	 * Size of the buffer the identifier is encoded into, longer identifiers are fed to the digest in
+	 * chunks.
+	 */
+	private static final int INPUT_SIZE = 256;
+
+	/**
+	 * Maximum number of bytes a single step of the encoding writes.
+	 */
+	private static final int MAX_CHAR_BYTES = 4;
+
+	private static final ThreadLocal<IdHasher> INSTANCE = ThreadLocal.withInitial(IdHasher::new);
+
+	private final MessageDigest _digest;
+
+	private final byte[] _hash;
+
+	private final byte[] _input = new byte[INPUT_SIZE];
+
+	private IdHasher() {
+		try {
+			_digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not available", ex);
+		}
+		_hash = new byte[_digest.getDigestLength()];
+	}
+
+	/**
+	 * Computes the part numbers for the given identifier.
+	 *
+	 * @param id The identifier to hash.
+	 * @return The part numbers (0-47) packed into an {@link AvatarKey}.
+	 */
+	static long hash(CharSequence id) {
+		return INSTANCE.get().partNumbers(id);
+	}
+
+	private long partNumbers(CharSequence id) {
+		update(id);
+		try {
+			_digest.digest(_hash, 0, _hash.length);
+		} catch (DigestException ex) {
+			throw new IllegalStateException("Error calculating SHA-256", ex);
+		}
+
+		long result = 0;
+		int pair = 0;
+		int high = -1;
+		for (int n = 0, cnt = _hash.length * 2; n < cnt; n++) {
+			int b = _hash[n >> 1];
+			int nibble = (n & 1) == 0 ? (b >> 4) & 0xF : b & 0xF;
+			if (nibble > 9) {
+				// Hex letters are dropped from the digit stream.
+				continue;
+			}
+
+			if (high < 0) {
+				high = nibble;
+			} else {
+				int part = PART_BY_DIGIT_PAIR[high * 10 + nibble];
+				result |= ((long) part) << (AvatarKey.PART_BITS * HASH_ORDER[pair].ordinal());
+				high = -1;
+				if (++pair == HASH_ORDER.length) {
+					return result;
+				}
+			}
+		}
+		throw new IllegalStateException("Hash of '" + id + "' contains less than 12 decimal digits.");
+	}
+
+	/**
+	 * Feeds the UTF-8 encoding of the given identifier to the digest.
+	 *
+	 * <p>
+	 * The identifier is encoded into the fixed size input buffer, which is passed to the digest
+	 * whenever it is full, so that long identifiers do not grow the per-thread state. Unpaired
+	 * surrogates are replaced with <code>'?'</code>, like {@link String#getBytes(String)} does.
+	 * </p>
+	 */
+	private void update(CharSequence id) {
+		int length = id.length();
+		byte[] out = _input;
+		int pos = 0;
+		for (int n = 0; n < length; n++) {
+			if (pos > out.length - MAX_CHAR_BYTES) {
+				_digest.update(out, 0, pos);
+				pos = 0;
+			}
+
+			char ch = id.charAt(n);
+			if (ch < 0x80) {
+				out[pos++] = (byte) ch;
+			} else if (ch < 0x800) {
+				out[pos++] = (byte) (0xC0 | (ch >> 6));
+				out[pos++] = (byte) (0x80 | (ch & 0x3F));
+			} else if (Character.isSurrogate(ch)) {
+				char low;
+				if (Character.isHighSurrogate(ch) && n + 1 < length && Character.isLowSurrogate(low = id.charAt(n + 1))) {
+					int codePoint = Character.toCodePoint(ch, low);
+					n++;
+					out[pos++] = (byte) (0xF0 | (codePoint >> 18));
+					out[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					out[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					out[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+				} else {
+					out[pos++] = '?';
+				}
+			} else {
+				out[pos++] = (byte) (0xE0 | (ch >> 12));
+				out[pos++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+				out[pos++] = (byte) (0x80 | (ch & 0x3F));
+			}
+		}
+		_digest.update(out, 0, pos);
+	}
+
+}
@@ -0,0 +1,231 @@
+package com.multiavatar;
+
+import java.util.Locale;
+
+/**
+ * A single layer of an avatar: one {@link AvatarPart} drawn in one {@link Coordinate}.
+ *
+ * <p>
+ * Every avatar is a stack of (up to) six layers, and only 288 distinct layers exist. Each layer has
+ * a stable text key like <code>02A-head</code> that identifies it independently of any avatar. This
+ * allows to cache all layers permanently, e.g. in a CDN, and to describe an avatar by its layer
+ * keys only, see {@link Avatar#getLayers(boolean)}. A client composes the avatar by drawing the
+ * layers on top of each other in the order given.
+ * </p>
+ *
+ * <p>
+ * Instances are interned, so two layers are equal if and only if they are identical.
+ * </p>
+ */
+public final class Layer {
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	private static final Layer[] LAYERS = new Layer[Coordinate.PART_NUMBERS * PARTS.length];
+
+	static {
+		for (int nr = 0; nr < Coordinate.PART_NUMBERS; nr++) {
+			for (AvatarPart part : PARTS) {
+				LAYERS[index(nr, part)] = new Layer(Coordinate.fromPartNumber(nr), part);
+			}
+		}
+	}
+
+	private final Coordinate _coordinate;
+
+	private final AvatarPart _part;
+
+	private final String _key;
+
+	private Layer(Coordinate coordinate, AvatarPart part) {
+		_coordinate = coordinate;
+		_part = part;
+		_key = coordinate + "-" + part.name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * The layer drawing the given part of the given character in the given theme.
+	 */
+	public static Layer layer(AvatarPart part, CharacterType character, Theme theme) {
+		return layer(part, Coordinate.coordinate(character, theme));
+	}
+
+	/**
+	 * The layer drawing the given part in the given coordinate.
+	 */
+	public static Layer layer(AvatarPart part, Coordinate coordinate) {
+		return layer(coordinate.getPartNumber(), part);
+	}
+
+	/**
+	 * The layer drawing the given part of the given part number (0-47).
+	 */
+	static Layer layer(int partNumber, AvatarPart part) {
+		return LAYERS[index(partNumber, part)];
+	}
+
+	/**
+	 * The layer with the given key.
+	 *
+	 * @param key A layer key like <code>02A-head</code>, see {@link #getKey()}.
+	 * @throws IllegalArgumentException If the given value is not a valid layer key.
+	 */
+	public static Layer fromKey(String key) {
+		if (key.length() > 4 && key.charAt(3) == '-') {
+			CharacterType character = CharacterType.fromId(key.substring(0, 2));
+			Theme theme = Theme.fromCode(key.charAt(2));
+			if (character != null && theme != null) {
+				for (AvatarPart part : PARTS) {
+					Layer result = layer(part, character, theme);
+					if (result._key.equals(key)) {
+						return result;
+					}
+				}
+			}
+		}
+		throw new IllegalArgumentException("Not a valid layer key: " + key);
+	}
+
+	/**
+	 * The {@link AvatarPart} this layer draws.
+	 */
+	public AvatarPart getPart() {
+		return _part;
+	}
+
+	/**
+	 * The {@link Coordinate} this layer is drawn in.
+	 */
+	public Coordinate getCoordinate() {
+		return _coordinate;
+	}
+
+	/**
+	 * The stable text key of this layer: the character id, the theme code, a dash and the
+	 * lower-case part name, e.g. <code>02A-head</code>.
+	 *
+	 * @see #fromKey(String)
+	 */
+	public String getKey() {
+		return _key;
+	}
+
+	/**
+	 * Renders this layer as a complete SVG document.
+	 *
+	 * @return An SVG document with the same size as an avatar, showing only this layer
+	 */
+	public String render() {
+		return render(OutputProfile.DEFAULT);
+	}
+
+	/**
+	 * Renders this layer as a complete SVG document in the given {@link OutputProfile}.
+	 *
+	 * <p>
+	 * In a {@link OutputProfile#withCssVariables() CSS variables} profile, the document defines
+	 * the colors of this layer in the <code>style</code> attribute of its <code>svg</code>
+	 * element.
+	 * </p>
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @return An SVG document with the same size as an avatar, showing only this layer
+	 */
+	public String render(OutputProfile profile) {
+		Fragment fragment = profile.fragments().get(_coordinate, _part);
+
+		StringBuilder result = new StringBuilder(Fragment.SVG_START.length() + Fragment.METADATA.length() + fragment.length() + Fragment.SVG_END.length());
+		String start = Fragment.SVG_START.text();
+		if (profile.hasCssVariables()) {
+			result.append(start, 0, start.length() - 1);
+			result.append(" style=\"");
+			ColorVariables.appendStyle(result, _coordinate, _part);
+			result.append("\">");
+		} else {
+			result.append(start);
+		}
+
+		// Add generator attribution (fulfills license requirement)
+		result.append(Fragment.METADATA.text());
+
+		result.append(fragment.text());
+		result.append(Fragment.SVG_END.text());
+		return result.toString();
+	}
+
+	/**
+	 * The SVG elements of this layer without an enclosing <code>svg</code> element.
+	 *
+	 * <p>
+	 * Concatenating the fragments of the layers of an avatar within an <code>svg</code> element
+	 * with a view box of <code>0 0 231 231</code> reproduces the avatar.
+	 * </p>
+	 */
+	public String renderFragment() {
+		return renderFragment(OutputProfile.DEFAULT);
+	}
+
+	/**
+	 * The SVG elements of this layer in the given {@link OutputProfile} without an enclosing
+	 * <code>svg</code> element.
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @see #renderFragment()
+	 */
+	public String renderFragment(OutputProfile profile) {
+		return profile.fragments().get(_coordinate, _part).text();
+	}
+
+	/**
+	 * The SVG elements of this layer wrapped in a group that identifies the layer.
+	 *
+	 * <p>
+	 * The group has the form <code>&lt;g data-part="head" data-layer="02A-head"&gt;...&lt;/g&gt;</code>,
+	 * see {@link Avatar#renderLayered(boolean)}.
+	 * </p>
+	 */
+	public String renderGroup() {
+		return renderGroup(OutputProfile.DEFAULT);
+	}
+
+	/**
+	 * The SVG elements of this layer in the given {@link OutputProfile}, wrapped in a group that
+	 * identifies the layer.
+	 *
+	 * <p>
+	 * In a {@link OutputProfile#withCssVariables() CSS variables} profile, the group defines the
+	 * colors of this layer in its <code>style</code> attribute, so that it can replace the group of
+	 * another layer without further changes.
+	 * </p>
+	 *
+	 * @param profile The {@link OutputProfile} to render in
+	 * @see #renderGroup()
+	 */
+	public String renderGroup(OutputProfile profile) {
+		StringBuilder result = new StringBuilder();
+		appendGroup(result, profile);
+		return result.toString();
+	}
+
+	void appendGroup(StringBuilder out, OutputProfile profile) {
+		out.append("<g data-part=\"").append(_key, 4, _key.length()).append("\" data-layer=\"").append(_key).append('"');
+		if (profile.hasCssVariables()) {
+			out.append(" style=\"");
+			ColorVariables.appendStyle(out, _coordinate, _part);
+			out.append('"');
+		}
+		out.append('>');
+		out.append(profile.fragments().get(_coordinate, _part).text());
+		out.append("</g>");
+	}
+
+	@Override
+	public String toString() {
+		return _key;
+	}
+
+	private static int index(int partNumber, AvatarPart part) {
+		return partNumber * PARTS.length + part.ordinal();
+	}
+
+}
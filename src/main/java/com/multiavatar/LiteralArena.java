@@ -0,0 +1,190 @@
+package com.multiavatar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only store of template text in a single Latin-1 byte array.
+ *
+ * <p>
+ * Each distinct text is stored once and referenced by its offset and length. Identical literals of
+ * different templates, e.g. the shared background and head, and recurring style declarations and
+ * color placeholders, therefore occupy the arena only once, without an object per literal.
+ * </p>
+ *
+ * <p>
+ * Texts are only added, so a reference stays valid forever. Adding is synchronized, reading is not:
+ * a reader sees at least the bytes of all texts that were added before the reference was published
+ * to it.
+ * </p>
+ */
+final class LiteralArena {
+
+	/**
+	 * Marker for an empty slot of {@link #_index}.
+	 */
+	private static final long EMPTY = -1L;
+
+	/**
+	 * The unit by which the arena grows.
+	 */
+	private static final int GROWTH = 4 * 1024;
+
+	private volatile byte[] _bytes = new byte[GROWTH];
+
+	private int _size;
+
+	/**
+	 * Open addressing hash table of the texts added, each as offset in the upper and length in the
+	 * lower 32 bits.
+	 */
+	private long[] _index = newIndex(256);
+
+	private int _count;
+
+	/**
+	 * Adds the given text.
+	 *
+	 * @return The offset of the text in the arena, or <code>-1</code> if the text contains characters
+	 *         that are not Latin-1.
+	 */
+	synchronized int add(String text) {
+		if (!isLatin1(text)) {
+			return -1;
+		}
+
+		int length = text.length();
+		int hash = 0;
+		for (int n = 0; n < length; n++) {
+			hash = 31 * hash + text.charAt(n);
+		}
+
+		byte[] bytes = _bytes;
+		int mask = _index.length - 1;
+		int slot = mix(hash) & mask;
+		for (long entry = _index[slot]; entry != EMPTY; entry = _index[slot = (slot + 1) & mask]) {
+			int offset = (int) (entry >>> 32);
+			if ((int) entry == length && matches(bytes, offset, text)) {
+				return offset;
+			}
+		}
+
+		if (_size + length > bytes.length) {
+			// Grow in small steps, the arena is filled once per character and never shrinks.
+			bytes = Arrays.copyOf(bytes, (_size + length + GROWTH - 1) / GROWTH * GROWTH);
+		}
+		int result = _size;
+		for (int n = 0; n < length; n++) {
+			bytes[result + n] = (byte) text.charAt(n);
+		}
+		_size += length;
+
+		// Publish the bytes before the offset is returned.
+		_bytes = bytes;
+
+		_index[slot] = ((long) result << 32) | length;
+		if (++_count * 2 > _index.length) {
+			rehash();
+		}
+		return result;
+	}
+
+	/**
+	 * The text with the given offset and length.
+	 */
+	String get(int offset, int length) {
+		return new String(_bytes, offset, length, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Appends the text with the given offset and length to the given buffer.
+	 */
+	void appendTo(StringBuilder out, int offset, int length) {
+		byte[] bytes = _bytes;
+		out.ensureCapacity(out.length() + length);
+		for (int n = offset, end = offset + length; n < end; n++) {
+			out.append((char) (bytes[n] & 0xFF));
+		}
+	}
+
+	/**
+	 * Appends the text with the given offset and length to the given sink, character by character
+	 * to not create a string for it.
+	 */
+	void appendTo(Appendable out, int offset, int length) throws IOException {
+		byte[] bytes = _bytes;
+		for (int n = offset, end = offset + length; n < end; n++) {
+			out.append((char) (bytes[n] & 0xFF));
+		}
+	}
+
+	/**
+	 * The number of bytes used by the texts added.
+	 */
+	synchronized int size() {
+		return _size;
+	}
+
+	/**
+	 * The number of distinct texts added.
+	 */
+	synchronized int count() {
+		return _count;
+	}
+
+	/**
+	 * Whether the given text can be stored in an arena.
+	 */
+	static boolean isLatin1(String text) {
+		for (int n = 0, length = text.length(); n < length; n++) {
+			if (text.charAt(n) > 0xFF) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(byte[] bytes, int offset, String text) {
+		for (int n = 0, length = text.length(); n < length; n++) {
+			if ((bytes[offset + n] & 0xFF) != text.charAt(n)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash() {
+		long[] index = newIndex(_index.length * 2);
+		int mask = index.length - 1;
+		byte[] bytes = _bytes;
+		for (long entry : _index) {
+			if (entry == EMPTY) {
+				continue;
+			}
+
+			int offset = (int) (entry >>> 32);
+			int hash = 0;
+			for (int n = offset, end = offset + (int) entry; n < end; n++) {
+				hash = 31 * hash + (bytes[n] & 0xFF);
+			}
+			int slot = mix(hash) & mask;
+			while (index[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			index[slot] = entry;
+		}
+		_index = index;
+	}
+
+	private static long[] newIndex(int size) {
+		long[] result = new long[size];
+		Arrays.fill(result, EMPTY);
+		return result;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -0,0 +1,697 @@
+package com.multiavatar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of rendered avatars in memory-mapped files, that survives restarts.
+ *
+ * <p>
+ * The cache consists of two files in a directory. The data file holds the UTF-8 encoded SVG code of
+ * each avatar in an append-only sequence of records. The index file is an open addressing hash
+ * table from the packed {@link AvatarKey} and <code>sansEnv</code> flag to the offset of the record
+ * in the data file. Both files are allocated with a fixed size when created and accessed through
+ * {@link MappedByteBuffer}s. Once a file is full, further avatars are rendered but not stored.
+ * </p>
+ *
+ * <p>
+ * The file names contain a fingerprint of the built-in template and theme data, and the file headers
+ * repeat it. Files written by a version with different art are therefore never used, a new version
+ * starts with new files. Opening a cache for writing deletes such outdated files from the directory.
+ * </p>
+ *
+ * <p>
+ * Several JVMs on the same host may open the same directory at once. Lookups do not lock, appends
+ * are serialized with a file lock. A record is completely written before the index slot pointing to
+ * it is published with a single 8-byte write, and lookups verify the key stored in the record. Only
+ * one {@link MappedAvatarCache} per directory should be opened within a single JVM.
+ * </p>
+ *
+ * <p>
+ * Within a JVM, a record appended by one thread is safely visible to all others: after writing the
+ * index slot, the writer advances a volatile end of the published records, and a lookup reads it
+ * before following a slot. A lookup that finds a slot beyond that end synchronizes with the writer
+ * instead. For records appended by other JVMs, the Java memory model gives no guarantee. They are
+ * read through the shared pages of the operating system, relying on the writer to store the record
+ * before the slot. This holds on platforms with strongly ordered stores, like x86. Elsewhere, e.g.
+ * on ARM, a reader could in theory see the slot before the record, so caches shared between JVMs
+ * on such platforms should be filled by a single process before others read them.
+ * </p>
+ *
+ * <p>
+ * Since records are never overwritten, buffers returned from lookups stay valid as long as the
+ * cache is open.
+ * </p>
+ *
+ * <p>
+ * With an {@link AvatarCodec} other than {@link AvatarCodec#PLAIN}, records hold encoded avatars and
+ * lookups return heap buffers with the decoded SVG code. The name of the codec is part of the file
+ * names, so each encoding uses its own files.
+ * </p>
+ */
+public class MappedAvatarCache implements Closeable {
+
+	private static final long INDEX_MAGIC = 0x4D41564958303031L; // "MAVIX001"
+
+	private static final long DATA_MAGIC = 0x4D41564441543031L; // "MAVDAT01"
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 64;
+
+	private static final int OFFSET_MAGIC = 0;
+
+	private static final int OFFSET_VERSION = 8;
+
+	private static final int OFFSET_FINGERPRINT = 16;
+
+	/**
+	 * Index header: the number of slots.
+	 */
+	private static final int OFFSET_SLOTS = 24;
+
+	/**
+	 * Index header: the number of entries.
+	 */
+	private static final int OFFSET_COUNT = 28;
+
+	/**
+	 * Data header: the offset of the next record to append.
+	 */
+	private static final int OFFSET_END = 24;
+
+	private static final int SLOT_SIZE = 8;
+
+	/**
+	 * Size of the record header: the entry key followed by the length of the SVG code.
+	 */
+	private static final int RECORD_HEADER = 12;
+
+	private static final int RECORD_ALIGNMENT = 8;
+
+	/**
+	 * Size of a small rendered avatar, used to dimension the index.
+	 */
+	private static final int MIN_ENTRY_SIZE = 2048;
+
+	/**
+	 * Size of a small encoded avatar, used to dimension the index for codecs other than
+	 * {@link AvatarCodec#PLAIN}.
+	 */
+	private static final int MIN_ENCODED_ENTRY_SIZE = 256;
+
+	/**
+	 * The largest data file that can be mapped with a single buffer.
+	 */
+	private static final long MAX_DATA_SIZE = Integer.MAX_VALUE & ~(RECORD_ALIGNMENT - 1);
+
+	/**
+	 * Result of an unlocked lookup that found a record not yet known to be visible.
+	 */
+	private static final ByteBuffer NOT_PUBLISHED = ByteBuffer.allocate(0);
+
+	private final Path _indexFile;
+
+	private final Path _dataFile;
+
+	private final FileChannel _indexChannel;
+
+	private final FileChannel _dataChannel;
+
+	private final MappedByteBuffer _index;
+
+	private final MappedByteBuffer _data;
+
+	private final boolean _readOnly;
+
+	private final AvatarCodec _codec;
+
+	private final int _slotMask;
+
+	private final int _maxEntries;
+
+	/**
+	 * The end of the records that are completely written and visible to all threads of this JVM.
+	 *
+	 * <p>
+	 * Written after a record is added to the index (release) and read before a lookup follows an
+	 * index slot (acquire).
+	 * </p>
+	 */
+	private volatile long _published;
+
+	private final LongAdder _hits = new LongAdder();
+
+	private final LongAdder _misses = new LongAdder();
+
+	/**
+	 * Opens or creates the cache files in the given directory for reading and writing.
+	 *
+	 * @param directory The directory to store the cache files in, created if it does not exist.
+	 * @param dataSize The size of the data file to create. Ignored, if the files already exist.
+	 * @return The opened cache.
+	 * @throws IOException If the files cannot be created or mapped.
+	 */
+	public static MappedAvatarCache open(Path directory, long dataSize) throws IOException {
+		return open(directory, dataSize, AvatarCodec.PLAIN);
+	}
+
+	/**
+	 * Opens or creates the cache files for avatars in the given encoding for reading and writing.
+	 *
+	 * @param directory The directory to store the cache files in, created if it does not exist.
+	 * @param dataSize The size of the data file to create. Ignored, if the files already exist.
+	 * @param codec The encoding of the stored avatars.
+	 * @return The opened cache.
+	 * @throws IOException If the files cannot be created or mapped.
+	 */
+	public static MappedAvatarCache open(Path directory, long dataSize, AvatarCodec codec) throws IOException {
+		if (dataSize <= HEADER_SIZE || dataSize > MAX_DATA_SIZE) {
+			throw new IllegalArgumentException("Data size must be between " + HEADER_SIZE + " and " + MAX_DATA_SIZE + ": " + dataSize);
+		}
+		Files.createDirectories(directory);
+		deleteStale(directory);
+		return new MappedAvatarCache(directory, dataSize, codec, false);
+	}
+
+	/**
+	 * Opens existing cache files in the given directory for reading only.
+	 *
+	 * @param directory The directory containing the cache files.
+	 * @return The opened cache.
+	 * @throws NoSuchFileException If there are no cache files for the current template and theme
+	 *         data.
+	 * @throws IOException If the files cannot be mapped.
+	 */
+	public static MappedAvatarCache openReadOnly(Path directory) throws IOException {
+		return openReadOnly(directory, AvatarCodec.PLAIN);
+	}
+
+	/**
+	 * Opens existing cache files for avatars in the given encoding for reading only.
+	 *
+	 * @param directory The directory containing the cache files.
+	 * @param codec The encoding of the stored avatars.
+	 * @return The opened cache.
+	 * @throws NoSuchFileException If there are no cache files for the current template and theme
+	 *         data and the given encoding.
+	 * @throws IOException If the files cannot be mapped.
+	 */
+	public static MappedAvatarCache openReadOnly(Path directory, AvatarCodec codec) throws IOException {
+		return new MappedAvatarCache(directory, 0, codec, true);
+	}
+
+	/**
+	 * The base name of the cache files for the built-in template and theme data in the given
+	 * encoding.
+	 */
+	static String fileName(AvatarCodec codec) {
+		String result = filePrefix();
+		return codec == AvatarCodec.PLAIN ? result : result + '-' + codec.name();
+	}
+
+	/**
+	 * Deletes cache files in the given directory that were written for other template and theme
+	 * data and are therefore never used again.
+	 *
+	 * <p>
+	 * Files that cannot be deleted, e.g. because another process still has them open on a platform
+	 * that prevents this, are left for the next writer.
+	 * </p>
+	 */
+	private static void deleteStale(Path directory) throws IOException {
+		String prefix = filePrefix();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "avatars-*.{idx,dat}")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (name.startsWith(prefix) && (name.length() == prefix.length() + 4 || name.charAt(prefix.length()) == '-')) {
+					continue;
+				}
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException ex) {
+					// Still in use, retried by the next writer.
+				}
+			}
+		}
+	}
+
+	/**
+	 * The start of the names of all cache files for the built-in template and theme data.
+	 */
+	private static String filePrefix() {
+		return String.format("avatars-%016x", FragmentTable.DEFAULT.fingerprint());
+	}
+
+	private MappedAvatarCache(Path directory, long dataSize, AvatarCodec codec, boolean readOnly) throws IOException {
+		String name = fileName(codec);
+		_indexFile = directory.resolve(name + ".idx");
+		_dataFile = directory.resolve(name + ".dat");
+		_readOnly = readOnly;
+		_codec = codec;
+
+		if (readOnly) {
+			_indexChannel = FileChannel.open(_indexFile, StandardOpenOption.READ);
+			_dataChannel = FileChannel.open(_dataFile, StandardOpenOption.READ);
+		} else {
+			_indexChannel = FileChannel.open(_indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+			_dataChannel = FileChannel.open(_dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		}
+
+		try {
+			FileLock lock = _indexChannel.lock(0, HEADER_SIZE, readOnly);
+			try {
+				if (!readOnly && !isValid()) {
+					initialize(dataSize);
+				}
+				if (!isValid()) {
+					throw new IOException("Not a valid avatar cache: " + _indexFile);
+				}
+
+				MapMode mode = readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE;
+				_index = _indexChannel.map(mode, 0, _indexChannel.size());
+				_data = _dataChannel.map(mode, 0, _dataChannel.size());
+			} finally {
+				lock.release();
+			}
+		} catch (IOException | RuntimeException ex) {
+			closeChannels();
+			throw ex;
+		}
+
+		int slots = _index.getInt(OFFSET_SLOTS);
+		_slotMask = slots - 1;
+		_maxEntries = slots / 4 * 3;
+		_published = _data.getLong(OFFSET_END);
+	}
+
+	/**
+	 * Whether the headers of both files match the current format and template data.
+	 */
+	private boolean isValid() throws IOException {
+		if (_indexChannel.size() < HEADER_SIZE || _dataChannel.size() < HEADER_SIZE) {
+			return false;
+		}
+
+		ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE);
+		_indexChannel.read(index, 0);
+		ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE);
+		_dataChannel.read(data, 0);
+
+		long fingerprint = FragmentTable.DEFAULT.fingerprint();
+		int slots = index.getInt(OFFSET_SLOTS);
+		return index.getLong(OFFSET_MAGIC) == INDEX_MAGIC
+			&& index.getInt(OFFSET_VERSION) == VERSION
+			&& index.getLong(OFFSET_FINGERPRINT) == fingerprint
+			&& slots > 0 && Integer.bitCount(slots) == 1
+			&& _indexChannel.size() == HEADER_SIZE + (long) slots * SLOT_SIZE
+			&& data.getLong(OFFSET_MAGIC) == DATA_MAGIC
+			&& data.getInt(OFFSET_VERSION) == VERSION
+			&& data.getLong(OFFSET_FINGERPRINT) == fingerprint
+			&& data.getLong(OFFSET_END) <= _dataChannel.size();
+	}
+
+	private void initialize(long dataSize) throws IOException {
+		int entrySize = _codec == AvatarCodec.PLAIN ? MIN_ENTRY_SIZE : MIN_ENCODED_ENTRY_SIZE;
+		long expectedEntries = Math.max(16, dataSize / entrySize);
+		int slots = (int) Long.highestOneBit(expectedEntries * 4 / 3 - 1) << 1;
+
+		// Note: Files must not be resized through other channels, since closing those would release
+		// the lock held on the index file.
+		_indexChannel.truncate(0);
+		_dataChannel.truncate(0);
+		extend(_indexChannel, HEADER_SIZE + (long) slots * SLOT_SIZE);
+		extend(_dataChannel, dataSize);
+
+		long fingerprint = FragmentTable.DEFAULT.fingerprint();
+
+		ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE);
+		data.putLong(OFFSET_MAGIC, DATA_MAGIC);
+		data.putInt(OFFSET_VERSION, VERSION);
+		data.putLong(OFFSET_FINGERPRINT, fingerprint);
+		data.putLong(OFFSET_END, HEADER_SIZE);
+		_dataChannel.write(data, 0);
+		_dataChannel.force(true);
+
+		// Written last, an index header marks the files as complete.
+		ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE);
+		index.putLong(OFFSET_MAGIC, INDEX_MAGIC);
+		index.putInt(OFFSET_VERSION, VERSION);
+		index.putLong(OFFSET_FINGERPRINT, fingerprint);
+		index.putInt(OFFSET_SLOTS, slots);
+		index.putInt(OFFSET_COUNT, 0);
+		_indexChannel.write(index, 0);
+		_indexChannel.force(true);
+	}
+
+	private static void extend(FileChannel channel, long size) throws IOException {
+		channel.write(ByteBuffer.allocate(1), size - 1);
+	}
+
+	/**
+	 * Generates the UTF-8 encoded avatar SVG from the given identifier, see
+	 * {@link Multiavatar#generate(String, boolean)}.
+	 *
+	 * @param id The identifier to generate the avatar from (e.g., username, email)
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return A read-only buffer with the SVG code
+	 * @throws IOException If writing to the cache fails
+	 */
+	public ByteBuffer generate(String id, boolean sansEnv) throws IOException {
+		if (id == null || id.length() == 0) {
+			// Return empty string for empty input (JavaScript compatibility)
+			return ByteBuffer.allocate(0).asReadOnlyBuffer();
+		}
+		return render(AvatarKey.fromId(id), sansEnv);
+	}
+
+	/**
+	 * Renders the UTF-8 encoded SVG of the avatar with the given key, rendering and storing it in
+	 * case it is not yet cached.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return A read-only buffer with the SVG code
+	 * @throws IOException If writing to the cache fails
+	 */
+	public ByteBuffer render(long key, boolean sansEnv) throws IOException {
+		long entryKey = AvatarCache.entryKey(AvatarKey.checkValid(key), sansEnv);
+		ByteBuffer result = lookup(entryKey);
+		if (result != null) {
+			_hits.increment();
+			return decode(result);
+		}
+
+		_misses.increment();
+		Avatar avatar = Avatar.fromKey(key);
+		if (_codec == AvatarCodec.PLAIN) {
+			if (!_readOnly) {
+				result = append(entryKey, avatar, sansEnv);
+			}
+			if (result != null) {
+				return result;
+			}
+		}
+
+		byte[] svg = avatar.renderBytes(sansEnv);
+		if (!_readOnly && _codec != AvatarCodec.PLAIN) {
+			append(entryKey, _codec.encode(svg));
+		}
+		return ByteBuffer.wrap(svg).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Looks up the UTF-8 encoded SVG of the avatar with the given key.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar
+	 * @param sansEnv Whether to look up the avatar without the circular background
+	 * @return A read-only buffer with the SVG code, or <code>null</code> if the avatar is not
+	 *         cached
+	 */
+	public ByteBuffer get(long key, boolean sansEnv) {
+		ByteBuffer result = lookup(AvatarCache.entryKey(key, sansEnv));
+		if (result == null) {
+			_misses.increment();
+			return null;
+		}
+		_hits.increment();
+		return decode(result);
+	}
+
+	private ByteBuffer decode(ByteBuffer record) {
+		if (_codec == AvatarCodec.PLAIN) {
+			return record;
+		}
+		return _codec.decode(record).asReadOnlyBuffer();
+	}
+
+	private ByteBuffer lookup(long entryKey) {
+		ByteBuffer result = lookup(entryKey, _published);
+		return result != NOT_PUBLISHED ? result : lookupLocked(entryKey);
+	}
+
+	/**
+	 * Looks up a record after synchronizing with the threads of this JVM that append records.
+	 */
+	private synchronized ByteBuffer lookupLocked(long entryKey) {
+		// Records below the end in the data header were published, possibly by another JVM.
+		long end = _data.getLong(OFFSET_END);
+		if (end > _published) {
+			_published = end;
+		}
+		return lookup(entryKey, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Looks up a record in the index.
+	 *
+	 * @param published Records starting at or beyond this offset are not known to be visible.
+	 * @return A view of the record, <code>null</code> if there is none, or
+	 *         {@link #NOT_PUBLISHED} if the index refers to a record that is not known to be
+	 *         visible.
+	 */
+	private ByteBuffer lookup(long entryKey, long published) {
+		long hash = hash(entryKey);
+		int tag = tag(hash);
+		for (int slot = (int) hash & _slotMask; ; slot = (slot + 1) & _slotMask) {
+			long value = _index.getLong(slotOffset(slot));
+			if (value == 0) {
+				return null;
+			}
+			if ((int) (value >>> 32) == tag) {
+				long offset = (value & 0xFFFFFFFFL) * RECORD_ALIGNMENT;
+				if (offset >= published) {
+					return NOT_PUBLISHED;
+				}
+				if (_data.getLong((int) offset) == entryKey) {
+					return view(offset);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renders the given avatar into a new record.
+	 *
+	 * @return A view of the stored avatar, or <code>null</code> if the cache is full.
+	 */
+	private ByteBuffer append(long entryKey, Avatar avatar, boolean sansEnv) throws IOException {
+		synchronized (this) {
+			FileLock lock = _indexChannel.lock(0, HEADER_SIZE, false);
+			try {
+				// May have been added by another JVM.
+				ByteBuffer existing = lookup(entryKey);
+				if (existing != null) {
+					return existing;
+				}
+
+				ByteBuffer record = allocate(entryKey, avatar.renderedByteLength(sansEnv));
+				if (record == null) {
+					return null;
+				}
+				avatar.renderTo(record, sansEnv);
+				return publish(entryKey);
+			} finally {
+				lock.release();
+			}
+		}
+	}
+
+	/**
+	 * Stores an encoded avatar into a new record, if there is room for it.
+	 */
+	private void append(long entryKey, byte[] encoded) throws IOException {
+		synchronized (this) {
+			FileLock lock = _indexChannel.lock(0, HEADER_SIZE, false);
+			try {
+				if (lookup(entryKey) != null) {
+					return;
+				}
+
+				ByteBuffer record = allocate(entryKey, encoded.length);
+				if (record != null) {
+					record.put(encoded);
+					publish(entryKey);
+				}
+			} finally {
+				lock.release();
+			}
+		}
+	}
+
+	/**
+	 * Writes the header of a new record at the end of the data file.
+	 *
+	 * @return A buffer positioned at the content of the record, or <code>null</code> if the cache
+	 *         is full.
+	 */
+	private ByteBuffer allocate(long entryKey, int length) {
+		int count = _index.getInt(OFFSET_COUNT);
+		long end = _data.getLong(OFFSET_END);
+		long recordSize = align(RECORD_HEADER + length);
+		if (count >= _maxEntries || end + recordSize > _data.capacity()) {
+			return null;
+		}
+
+		ByteBuffer record = _data.duplicate();
+		record.position((int) end);
+		record.putLong(entryKey);
+		record.putInt(length);
+		return record;
+	}
+
+	/**
+	 * Adds the completely written record at the end of the data file to the index.
+	 *
+	 * @return A view of the content of the record.
+	 */
+	private ByteBuffer publish(long entryKey) {
+		int count = _index.getInt(OFFSET_COUNT);
+		long end = _data.getLong(OFFSET_END);
+		long recordSize = align(RECORD_HEADER + _data.getInt((int) end + 8));
+
+		long hash = hash(entryKey);
+		int slot = (int) hash & _slotMask;
+		while (_index.getLong(slotOffset(slot)) != 0) {
+			slot = (slot + 1) & _slotMask;
+		}
+
+		// Publishes the completely written record.
+		_index.putLong(slotOffset(slot), ((long) tag(hash) << 32) | (end / RECORD_ALIGNMENT));
+
+		_data.putLong(OFFSET_END, end + recordSize);
+		_index.putInt(OFFSET_COUNT, count + 1);
+
+		// Releases the record to the other threads of this JVM, see lookup(long).
+		_published = end + recordSize;
+		return view(end);
+	}
+
+	private ByteBuffer view(long offset) {
+		int length = _data.getInt((int) offset + 8);
+		ByteBuffer result = _data.duplicate();
+		int start = (int) offset + RECORD_HEADER;
+		result.limit(start + length);
+		result.position(start);
+		return result.slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes all changes to disk.
+	 */
+	public void flush() {
+		if (!_readOnly) {
+			_data.force();
+			_index.force();
+		}
+	}
+
+	/**
+	 * Closes the underlying files.
+	 *
+	 * <p>
+	 * The mapped memory is released when the buffers are garbage collected.
+	 * </p>
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		closeChannels();
+	}
+
+	private void closeChannels() throws IOException {
+		try {
+			_indexChannel.close();
+		} finally {
+			_dataChannel.close();
+		}
+	}
+
+	/**
+	 * The index file.
+	 */
+	public Path getIndexFile() {
+		return _indexFile;
+	}
+
+	/**
+	 * The data file.
+	 */
+	public Path getDataFile() {
+		return _dataFile;
+	}
+
+	/**
+	 * The encoding of the stored avatars.
+	 */
+	public AvatarCodec getCodec() {
+		return _codec;
+	}
+
+	/**
+	 * Whether this cache was opened for reading only.
+	 */
+	public boolean isReadOnly() {
+		return _readOnly;
+	}
+
+	/**
+	 * The number of avatars stored in the cache files, including those added by other JVMs.
+	 */
+	public int getEntryCount() {
+		return _index.getInt(OFFSET_COUNT);
+	}
+
+	/**
+	 * The number of bytes used in the data file, including those added by other JVMs.
+	 */
+	public long getDataSize() {
+		return _data.getLong(OFFSET_END);
+	}
+
+	/**
+	 * The number of lookups answered from the cache.
+	 */
+	public long getHitCount() {
+		return _hits.sum();
+	}
+
+	/**
+	 * The number of lookups not answered from the cache.
+	 */
+	public long getMissCount() {
+		return _misses.sum();
+	}
+
+	private static long hash(long entryKey) {
+		long hash = entryKey * 0x9E3779B97F4A7C15L;
+		return hash ^ (hash >>> 29);
+	}
+
+	/**
+	 * Key bits stored in the index slot to skip most non-matching records, never zero.
+	 */
+	private static int tag(long hash) {
+		return (int) (hash >>> 32) | 1;
+	}
+
+	private static int slotOffset(int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	private static long align(long size) {
+		return (size + RECORD_ALIGNMENT - 1) & ~(RECORD_ALIGNMENT - 1);
+	}
+
+}
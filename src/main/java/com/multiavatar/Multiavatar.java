@@ -1,5 +1,9 @@
 package com.multiavatar;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -23,6 +27,9 @@ import java.util.Random;
  * // Generate random avatar with Random instance
  * Random rnd = new Random();
  * String random2 = Multiavatar.generate(rnd);
+ *
+ * // Write avatar directly to a Writer or other Appendable
+ * Multiavatar.generateTo(writer, "Binx Bond");
  * </pre>
  *
  * @author Gie Katon
@@ -61,6 +68,74 @@ public class Multiavatar {
         return avatar.render(sansEnv);
     }
 
+    /**
+     * Generates an avatar SVG from the given identifier in the given {@link OutputProfile}.
+     *
+     * @param id      The identifier to generate the avatar from (e.g., username, email)
+     * @param profile The {@link OutputProfile} to render in, e.g. {@link OutputProfile#compact()}
+     * @param sansEnv If true, returns the avatar without the circular background
+     * @return The complete SVG code as a string
+     */
+    public static String generate(String id, OutputProfile profile, boolean sansEnv) {
+        // Return empty string for empty input (JavaScript compatibility)
+        if (id == null || id.length() == 0) {
+            return "";
+        }
+
+        Avatar avatar = Avatar.fromId(id);
+        return avatar.render(profile, sansEnv);
+    }
+
+    /**
+     * Describes the avatar for the given identifier by the keys of its layers.
+     *
+     * <p>
+     * Each key identifies one of the 288 layers that can be rendered with
+     * {@link #renderLayer(String)}. Drawing the layers on top of each other in the given order
+     * reproduces the avatar of {@link #generate(String, boolean)}.
+     * </p>
+     *
+     * @param id      The identifier to generate the avatar from (e.g., username, email)
+     * @param sansEnv If true, leaves out the circular background
+     * @return The layer keys like <code>02A-head</code>, empty for an empty identifier
+     * @see Layer#getKey()
+     */
+    public static List<String> getLayerKeys(String id, boolean sansEnv) {
+        if (id == null || id.length() == 0) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<>();
+        for (Layer layer : Avatar.fromId(id).getLayers(sansEnv)) {
+            result.add(layer.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Renders a single avatar layer as a complete SVG document.
+     *
+     * @param part      The {@link AvatarPart} to render
+     * @param character The {@link CharacterType} to use (e.g., GIRL, ROBO)
+     * @param theme     The {@link Theme} to use (A, B, or C)
+     * @return The SVG code showing only the given layer
+     */
+    public static String renderLayer(AvatarPart part, CharacterType character, Theme theme) {
+        return Layer.layer(part, character, theme).render();
+    }
+
+    /**
+     * Renders the avatar layer with the given key as a complete SVG document.
+     *
+     * @param layerKey The layer key, e.g. <code>02A-head</code>
+     * @return The SVG code showing only the given layer
+     * @throws IllegalArgumentException If the given value is not a valid layer key
+     * @see #getLayerKeys(String, boolean)
+     */
+    public static String renderLayer(String layerKey) {
+        return Layer.fromKey(layerKey).render();
+    }
+
     /**
      * Generates a predefined avatar SVG with specific character and theme.
      *
@@ -132,4 +207,90 @@ public class Multiavatar {
         return avatar.render(sansEnv);
     }
 
+    /**
+     * Writes an avatar SVG generated from the given identifier to the given sink.
+     *
+     * @param out The sink to write to, e.g. a {@link java.io.Writer}
+     * @param id  The identifier to generate the avatar from (e.g., username, email)
+     * @throws IOException If writing to the sink fails
+     * @see #generate(String)
+     */
+    public static void generateTo(Appendable out, String id) throws IOException {
+        generateTo(out, id, false);
+    }
+
+    /**
+     * Writes an avatar SVG generated from the given identifier to the given sink.
+     *
+     * @param out     The sink to write to, e.g. a {@link java.io.Writer}
+     * @param id      The identifier to generate the avatar from (e.g., username, email)
+     * @param sansEnv If true, writes the avatar without the circular background
+     * @throws IOException If writing to the sink fails
+     * @see #generate(String, boolean)
+     */
+    public static void generateTo(Appendable out, String id, boolean sansEnv) throws IOException {
+        // Write nothing for empty input (JavaScript compatibility)
+        if (id == null || id.length() == 0) {
+            return;
+        }
+
+        Avatar avatar = Avatar.fromId(id);
+        avatar.renderTo(out, sansEnv);
+    }
+
+    /**
+     * Writes a predefined avatar SVG with specific character and theme to the given sink.
+     *
+     * @param out       The sink to write to, e.g. a {@link java.io.Writer}
+     * @param character The {@link CharacterType} to use (e.g., GIRL, ROBO)
+     * @param theme     The {@link Theme} to use (A, B, or C)
+     * @throws IOException If writing to the sink fails
+     * @see #generate(CharacterType, Theme)
+     */
+    public static void generateTo(Appendable out, CharacterType character, Theme theme) throws IOException {
+        generateTo(out, character, theme, false);
+    }
+
+    /**
+     * Writes a predefined avatar SVG with specific character and theme to the given sink.
+     *
+     * @param out       The sink to write to, e.g. a {@link java.io.Writer}
+     * @param character The {@link CharacterType} to use (e.g., GIRL, ROBO)
+     * @param theme     The {@link Theme} to use (A, B, or C)
+     * @param sansEnv   If true, writes the avatar without the circular background
+     * @throws IOException If writing to the sink fails
+     * @see #generate(CharacterType, Theme, boolean)
+     */
+    public static void generateTo(Appendable out, CharacterType character, Theme theme, boolean sansEnv) throws IOException {
+        Avatar avatar = Avatar.pure(character, theme);
+        avatar.renderTo(out, sansEnv);
+    }
+
+    /**
+     * Writes a random avatar SVG using the provided {@link Random} instance to the given sink.
+     *
+     * @param out     The sink to write to, e.g. a {@link java.io.Writer}
+     * @param rnd     The {@link Random} instance to use for generating random parts
+     * @param sansEnv If true, writes the avatar without the circular background
+     * @throws IOException If writing to the sink fails
+     * @see #generate(Random, boolean)
+     */
+    public static void generateTo(Appendable out, Random rnd, boolean sansEnv) throws IOException {
+        Avatar avatar = Avatar.fromRandom(rnd);
+        avatar.renderTo(out, sansEnv);
+    }
+
+    /**
+     * Writes a random avatar SVG using a seed value to the given sink.
+     *
+     * @param out     The sink to write to, e.g. a {@link java.io.Writer}
+     * @param seed    The seed value for the random number generator
+     * @param sansEnv If true, writes the avatar without the circular background
+     * @throws IOException If writing to the sink fails
+     * @see #generate(long, boolean)
+     */
+    public static void generateTo(Appendable out, long seed, boolean sansEnv) throws IOException {
+        generateTo(out, new Random(seed), sansEnv);
+    }
+
 }
@@ -0,0 +1,890 @@
+package com.multiavatar;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of rendered avatars that keeps the UTF-8 encoded SVG code in direct
+ * memory.
+ *
+ * <p>
+ * Rendered avatars are stored in fixed size slabs of direct memory, which are allocated on demand
+ * until the capacity is reached. Each slab is assigned to a size class and divided into equally
+ * sized chunks, each holding one avatar. When a size class runs out of free chunks and no more
+ * slabs can be allocated, its least recently used entry is evicted. A size class without any entries
+ * takes over the least recently used slab of another size class, so a small cache still serves
+ * avatars of all sizes, and {@link #clear()} returns all slabs to a pool of unassigned slabs. The
+ * index and bookkeeping only use primitive arrays, so the cache adds almost nothing to the work of
+ * the garbage collector, even when holding gigabytes of rendered avatars.
+ * </p>
+ *
+ * <p>
+ * Lookups return read-only heap buffers owned by the caller. An entry is copied out of the cache
+ * memory while its segment is locked, so a buffer is never affected by a later eviction that reuses
+ * the memory of its entry for another avatar.
+ * </p>
+ *
+ * <p>
+ * With an {@link AvatarCodec} other than {@link AvatarCodec#PLAIN}, the slabs hold encoded avatars
+ * and lookups return buffers with the decoded SVG code. Decoding happens after the segment is
+ * unlocked, but still costs more than rendering, see {@link AvatarCodec#DEFLATE}.
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * OffHeapAvatarCache cache = new OffHeapAvatarCache(1024L * 1024 * 1024);
+ * channel.write(cache.generate("Binx Bond", false));
+ * </pre>
+ */
+public class OffHeapAvatarCache {
+
+	/**
+	 * Default size of a single slab of direct memory.
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+	/**
+	 * Chunk size of the smallest size class.
+	 */
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	/**
+	 * Growth factor between chunk sizes of consecutive size classes.
+	 */
+	private static final double CHUNK_GROWTH = 1.25;
+
+	/**
+	 * Alignment of chunk sizes.
+	 */
+	private static final int CHUNK_ALIGNMENT = 64;
+
+	/**
+	 * Minimum number of slabs per segment, smaller caches use fewer segments.
+	 */
+	private static final int MIN_SEGMENT_SLABS = 16;
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private static final int NONE = -1;
+
+	private final Segment[] _segments;
+
+	private final int[] _chunkSizes;
+
+	private final int _slabSize;
+
+	private final long _capacity;
+
+	private final AvatarCodec _codec;
+
+	private final LongAdder _hits = new LongAdder();
+
+	private final LongAdder _misses = new LongAdder();
+
+	private final LongAdder _evictions = new LongAdder();
+
+	/**
+	 * Creates an {@link OffHeapAvatarCache} with {@link #DEFAULT_SLAB_SIZE}.
+	 *
+	 * @param capacity The maximum amount of direct memory in bytes to allocate.
+	 */
+	public OffHeapAvatarCache(long capacity) {
+		this(capacity, DEFAULT_SLAB_SIZE);
+	}
+
+	/**
+	 * Creates an {@link OffHeapAvatarCache}.
+	 *
+	 * @param capacity The maximum amount of direct memory in bytes to allocate.
+	 * @param slabSize The size of a single slab of direct memory, this is also the size limit of a
+	 *        single cached avatar.
+	 */
+	public OffHeapAvatarCache(long capacity, int slabSize) {
+		this(capacity, slabSize, AvatarCodec.PLAIN);
+	}
+
+	/**
+	 * Creates an {@link OffHeapAvatarCache} keeping avatars in encoded form.
+	 *
+	 * @param capacity The maximum amount of direct memory in bytes to allocate.
+	 * @param slabSize The size of a single slab of direct memory, this is also the size limit of a
+	 *        single cached avatar.
+	 * @param codec The encoding of the cached avatars.
+	 */
+	public OffHeapAvatarCache(long capacity, int slabSize, AvatarCodec codec) {
+		if (slabSize < MIN_CHUNK_SIZE) {
+			throw new IllegalArgumentException("Slab size must be at least " + MIN_CHUNK_SIZE + ": " + slabSize);
+		}
+		long slabCount = capacity / slabSize;
+		if (slabCount < 1) {
+			throw new IllegalArgumentException("Capacity must be at least one slab: " + capacity);
+		}
+		_slabSize = slabSize;
+		_codec = codec;
+		_chunkSizes = chunkSizes(slabSize);
+
+		int segmentCount = 1;
+		while (segmentCount < MAX_SEGMENTS && slabCount / (segmentCount * 2) >= MIN_SEGMENT_SLABS) {
+			segmentCount *= 2;
+		}
+
+		int segmentSlabs = (int) Math.min(Integer.MAX_VALUE, slabCount / segmentCount);
+		_segments = new Segment[segmentCount];
+		for (int n = 0; n < segmentCount; n++) {
+			_segments[n] = new Segment(segmentSlabs);
+		}
+		_capacity = (long) segmentSlabs * segmentCount * slabSize;
+	}
+
+	private static int[] chunkSizes(int slabSize) {
+		int[] result = new int[64];
+		int count = 0;
+		double size = MIN_CHUNK_SIZE;
+		while (true) {
+			int chunkSize = (int) Math.min(slabSize, ((long) Math.ceil(size / CHUNK_ALIGNMENT)) * CHUNK_ALIGNMENT);
+			if (count == result.length) {
+				result = Arrays.copyOf(result, count * 2);
+			}
+			result[count++] = chunkSize;
+			if (chunkSize == slabSize) {
+				return Arrays.copyOf(result, count);
+			}
+			size = Math.max(chunkSize + CHUNK_ALIGNMENT, size * CHUNK_GROWTH);
+		}
+	}
+
+	/**
+	 * Generates the UTF-8 encoded avatar SVG from the given identifier, see
+	 * {@link Multiavatar#generate(String, boolean)}.
+	 *
+	 * @param id The identifier to generate the avatar from (e.g., username, email)
+	 * @param sansEnv If true, returns the avatar without the circular background
+	 * @return A read-only buffer with the SVG code
+	 */
+	public ByteBuffer generate(String id, boolean sansEnv) {
+		if (id == null || id.length() == 0) {
+			// Return empty string for empty input (JavaScript compatibility)
+			return ByteBuffer.allocate(0).asReadOnlyBuffer();
+		}
+		return render(AvatarKey.fromId(id), sansEnv);
+	}
+
+	/**
+	 * Renders the UTF-8 encoded SVG of the avatar with the given key, rendering and storing it in
+	 * case it is not yet cached.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return A read-only buffer with the SVG code
+	 */
+	public ByteBuffer render(long key, boolean sansEnv) {
+		long entryKey = AvatarCache.entryKey(AvatarKey.checkValid(key), sansEnv);
+		Segment segment = segment(entryKey);
+
+		ByteBuffer data = segment.get(entryKey);
+		if (data != null) {
+			_hits.increment();
+			return decode(data);
+		}
+
+		_misses.increment();
+
+		// Rendered and encoded outside the lock, the cache keeps a copy.
+		byte[] svg = Avatar.fromKey(key).renderBytes(sansEnv);
+		segment.put(entryKey, ByteBuffer.wrap(_codec.encode(svg)));
+		return ByteBuffer.wrap(svg).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Looks up the UTF-8 encoded SVG of the avatar with the given key.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar
+	 * @param sansEnv Whether to look up the avatar without the circular background
+	 * @return A read-only buffer with the SVG code, or <code>null</code> if the avatar is not
+	 *         cached
+	 */
+	public ByteBuffer get(long key, boolean sansEnv) {
+		long entryKey = AvatarCache.entryKey(key, sansEnv);
+		ByteBuffer data = segment(entryKey).get(entryKey);
+		if (data == null) {
+			_misses.increment();
+			return null;
+		}
+		_hits.increment();
+		return decode(data);
+	}
+
+	/**
+	 * Renders the UTF-8 encoded SVG of the avatar with the given key into a buffer owned by the
+	 * caller, rendering and storing it in case it is not yet cached.
+	 *
+	 * <p>
+	 * With {@link AvatarCodec#PLAIN}, a hit copies the cached avatar directly from direct memory
+	 * into the given buffer without allocating.
+	 * </p>
+	 *
+	 * @param key The {@link AvatarKey} of the avatar to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @param dst The buffer to write to, starting at its current position. A buffer with
+	 *        {@link #getSlabSize()} bytes remaining has room for every cached avatar.
+	 * @return The number of bytes written
+	 * @throws BufferOverflowException If the remaining space in the buffer is too small,
+	 *         the buffer is left unmodified in that case
+	 */
+	public int render(long key, boolean sansEnv, ByteBuffer dst) {
+		long entryKey = AvatarCache.entryKey(AvatarKey.checkValid(key), sansEnv);
+		Segment segment = segment(entryKey);
+
+		int length = copyTo(segment, entryKey, dst);
+		if (length != NONE) {
+			_hits.increment();
+			return length;
+		}
+
+		_misses.increment();
+
+		Avatar avatar = Avatar.fromKey(key);
+		if (_codec == AvatarCodec.PLAIN) {
+			int start = dst.position();
+			length = avatar.renderTo(dst, sansEnv);
+
+			ByteBuffer svg = dst.duplicate();
+			svg.position(start);
+			svg.limit(start + length);
+			segment.put(entryKey, svg);
+			return length;
+		}
+
+		byte[] svg = avatar.renderBytes(sansEnv);
+		segment.put(entryKey, ByteBuffer.wrap(_codec.encode(svg)));
+		dst.put(svg);
+		return svg.length;
+	}
+
+	/**
+	 * Looks up the UTF-8 encoded SVG of the avatar with the given key and copies it into a buffer
+	 * owned by the caller.
+	 *
+	 * @param key The {@link AvatarKey} of the avatar
+	 * @param sansEnv Whether to look up the avatar without the circular background
+	 * @param dst The buffer to write to, starting at its current position
+	 * @return The number of bytes written, or <code>-1</code> if the avatar is not cached
+	 * @throws BufferOverflowException If the remaining space in the buffer is too small,
+	 *         the buffer is left unmodified in that case
+	 * @see #render(long, boolean, ByteBuffer)
+	 */
+	public int get(long key, boolean sansEnv, ByteBuffer dst) {
+		long entryKey = AvatarCache.entryKey(key, sansEnv);
+		int length = copyTo(segment(entryKey), entryKey, dst);
+		if (length == NONE) {
+			_misses.increment();
+		} else {
+			_hits.increment();
+		}
+		return length;
+	}
+
+	private int copyTo(Segment segment, long entryKey, ByteBuffer dst) {
+		if (_codec == AvatarCodec.PLAIN) {
+			return segment.copyTo(entryKey, dst);
+		}
+
+		ByteBuffer data = segment.get(entryKey);
+		if (data == null) {
+			return NONE;
+		}
+		ByteBuffer svg = _codec.decode(data);
+		int length = svg.remaining();
+		dst.put(svg);
+		return length;
+	}
+
+	private ByteBuffer decode(ByteBuffer data) {
+		return _codec.decode(data).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Removes all entries from this cache, the allocated direct memory is kept for reuse by avatars of any size.
+	 */
+	public void clear() {
+		for (Segment segment : _segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * The encoding of the cached avatars.
+	 */
+	public AvatarCodec getCodec() {
+		return _codec;
+	}
+
+	/**
+	 * The maximum amount of direct memory allocated by this cache.
+	 */
+	public long getCapacity() {
+		return _capacity;
+	}
+
+	/**
+	 * The size of a single slab, which is also the size limit of a single entry.
+	 */
+	public int getSlabSize() {
+		return _slabSize;
+	}
+
+	/**
+	 * The amount of direct memory currently allocated by this cache.
+	 */
+	public long getAllocatedSize() {
+		long result = 0;
+		for (Segment segment : _segments) {
+			result += (long) segment.slabCount() * _slabSize;
+		}
+		return result;
+	}
+
+	/**
+	 * The total size of the SVG code currently kept in this cache.
+	 */
+	public long getSize() {
+		long result = 0;
+		for (Segment segment : _segments) {
+			result += segment.size();
+		}
+		return result;
+	}
+
+	/**
+	 * The number of entries currently kept in this cache.
+	 */
+	public int getEntryCount() {
+		int result = 0;
+		for (Segment segment : _segments) {
+			result += segment.count();
+		}
+		return result;
+	}
+
+	/**
+	 * The number of requests answered from the cache.
+	 */
+	public long getHitCount() {
+		return _hits.sum();
+	}
+
+	/**
+	 * The number of requests not answered from the cache.
+	 */
+	public long getMissCount() {
+		return _misses.sum();
+	}
+
+	/**
+	 * The number of entries removed to make room for new ones.
+	 */
+	public long getEvictionCount() {
+		return _evictions.sum();
+	}
+
+	private Segment segment(long entryKey) {
+		long hash = entryKey * 0x9E3779B97F4A7C15L;
+		return _segments[(int) (hash >>> 40) & (_segments.length - 1)];
+	}
+
+	private int sizeClass(int length) {
+		int index = Arrays.binarySearch(_chunkSizes, length);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * Independently locked part of the cache with its own slabs, index and LRU lists.
+	 *
+	 * <p>
+	 * Each chunk of an allocated slab is identified by a chunk number. All information about a
+	 * chunk is kept in arrays indexed by chunk number. Each slab owns a range of chunk numbers,
+	 * which is kept when the slab is assigned to another size class with no more chunks. Free
+	 * chunks of a size class are chained through {@link #_older}, used chunks are linked into the
+	 * LRU list of their size class.
+	 * </p>
+	 */
+	private final class Segment {
+
+		private final int _maxSlabs;
+
+		private ByteBuffer[] _slabs = new ByteBuffer[4];
+
+		/**
+		 * The size class of each slab, {@link #NONE} for an unassigned slab.
+		 */
+		private int[] _slabClass = new int[4];
+
+		/**
+		 * First chunk number of the range reserved for each slab.
+		 */
+		private int[] _slabFirst = new int[4];
+
+		/**
+		 * Number of chunk numbers reserved for each slab, the chunks of its current size class use a
+		 * prefix of that range.
+		 */
+		private int[] _slabReserved = new int[4];
+
+		/**
+		 * Value of {@link #_clock} when each slab was last accessed.
+		 */
+		private long[] _slabAccess = new long[4];
+
+		private int _slabCount;
+
+		/**
+		 * Allocated slabs not assigned to any size class, in {@link #_idleSlabs}.
+		 */
+		private int _idleCount;
+
+		private int[] _idleSlabs = new int[4];
+
+		private long _clock;
+
+		private int _chunkCount;
+
+		private long[] _chunkKey = new long[64];
+
+		private int[] _chunkLength = new int[64];
+
+		private int[] _chunkSlab = new int[64];
+
+		private int[] _chunkOffset = new int[64];
+
+		private int[] _chunkClass = new int[64];
+
+		private int[] _older = new int[64];
+
+		private int[] _newer = new int[64];
+
+		private final int[] _freeHead;
+
+		/**
+		 * Most recently used chunk of each size class.
+		 */
+		private final int[] _lruNewest;
+
+		/**
+		 * Least recently used chunk of each size class.
+		 */
+		private final int[] _lruOldest;
+
+		/**
+		 * Open addressing index from entry key to chunk number plus one, zero marks an empty slot.
+		 */
+		private int[] _table = new int[64];
+
+		private int _count;
+
+		private long _size;
+
+		Segment(int maxSlabs) {
+			_maxSlabs = maxSlabs;
+			_freeHead = filled(_chunkSizes.length, NONE);
+			_lruNewest = filled(_chunkSizes.length, NONE);
+			_lruOldest = filled(_chunkSizes.length, NONE);
+		}
+
+		/**
+		 * Looks up the data of an entry.
+		 *
+		 * @return A copy of the stored (encoded) avatar, or <code>null</code> if there is no such
+		 *         entry.
+		 */
+		synchronized ByteBuffer get(long entryKey) {
+			int chunk = lookup(entryKey);
+			if (chunk == NONE) {
+				return null;
+			}
+
+			touch(chunk);
+
+			// Must be copied before the chunk can be reused by another thread.
+			return copy(chunk);
+		}
+
+		/**
+		 * Copies the data of an entry into the given buffer.
+		 *
+		 * @return The number of bytes copied, or {@link #NONE} if there is no such entry.
+		 */
+		synchronized int copyTo(long entryKey, ByteBuffer dst) {
+			int chunk = lookup(entryKey);
+			if (chunk == NONE) {
+				return NONE;
+			}
+
+			int length = _chunkLength[chunk];
+			if (dst.remaining() < length) {
+				throw new BufferOverflowException();
+			}
+
+			touch(chunk);
+
+			dst.put(window(chunk, length));
+			return length;
+		}
+
+		/**
+		 * Stores the remaining content of the given (encoded) avatar data into a new entry, if
+		 * there is room for it.
+		 */
+		synchronized void put(long entryKey, ByteBuffer encoded) {
+			if (lookup(entryKey) != NONE) {
+				// Stored concurrently by another thread.
+				return;
+			}
+
+			int chunk = add(entryKey, encoded.remaining());
+			if (chunk == NONE) {
+				return;
+			}
+
+			window(chunk, _chunkLength[chunk]).put(encoded);
+		}
+
+		/**
+		 * Allocates and indexes a chunk for a new entry of the given length.
+		 *
+		 * @return The chunk number, or {@link #NONE} if there is no room for the entry.
+		 */
+		private int add(long entryKey, int length) {
+			if (length > _slabSize) {
+				return NONE;
+			}
+
+			int chunk = allocate(sizeClass(length));
+			_chunkKey[chunk] = entryKey;
+			_chunkLength[chunk] = length;
+			_slabAccess[_chunkSlab[chunk]] = ++_clock;
+			linkNewest(chunk);
+			insert(chunk);
+			_count++;
+			_size += length;
+			return chunk;
+		}
+
+		synchronized void clear() {
+			Arrays.fill(_table, 0);
+			Arrays.fill(_freeHead, NONE);
+			Arrays.fill(_lruNewest, NONE);
+			Arrays.fill(_lruOldest, NONE);
+
+			// Slabs are assigned to size classes again as needed by the new entries.
+			_idleCount = 0;
+			for (int slab = _slabCount - 1; slab >= 0; slab--) {
+				_slabClass[slab] = NONE;
+				_idleSlabs[_idleCount++] = slab;
+			}
+			_count = 0;
+			_size = 0;
+		}
+
+		synchronized int slabCount() {
+			return _slabCount;
+		}
+
+		synchronized long size() {
+			return _size;
+		}
+
+		synchronized int count() {
+			return _count;
+		}
+
+		/**
+		 * Copies the content of the given chunk to the heap.
+		 */
+		private ByteBuffer copy(int chunk) {
+			byte[] result = new byte[_chunkLength[chunk]];
+			window(chunk, result.length).get(result);
+			return ByteBuffer.wrap(result);
+		}
+
+		/**
+		 * Positions the slab of the given chunk to the given number of bytes at the start of the
+		 * chunk.
+		 *
+		 * <p>
+		 * Slabs are only accessed while the segment is locked, so they can be used directly without
+		 * allocating a duplicate per access.
+		 * </p>
+		 */
+		private ByteBuffer window(int chunk, int length) {
+			ByteBuffer slab = _slabs[_chunkSlab[chunk]];
+			int offset = _chunkOffset[chunk];
+			slab.limit(offset + length);
+			slab.position(offset);
+			return slab;
+		}
+
+		/**
+		 * Marks the given chunk as most recently used.
+		 */
+		private void touch(int chunk) {
+			unlink(chunk);
+			linkNewest(chunk);
+			_slabAccess[_chunkSlab[chunk]] = ++_clock;
+		}
+
+		/**
+		 * Finds a chunk for a new entry of the given size class.
+		 *
+		 * <p>
+		 * A size class without free chunks gets an idle or newly allocated slab. If no more slabs can
+		 * be allocated, it evicts its least recently used entry. A size class without any entries
+		 * would never get memory that way, it takes over the least recently used slab of another
+		 * size class instead.
+		 * </p>
+		 *
+		 * @return The chunk number, never {@link #NONE}.
+		 */
+		private int allocate(int sizeClass) {
+			if (_freeHead[sizeClass] == NONE) {
+				if (_idleCount > 0) {
+					assignSlab(_idleSlabs[--_idleCount], sizeClass);
+				} else if (_slabCount < _maxSlabs) {
+					assignSlab(allocateSlab(), sizeClass);
+				} else if (_lruOldest[sizeClass] == NONE) {
+					int victim = leastRecentlyUsedSlab();
+					releaseSlab(victim);
+					assignSlab(victim, sizeClass);
+				}
+			}
+
+			int chunk = _freeHead[sizeClass];
+			if (chunk != NONE) {
+				_freeHead[sizeClass] = _older[chunk];
+				return chunk;
+			}
+
+			chunk = _lruOldest[sizeClass];
+			evict(chunk);
+			return chunk;
+		}
+
+		private void evict(int chunk) {
+			unlink(chunk);
+			remove(chunk);
+			_count--;
+			_size -= _chunkLength[chunk];
+			_evictions.increment();
+		}
+
+		private int leastRecentlyUsedSlab() {
+			int result = 0;
+			for (int slab = 1; slab < _slabCount; slab++) {
+				if (_slabAccess[slab] < _slabAccess[result]) {
+					result = slab;
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Evicts all entries of the given slab and removes its free chunks from the free list of its
+		 * size class.
+		 */
+		private void releaseSlab(int slab) {
+			int sizeClass = _slabClass[slab];
+			int first = _slabFirst[slab];
+			int end = first + _slabSize / _chunkSizes[sizeClass];
+			for (int chunk = first; chunk < end; chunk++) {
+				if (lookup(_chunkKey[chunk]) == chunk) {
+					evict(chunk);
+				}
+			}
+
+			int free = _freeHead[sizeClass];
+			_freeHead[sizeClass] = NONE;
+			while (free != NONE) {
+				int next = _older[free];
+				if (_chunkSlab[free] != slab) {
+					_older[free] = _freeHead[sizeClass];
+					_freeHead[sizeClass] = free;
+				}
+				free = next;
+			}
+			_slabClass[slab] = NONE;
+		}
+
+		private int allocateSlab() {
+			if (_slabCount == _slabs.length) {
+				int capacity = _slabCount * 2;
+				_slabs = Arrays.copyOf(_slabs, capacity);
+				_slabClass = Arrays.copyOf(_slabClass, capacity);
+				_slabFirst = Arrays.copyOf(_slabFirst, capacity);
+				_slabReserved = Arrays.copyOf(_slabReserved, capacity);
+				_slabAccess = Arrays.copyOf(_slabAccess, capacity);
+				_idleSlabs = Arrays.copyOf(_idleSlabs, capacity);
+			}
+			int slab = _slabCount++;
+			_slabs[slab] = ByteBuffer.allocateDirect(_slabSize);
+			return slab;
+		}
+
+		/**
+		 * Divides the given unassigned slab into free chunks of the given size class.
+		 */
+		private void assignSlab(int slab, int sizeClass) {
+			int chunkSize = _chunkSizes[sizeClass];
+			int chunks = _slabSize / chunkSize;
+			if (chunks > _slabReserved[slab]) {
+				// The chunk numbers of a smaller range are dropped, the number of chunk numbers
+				// per slab is still limited by the smallest chunk size.
+				ensureChunkCapacity(_chunkCount + chunks);
+				_slabFirst[slab] = _chunkCount;
+				_slabReserved[slab] = chunks;
+				_chunkCount += chunks;
+			}
+
+			_slabClass[slab] = sizeClass;
+			_slabAccess[slab] = ++_clock;
+			int first = _slabFirst[slab];
+			for (int n = chunks - 1; n >= 0; n--) {
+				int chunk = first + n;
+				_chunkSlab[chunk] = slab;
+				_chunkOffset[chunk] = n * chunkSize;
+				_chunkClass[chunk] = sizeClass;
+				free(chunk);
+			}
+		}
+
+		private void free(int chunk) {
+			int sizeClass = _chunkClass[chunk];
+			_chunkKey[chunk] = 0;
+			_chunkLength[chunk] = 0;
+			_newer[chunk] = NONE;
+			_older[chunk] = _freeHead[sizeClass];
+			_freeHead[sizeClass] = chunk;
+		}
+
+		private void ensureChunkCapacity(int capacity) {
+			if (capacity <= _chunkKey.length) {
+				return;
+			}
+			int newCapacity = Math.max(capacity, _chunkKey.length * 2);
+			_chunkKey = Arrays.copyOf(_chunkKey, newCapacity);
+			_chunkLength = Arrays.copyOf(_chunkLength, newCapacity);
+			_chunkSlab = Arrays.copyOf(_chunkSlab, newCapacity);
+			_chunkOffset = Arrays.copyOf(_chunkOffset, newCapacity);
+			_chunkClass = Arrays.copyOf(_chunkClass, newCapacity);
+			_older = Arrays.copyOf(_older, newCapacity);
+			_newer = Arrays.copyOf(_newer, newCapacity);
+		}
+
+		private void linkNewest(int chunk) {
+			int sizeClass = _chunkClass[chunk];
+			int newest = _lruNewest[sizeClass];
+			_newer[chunk] = NONE;
+			_older[chunk] = newest;
+			if (newest == NONE) {
+				_lruOldest[sizeClass] = chunk;
+			} else {
+				_newer[newest] = chunk;
+			}
+			_lruNewest[sizeClass] = chunk;
+		}
+
+		private void unlink(int chunk) {
+			int sizeClass = _chunkClass[chunk];
+			int older = _older[chunk];
+			int newer = _newer[chunk];
+			if (older == NONE) {
+				_lruOldest[sizeClass] = newer;
+			} else {
+				_newer[older] = newer;
+			}
+			if (newer == NONE) {
+				_lruNewest[sizeClass] = older;
+			} else {
+				_older[newer] = older;
+			}
+		}
+
+		private int lookup(long entryKey) {
+			int mask = _table.length - 1;
+			for (int slot = slot(entryKey, mask); ; slot = (slot + 1) & mask) {
+				int ref = _table[slot];
+				if (ref == 0) {
+					return NONE;
+				}
+				if (_chunkKey[ref - 1] == entryKey) {
+					return ref - 1;
+				}
+			}
+		}
+
+		private void insert(int chunk) {
+			if ((_count + 1) * 2 > _table.length) {
+				rehash();
+			}
+			int mask = _table.length - 1;
+			int slot = slot(_chunkKey[chunk], mask);
+			while (_table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			_table[slot] = chunk + 1;
+		}
+
+		/**
+		 * Removes the given chunk from the index using backward shift deletion.
+		 */
+		private void remove(int chunk) {
+			int mask = _table.length - 1;
+			int slot = slot(_chunkKey[chunk], mask);
+			while (_table[slot] != chunk + 1) {
+				slot = (slot + 1) & mask;
+			}
+
+			int gap = slot;
+			for (int next = (gap + 1) & mask; _table[next] != 0; next = (next + 1) & mask) {
+				int home = slot(_chunkKey[_table[next] - 1], mask);
+
+				// Move the entry into the gap, if the gap lies between its home slot and its slot.
+				if (((next - home) & mask) >= ((next - gap) & mask)) {
+					_table[gap] = _table[next];
+					gap = next;
+				}
+			}
+			_table[gap] = 0;
+		}
+
+		private void rehash() {
+			int[] table = new int[_table.length * 2];
+			int mask = table.length - 1;
+			for (int ref : _table) {
+				if (ref != 0) {
+					int slot = slot(_chunkKey[ref - 1], mask);
+					while (table[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					table[slot] = ref;
+				}
+			}
+			_table = table;
+		}
+
+		private int slot(long entryKey, int mask) {
+			long hash = entryKey * 0xC2B2AE3D27D4EB4FL;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+	}
+
+	private static int[] filled(int length, int value) {
+		int[] result = new int[length];
+		Arrays.fill(result, value);
+		return result;
+	}
+
+}
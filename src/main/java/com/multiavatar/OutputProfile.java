@@ -0,0 +1,276 @@
+package com.multiavatar;
+
+/**
+ * Selects the variant of SVG code produced when rendering an {@link Avatar}.
+ *
+ * <p>
+ * {@link #DEFAULT} produces output that is byte-identical to the JavaScript library. A
+ * {@link #compact(int) compact} profile re-encodes the path data of all templates once, when the
+ * profile is first used: Numbers are rounded to a fixed number of decimals, and each path command
+ * is written in its shortest equivalent form. The rounding error is at most half a unit in the
+ * last kept decimal, in a coordinate system that is 231 units wide.
+ * </p>
+ *
+ * <p>
+ * A {@link #forSize(int) level-of-detail} profile additionally removes path detail that is too
+ * small to be seen when the avatar is displayed at a given size in pixels.
+ * </p>
+ *
+ * <p>
+ * Each profile has a {@link #withCssVariables() variant} that writes colors as references to CSS
+ * custom properties, so that the part geometry no longer depends on the theme.
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * String svgCode = Avatar.fromId("Binx Bond").render(OutputProfile.compact(), false);
+ * </pre>
+ */
+public final class OutputProfile {
+
+	/**
+	 * Output identical to the JavaScript library.
+	 */
+	public static final OutputProfile DEFAULT = new OutputProfile(-1, 0, FragmentTable.DEFAULT);
+
+	/**
+	 * The number of decimals used by {@link #compact()}.
+	 *
+	 * <p>
+	 * The rounding error of at most 0.05 units is about a tenth of a pixel, even when an avatar is
+	 * shown 512 pixels wide.
+	 * </p>
+	 */
+	public static final int COMPACT_PRECISION = 1;
+
+	/**
+	 * The largest number of decimals supported by {@link #compact(int)}.
+	 */
+	public static final int MAX_PRECISION = PathEncoder.MAX_PRECISION;
+
+	/**
+	 * The maximum deviation in pixels of outlines simplified by a {@link #forSize(int)
+	 * level-of-detail} profile from the original outlines.
+	 */
+	public static final double LOD_TOLERANCE = 0.25;
+
+	/**
+	 * The smallest display size a {@link #forSize(int) level-of-detail} profile is created for.
+	 */
+	public static final int MIN_LOD_SIZE = 16;
+
+	/**
+	 * The largest display size a {@link #forSize(int) level-of-detail} profile is created for,
+	 * larger avatars are rendered with {@link #DEFAULT}.
+	 */
+	public static final int MAX_LOD_SIZE = 1024;
+
+	/**
+	 * The width and height of the avatar view box in user units.
+	 */
+	private static final int VIEW_BOX_SIZE = 231;
+
+	private static final OutputProfile[] COMPACT = new OutputProfile[MAX_PRECISION + 1];
+
+	private static final OutputProfile[] LOD = new OutputProfile[Integer.numberOfTrailingZeros(MAX_LOD_SIZE / MIN_LOD_SIZE) + 1];
+
+	private final int _precision;
+
+	private final int _pixelSize;
+
+	private final FragmentTable _fragments;
+
+	/**
+	 * The result of {@link #withCssVariables()}, created on first use.
+	 */
+	private OutputProfile _withCssVariables;
+
+	private OutputProfile(int precision, int pixelSize, FragmentTable fragments) {
+		_precision = precision;
+		_pixelSize = pixelSize;
+		_fragments = fragments;
+	}
+
+	/**
+	 * The compact profile with {@link #COMPACT_PRECISION} decimals.
+	 */
+	public static OutputProfile compact() {
+		return compact(COMPACT_PRECISION);
+	}
+
+	/**
+	 * The compact profile keeping the given number of decimals in path data.
+	 *
+	 * <p>
+	 * Profiles are created on first use and shared.
+	 * </p>
+	 *
+	 * @param precision The number of decimals to keep (0-{@value #MAX_PRECISION}).
+	 */
+	public static OutputProfile compact(int precision) {
+		if (precision < 0 || precision > MAX_PRECISION) {
+			throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+		}
+		synchronized (COMPACT) {
+			OutputProfile result = COMPACT[precision];
+			if (result == null) {
+				result = new OutputProfile(precision, 0, FragmentTable.compact(precision));
+				COMPACT[precision] = result;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * The level-of-detail profile for avatars displayed with the given width in pixels.
+	 *
+	 * <p>
+	 * Curves that are visually straight at the given size are replaced by lines, and points of
+	 * polylines that do not change the outline by more than {@value #LOD_TOLERANCE} pixels are
+	 * dropped. Numbers are rounded to the fewest decimals that keep the total deviation within
+	 * this tolerance.
+	 * </p>
+	 *
+	 * <p>
+	 * Sizes are rounded up to the next power of two, so that only a few profiles are created, each
+	 * on first use. For sizes above {@value #MAX_LOD_SIZE}, the result is {@link #DEFAULT}.
+	 * </p>
+	 *
+	 * @param pixelSize The width of the displayed avatar in pixels.
+	 */
+	public static OutputProfile forSize(int pixelSize) {
+		if (pixelSize <= 0) {
+			throw new IllegalArgumentException("Pixel size must be positive: " + pixelSize);
+		}
+		if (pixelSize > MAX_LOD_SIZE) {
+			return DEFAULT;
+		}
+		int level = Math.max(MIN_LOD_SIZE, Integer.highestOneBit(pixelSize - 1) << 1);
+		int index = Integer.numberOfTrailingZeros(level / MIN_LOD_SIZE);
+		synchronized (LOD) {
+			OutputProfile result = LOD[index];
+			if (result == null) {
+				// The allowed deviation in user units is shared between simplification and rounding.
+				double tolerance = LOD_TOLERANCE * VIEW_BOX_SIZE / level;
+				int precision = 0;
+				while (precision < MAX_PRECISION && roundingError(precision) > tolerance / 2) {
+					precision++;
+				}
+				double simplification = tolerance - roundingError(precision);
+				result = new OutputProfile(precision, level, FragmentTable.simplified(precision, simplification));
+				LOD[index] = result;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * {@link #DEFAULT} output with colors supplied by CSS custom properties.
+	 *
+	 * @see #withCssVariables()
+	 */
+	public static OutputProfile cssVariables() {
+		return DEFAULT.withCssVariables();
+	}
+
+	/**
+	 * The variant of this profile that writes each color as a reference to a CSS custom property.
+	 *
+	 * <p>
+	 * The color with index <code>n</code> of a part is written as <code>var(--ma-clo-n)</code>,
+	 * where <code>clo</code> is the lower-case {@link AvatarPart} name. Additional declarations
+	 * that some themes attach to a color, e.g. an opacity, get their own property like
+	 * <code>--ma-eyes-1-opacity</code>. A rendered avatar defines
+	 * its colors in a <code>style</code> attribute of the <code>svg</code> element, see
+	 * {@link Avatar#renderColorStyle(boolean)}. The part geometry is the same for all three themes
+	 * of a character, so that it can be served as static content, e.g. by an {@link AvatarSheet}.
+	 * </p>
+	 */
+	public OutputProfile withCssVariables() {
+		if (hasCssVariables()) {
+			return this;
+		}
+		synchronized (this) {
+			if (_withCssVariables == null) {
+				_withCssVariables = new OutputProfile(_precision, _pixelSize, _fragments.withVariables());
+			}
+			return _withCssVariables;
+		}
+	}
+
+	/**
+	 * Whether colors are written as references to CSS custom properties.
+	 *
+	 * @see #withCssVariables()
+	 */
+	public boolean hasCssVariables() {
+		return _fragments.hasVariables();
+	}
+
+	private static double roundingError(int precision) {
+		return 0.5 * Math.pow(10, -precision);
+	}
+
+	/**
+	 * Whether this profile re-encodes path data.
+	 */
+	public boolean isCompact() {
+		return _precision >= 0;
+	}
+
+	/**
+	 * The display size in pixels this profile removes detail for, or <code>0</code> if all detail
+	 * is kept.
+	 */
+	public int getPixelSize() {
+		return _pixelSize;
+	}
+
+	/**
+	 * The number of decimals kept in path data, or <code>-1</code> if path data is written
+	 * unchanged.
+	 */
+	public int getPrecision() {
+		return _precision;
+	}
+
+	/**
+	 * The number of bytes this profile saves in the six parts of the given character, compared to
+	 * {@link #DEFAULT}.
+	 *
+	 * <p>
+	 * This is the saving for a {@link Avatar#pure(CharacterType, Theme) pure} avatar of the given
+	 * character, the theme does not affect it.
+	 * </p>
+	 */
+	public int getSavedBytes(CharacterType character) {
+		int nr = Coordinate.coordinate(character, Theme.A).getPartNumber();
+		int result = 0;
+		for (AvatarPart part : AvatarPart.values()) {
+			result += FragmentTable.DEFAULT.get(nr, part).byteLength() - _fragments.get(nr, part).byteLength();
+		}
+		return result;
+	}
+
+	/**
+	 * The fragments rendered in this profile.
+	 */
+	FragmentTable fragments() {
+		return _fragments;
+	}
+
+	@Override
+	public String toString() {
+		String result;
+		if (_pixelSize > 0) {
+			result = "lod(" + _pixelSize + ")";
+		} else {
+			result = isCompact() ? "compact(" + _precision + ")" : "default";
+		}
+		return hasCssVariables() ? result + "+css" : result;
+	}
+
+}
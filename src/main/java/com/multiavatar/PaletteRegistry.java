@@ -0,0 +1,224 @@
+package com.multiavatar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.multiavatar.SvgData.Template;
+
+/**
+ * Named color palettes in addition to the built-in {@link Theme}s, e.g. brand or dark-mode colors.
+ *
+ * <p>
+ * A palette is registered per character. Registering colors the templates of the character once,
+ * so an avatar renders in a custom palette with the same array lookups as in its own themes. When
+ * rendering an avatar in a palette, each part of a character that is registered for the palette
+ * uses the palette colors, all other parts keep the colors of their own theme.
+ * </p>
+ *
+ * <pre>
+ * PaletteRegistry palettes = new PaletteRegistry();
+ * Map&lt;AvatarPart, String[]&gt; dark = new EnumMap&lt;&gt;(AvatarPart.class);
+ * dark.put(AvatarPart.ENV, new String[] {"#202020"});
+ * for (CharacterType character : CharacterType.values()) {
+ *     palettes.register("dark", character, Theme.A, dark);
+ * }
+ * String svg = palettes.render(Avatar.fromId("Binx Bond"), "dark", false);
+ * </pre>
+ *
+ * <p>
+ * Palettes color the {@link TemplatePack#builtIn() built-in} templates and render the default
+ * output. Packs installed in a {@link TemplateRegistry} and {@link OutputProfile}s do not apply to
+ * palettes.
+ * </p>
+ *
+ * <p>
+ * The registry is thread-safe. Rendering does not lock, registering replaces the fragments of a
+ * palette with an updated copy.
+ * </p>
+ */
+public final class PaletteRegistry {
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	/**
+	 * A color value as in the theme data: a hex color, a color keyword or function, optionally
+	 * followed by further style declarations, e.g. <code>#1df7ff;opacity:0.64</code>. Excludes
+	 * everything that could end the <code>style</code> attribute or start markup.
+	 */
+	private static final Pattern COLOR = Pattern.compile("(?:#?[a-zA-Z0-9]+|[a-zA-Z]+\\([0-9., %]+\\))(?:;[a-zA-Z-]+:[-#a-zA-Z0-9., %()]+)*");
+
+	/**
+	 * For each palette name, the fragments by character ordinal times the number of parts plus the
+	 * part ordinal, <code>null</code> for characters not registered.
+	 */
+	private final Map<String, Fragment[]> _palettes = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers colors for the given character in the given palette.
+	 *
+	 * <p>
+	 * A previous registration of the character in the palette is replaced.
+	 * </p>
+	 *
+	 * @param name The name of the palette
+	 * @param character The character to register the colors for
+	 * @param base The theme providing the colors of the parts not given
+	 * @param colors The values for the color placeholders of the templates of the character by part,
+	 *        in the same form as the theme colors, e.g. <code>#1df7ff;opacity:0.64</code>
+	 * @throws IllegalArgumentException If fewer colors are given than the template of a part uses,
+	 *         or a value is not a color with optional style declarations
+	 */
+	public synchronized void register(String name, CharacterType character, Theme base, Map<AvatarPart, String[]> colors) {
+		if (name == null || name.isEmpty()) {
+			throw new IllegalArgumentException("Palette name must not be empty.");
+		}
+
+		Fragment[] fragments = new Fragment[PARTS.length];
+		ThemeData.Colors theme = ThemeData.getCharacterThemes(character).getTheme(base);
+		StringBuilder buffer = new StringBuilder();
+		for (AvatarPart part : PARTS) {
+			Template template = SvgData.getSvgTemplate(character, part);
+			String[] values = colors.get(part);
+			if (values == null) {
+				values = theme.getColors(part);
+			} else if (values.length < template.getParamCount()) {
+				throw new IllegalArgumentException("The " + part + " of " + character + " requires " + template.getParamCount() + " colors, got " + values.length + ".");
+			} else {
+				for (String value : values) {
+					if (value == null || !COLOR.matcher(value).matches()) {
+						throw new IllegalArgumentException("Invalid color for the " + part + " of " + character + ": " + value);
+					}
+				}
+			}
+
+			buffer.setLength(0);
+			template.render(buffer, values);
+			fragments[part.ordinal()] = new Fragment(buffer.toString());
+		}
+
+		Fragment[] previous = _palettes.get(name);
+		Fragment[] palette = previous != null ? previous.clone() : new Fragment[CharacterType.COUNT * PARTS.length];
+		System.arraycopy(fragments, 0, palette, character.ordinal() * PARTS.length, PARTS.length);
+		_palettes.put(name, palette);
+	}
+
+	/**
+	 * Removes the palette with the given name.
+	 *
+	 * @return Whether the palette was registered
+	 */
+	public synchronized boolean unregister(String name) {
+		return _palettes.remove(name) != null;
+	}
+
+	/**
+	 * The names of all registered palettes.
+	 */
+	public Set<String> getPaletteNames() {
+		return Collections.unmodifiableSet(new TreeSet<>(_palettes.keySet()));
+	}
+
+	/**
+	 * Whether colors for the given character are registered in the given palette.
+	 */
+	public boolean isRegistered(String name, CharacterType character) {
+		Fragment[] palette = _palettes.get(name);
+		return palette != null && palette[character.ordinal() * PARTS.length] != null;
+	}
+
+	/**
+	 * Renders the given avatar in the given palette.
+	 *
+	 * @param avatar The {@link Avatar} to render
+	 * @param name The name of a registered palette
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The complete SVG code as a string
+	 * @throws IllegalArgumentException If no palette with the given name is registered
+	 */
+	public String render(Avatar avatar, String name, boolean sansEnv) {
+		Fragment[] palette = palette(name);
+
+		StringBuilder result = new StringBuilder(renderedLength(avatar, palette, sansEnv));
+		result.append(Fragment.SVG_START.text());
+
+		// Add generator attribution (fulfills license requirement)
+		result.append(Fragment.METADATA.text());
+
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			result.append(fragment(avatar, palette, part).text());
+		}
+
+		result.append(Fragment.SVG_END.text());
+		return result.toString();
+	}
+
+	/**
+	 * Writes the UTF-8 encoded SVG of the given avatar in the given palette to the given stream.
+	 *
+	 * @param out The stream to write to
+	 * @param avatar The {@link Avatar} to render
+	 * @param name The name of a registered palette
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the stream fails
+	 * @throws IllegalArgumentException If no palette with the given name is registered
+	 * @see #render(Avatar, String, boolean)
+	 */
+	public void renderTo(OutputStream out, Avatar avatar, String name, boolean sansEnv) throws IOException {
+		Fragment[] palette = palette(name);
+
+		out.write(Fragment.SVG_START.utf8());
+		out.write(Fragment.METADATA.utf8());
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			out.write(fragment(avatar, palette, part).utf8());
+		}
+		out.write(Fragment.SVG_END.utf8());
+	}
+
+	private Fragment[] palette(String name) {
+		Fragment[] result = _palettes.get(name);
+		if (result == null) {
+			throw new IllegalArgumentException("No such palette: " + name);
+		}
+		return result;
+	}
+
+	private static int renderedLength(Avatar avatar, Fragment[] palette, boolean sansEnv) {
+		int result = Fragment.SVG_START.length() + Fragment.METADATA.length() + Fragment.SVG_END.length();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			result += fragment(avatar, palette, part).length();
+		}
+		return result;
+	}
+
+	/**
+	 * The fragment for the given part of the given avatar, in the palette if its character is
+	 * registered, in its own theme otherwise.
+	 */
+	private static Fragment fragment(Avatar avatar, Fragment[] palette, AvatarPart part) {
+		Coordinate coordinate = avatar.getValue(part);
+		Fragment result = palette[coordinate.character.ordinal() * PARTS.length + part.ordinal()];
+		if (result == null) {
+			result = FragmentTable.DEFAULT.get(coordinate, part);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,525 @@
+package com.multiavatar;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser and compact encoder for SVG path data.
+ *
+ * <p>
+ * Path data is parsed into {@link Segment}s with absolute coordinates. The encoder writes each
+ * segment in its shortest form: absolute or relative coordinates, whichever is shorter,
+ * <code>H</code>/<code>V</code> for horizontal and vertical lines, repeated command letters
+ * omitted, numbers rounded to a fixed number of decimals without leading or trailing zeros, and
+ * separators only where needed.
+ * </p>
+ *
+ * <p>
+ * Relative coordinates are computed from the rounded position a renderer arrives at, so rounding
+ * errors do not add up along a path.
+ * </p>
+ */
+final class PathEncoder {
+
+	/**
+	 * The largest supported number of decimals.
+	 */
+	static final int MAX_PRECISION = 6;
+
+	private static final Pattern PATH_DATA = Pattern.compile("(\\sd=\")([^\"]*)(\")");
+
+	/**
+	 * A single path command with absolute coordinates.
+	 *
+	 * <p>
+	 * The command is one of <code>M L C S Q T A Z</code>. Horizontal and vertical lines are
+	 * represented as <code>L</code> with both coordinates. The values are the parameters of the
+	 * absolute form of the command.
+	 * </p>
+	 */
+	static final class Segment {
+
+		final char command;
+
+		final double[] values;
+
+		Segment(char command, double... values) {
+			this.command = command;
+			this.values = values;
+		}
+
+		/**
+		 * The x coordinate of the end point.
+		 */
+		double x() {
+			return values[values.length - 2];
+		}
+
+		/**
+		 * The y coordinate of the end point.
+		 */
+		double y() {
+			return values[values.length - 1];
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder result = new StringBuilder().append(command);
+			for (double value : values) {
+				result.append(' ').append(value);
+			}
+			return result.toString();
+		}
+	}
+
+	private PathEncoder() {
+		// Static utility.
+	}
+
+	/**
+	 * Re-encodes the data of all <code>path</code> elements in the given SVG code.
+	 *
+	 * @param svg The SVG code.
+	 * @param precision The number of decimals to keep.
+	 * @return The SVG code with compact path data.
+	 */
+	static String compactSvg(String svg, int precision) {
+		return compactSvg(svg, precision, 0);
+	}
+
+	/**
+	 * Re-encodes the data of all <code>path</code> elements in the given SVG code after removing
+	 * detail below the given tolerance, see {@link PathSimplifier}.
+	 *
+	 * @param svg The SVG code.
+	 * @param precision The number of decimals to keep.
+	 * @param tolerance The maximum deviation of the simplified outline in user units,
+	 *        <code>0</code> to keep all segments.
+	 * @return The SVG code with compact path data.
+	 */
+	static String compactSvg(String svg, int precision, double tolerance) {
+		Matcher matcher = PATH_DATA.matcher(svg);
+		StringBuffer result = new StringBuffer(svg.length());
+		while (matcher.find()) {
+			List<Segment> segments = parse(matcher.group(2));
+			if (tolerance > 0) {
+				segments = PathSimplifier.simplify(segments, tolerance);
+			}
+			String data = encode(segments, precision);
+			matcher.appendReplacement(result, Matcher.quoteReplacement(matcher.group(1) + data + matcher.group(3)));
+		}
+		matcher.appendTail(result);
+		return result.toString();
+	}
+
+	/**
+	 * Parses SVG path data.
+	 *
+	 * @throws IllegalArgumentException If the path data is malformed.
+	 */
+	static List<Segment> parse(CharSequence data) {
+		return new Parser(data).parse();
+	}
+
+	/**
+	 * Writes the given segments as compact path data.
+	 *
+	 * @param segments The segments to encode.
+	 * @param precision The number of decimals to keep (0-{@value #MAX_PRECISION}).
+	 */
+	static String encode(List<Segment> segments, int precision) {
+		if (precision < 0 || precision > MAX_PRECISION) {
+			throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+		}
+		return new Encoder(precision).encode(segments);
+	}
+
+	private static final class Parser {
+
+		private final CharSequence _data;
+
+		private int _pos;
+
+		Parser(CharSequence data) {
+			_data = data;
+		}
+
+		List<Segment> parse() {
+			List<Segment> result = new ArrayList<>();
+			double x = 0;
+			double y = 0;
+			double startX = 0;
+			double startY = 0;
+			char command = 0;
+			while (skipSeparators()) {
+				char c = _data.charAt(_pos);
+				if (Character.isLetter(c)) {
+					command = c;
+					_pos++;
+				} else if (command == 0 || command == 'z' || command == 'Z') {
+					throw error("Command expected");
+				}
+
+				boolean relative = Character.isLowerCase(command);
+				double dx = relative ? x : 0;
+				double dy = relative ? y : 0;
+				Segment segment;
+				switch (Character.toUpperCase(command)) {
+					case 'Z':
+						segment = new Segment('Z');
+						x = startX;
+						y = startY;
+						break;
+					case 'M':
+						segment = new Segment('M', dx + number(), dy + number());
+						startX = segment.x();
+						startY = segment.y();
+
+						// Further coordinate pairs are implicit line commands.
+						command = relative ? 'l' : 'L';
+						break;
+					case 'L':
+						segment = new Segment('L', dx + number(), dy + number());
+						break;
+					case 'H':
+						segment = new Segment('L', dx + number(), y);
+						break;
+					case 'V':
+						segment = new Segment('L', x, dy + number());
+						break;
+					case 'C':
+						segment = new Segment('C', dx + number(), dy + number(), dx + number(), dy + number(), dx + number(), dy + number());
+						break;
+					case 'S':
+						segment = new Segment('S', dx + number(), dy + number(), dx + number(), dy + number());
+						break;
+					case 'Q':
+						segment = new Segment('Q', dx + number(), dy + number(), dx + number(), dy + number());
+						break;
+					case 'T':
+						segment = new Segment('T', dx + number(), dy + number());
+						break;
+					case 'A':
+						segment = new Segment('A', number(), number(), number(), flag(), flag(), dx + number(), dy + number());
+						break;
+					default:
+						throw error("Unknown command '" + command + "'");
+				}
+				if (segment.command != 'Z') {
+					x = segment.x();
+					y = segment.y();
+				}
+				result.add(segment);
+			}
+			return result;
+		}
+
+		/**
+		 * Skips whitespace and commas.
+		 *
+		 * @return Whether there is more input.
+		 */
+		private boolean skipSeparators() {
+			while (_pos < _data.length()) {
+				char c = _data.charAt(_pos);
+				if (c != ',' && !Character.isWhitespace(c)) {
+					return true;
+				}
+				_pos++;
+			}
+			return false;
+		}
+
+		private double number() {
+			skipSeparators();
+			int start = _pos;
+			if (_pos < _data.length() && (_data.charAt(_pos) == '-' || _data.charAt(_pos) == '+')) {
+				_pos++;
+			}
+			int digits = skipDigits();
+			if (_pos < _data.length() && _data.charAt(_pos) == '.') {
+				_pos++;
+				digits += skipDigits();
+			}
+			if (digits == 0) {
+				throw error("Number expected");
+			}
+			if (_pos < _data.length() && (_data.charAt(_pos) == 'e' || _data.charAt(_pos) == 'E')) {
+				_pos++;
+				if (_pos < _data.length() && (_data.charAt(_pos) == '-' || _data.charAt(_pos) == '+')) {
+					_pos++;
+				}
+				if (skipDigits() == 0) {
+					throw error("Exponent expected");
+				}
+			}
+			return Double.parseDouble(_data.subSequence(start, _pos).toString());
+		}
+
+		private int skipDigits() {
+			int start = _pos;
+			while (_pos < _data.length() && Character.isDigit(_data.charAt(_pos))) {
+				_pos++;
+			}
+			return _pos - start;
+		}
+
+		private double flag() {
+			skipSeparators();
+			if (_pos < _data.length()) {
+				char c = _data.charAt(_pos);
+				if (c == '0' || c == '1') {
+					_pos++;
+					return c - '0';
+				}
+			}
+			throw error("Flag expected");
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position " + _pos + " of path: " + _data);
+		}
+	}
+
+	private static final class Encoder {
+
+		private final int _precision;
+
+		private final StringBuilder _out = new StringBuilder();
+
+		/**
+		 * The last command letter written, or the command implied by it.
+		 */
+		private char _command;
+
+		/**
+		 * The current point as seen by a renderer of the output.
+		 */
+		private double _x;
+
+		private double _y;
+
+		private double _startX;
+
+		private double _startY;
+
+		Encoder(int precision) {
+			_precision = precision;
+		}
+
+		String encode(List<Segment> segments) {
+			boolean first = true;
+			for (Segment segment : segments) {
+				double[] v = segment.values;
+				switch (segment.command) {
+					case 'Z':
+						write('z', "z");
+						_x = _startX;
+						_y = _startY;
+						break;
+					case 'M':
+						if (first) {
+							// An initial relative move is absolute.
+							write('M', candidate('M', v[0], v[1]));
+							_x = round(v[0]);
+							_y = round(v[1]);
+						} else {
+							point('M', v[0], v[1]);
+						}
+						_startX = _x;
+						_startY = _y;
+						break;
+					case 'L':
+						line(v[0], v[1]);
+						break;
+					case 'A':
+						arc(v);
+						break;
+					default:
+						curve(segment.command, v);
+						break;
+				}
+				first = false;
+			}
+			return _out.toString();
+		}
+
+		private void line(double x, double y) {
+			double dx = round(x - _x);
+			double dy = round(y - _y);
+			if (dy == 0) {
+				String absolute = candidate('H', x);
+				String relative = candidate('h', x - _x);
+				if (absolute.length() < relative.length()) {
+					write('H', absolute);
+					_x = round(x);
+				} else {
+					write('h', relative);
+					_x += dx;
+				}
+			} else if (dx == 0) {
+				String absolute = candidate('V', y);
+				String relative = candidate('v', y - _y);
+				if (absolute.length() < relative.length()) {
+					write('V', absolute);
+					_y = round(y);
+				} else {
+					write('v', relative);
+					_y += dy;
+				}
+			} else {
+				point('L', x, y);
+			}
+		}
+
+		/**
+		 * Writes a command with a single end point.
+		 */
+		private void point(char command, double x, double y) {
+			String absolute = candidate(command, x, y);
+			String relative = candidate(Character.toLowerCase(command), x - _x, y - _y);
+			if (absolute.length() < relative.length()) {
+				write(command, absolute);
+				_x = round(x);
+				_y = round(y);
+			} else {
+				write(Character.toLowerCase(command), relative);
+				_x += round(x - _x);
+				_y += round(y - _y);
+			}
+		}
+
+		/**
+		 * Writes a command whose parameters are all points.
+		 */
+		private void curve(char command, double[] v) {
+			double[] offset = new double[v.length];
+			for (int n = 0; n < v.length; n += 2) {
+				offset[n] = v[n] - _x;
+				offset[n + 1] = v[n + 1] - _y;
+			}
+			String absolute = candidate(command, v);
+			String relative = candidate(Character.toLowerCase(command), offset);
+			if (absolute.length() < relative.length()) {
+				write(command, absolute);
+				_x = round(v[v.length - 2]);
+				_y = round(v[v.length - 1]);
+			} else {
+				write(Character.toLowerCase(command), relative);
+				_x += round(offset[v.length - 2]);
+				_y += round(offset[v.length - 1]);
+			}
+		}
+
+		private void arc(double[] v) {
+			double dx = v[5] - _x;
+			double dy = v[6] - _y;
+			String absolute = candidate('A', v);
+			String relative = candidate('a', v[0], v[1], v[2], v[3], v[4], dx, dy);
+			if (absolute.length() < relative.length()) {
+				write('A', absolute);
+				_x = round(v[5]);
+				_y = round(v[6]);
+			} else {
+				write('a', relative);
+				_x += round(dx);
+				_y += round(dy);
+			}
+		}
+
+		/**
+		 * Formats a command as it would be appended to the current output.
+		 */
+		private String candidate(char command, double... values) {
+			StringBuilder result = new StringBuilder();
+			boolean afterNumber;
+			boolean afterDecimals;
+			if (implied(command)) {
+				afterNumber = endsWithNumber(_out);
+				afterDecimals = afterNumber && lastNumberHasDecimals(_out);
+			} else {
+				result.append(command);
+				afterNumber = false;
+				afterDecimals = false;
+			}
+			for (double value : values) {
+				String number = format(value);
+				boolean separate = afterNumber && number.charAt(0) != '-' && !(number.charAt(0) == '.' && afterDecimals);
+				if (separate) {
+					result.append(' ');
+				}
+				result.append(number);
+				afterNumber = true;
+				afterDecimals = number.indexOf('.') >= 0;
+			}
+			return result.toString();
+		}
+
+		/**
+		 * Whether the given command is implied by the last one and need not be written.
+		 */
+		private boolean implied(char command) {
+			if (_command == command) {
+				return command != 'M' && command != 'm' && command != 'z';
+			}
+			return (_command == 'M' && command == 'L') || (_command == 'm' && command == 'l');
+		}
+
+		private void write(char command, String candidate) {
+			_out.append(candidate);
+			_command = command;
+		}
+
+		private double round(double value) {
+			return decimal(value).doubleValue();
+		}
+
+		private BigDecimal decimal(double value) {
+			return BigDecimal.valueOf(value).setScale(_precision, RoundingMode.HALF_UP);
+		}
+
+		/**
+		 * Shortest text of the given value rounded to the precision.
+		 */
+		private String format(double value) {
+			BigDecimal rounded = decimal(value);
+			if (rounded.signum() == 0) {
+				return "0";
+			}
+			String result = rounded.stripTrailingZeros().toPlainString();
+			if (result.startsWith("0.")) {
+				return result.substring(1);
+			}
+			if (result.startsWith("-0.")) {
+				return "-" + result.substring(2);
+			}
+			return result;
+		}
+
+		private static boolean endsWithNumber(CharSequence out) {
+			if (out.length() == 0) {
+				return false;
+			}
+			char last = out.charAt(out.length() - 1);
+			return Character.isDigit(last) || last == '.';
+		}
+
+		private static boolean lastNumberHasDecimals(CharSequence out) {
+			for (int n = out.length() - 1; n >= 0; n--) {
+				char c = out.charAt(n);
+				if (c == '.') {
+					return true;
+				}
+				if (!Character.isDigit(c)) {
+					return false;
+				}
+			}
+			return false;
+		}
+	}
+
+}
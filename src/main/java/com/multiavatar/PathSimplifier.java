@@ -0,0 +1,242 @@
+package com.multiavatar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.multiavatar.PathEncoder.Segment;
+
+/**
+ * Removes detail from parsed path data that is smaller than a given tolerance.
+ *
+ * <p>
+ * Curves whose control points all lie within the tolerance of the straight line between their end
+ * points are replaced by lines, and each run of consecutive lines is thinned with the
+ * Ramer-Douglas-Peucker algorithm. Since a curve lies within the convex hull of its control points,
+ * no point of the simplified path is further than the tolerance from the original outline.
+ * </p>
+ */
+final class PathSimplifier {
+
+	private final double _tolerance;
+
+	private final List<Segment> _result = new ArrayList<>();
+
+	/**
+	 * Points of the current run of lines, starting with the point the run starts from.
+	 */
+	private final List<double[]> _run = new ArrayList<>();
+
+	private PathSimplifier(double tolerance) {
+		_tolerance = tolerance;
+	}
+
+	/**
+	 * Simplifies the given path.
+	 *
+	 * @param segments The parsed path data, see {@link PathEncoder#parse(CharSequence)}.
+	 * @param tolerance The maximum deviation from the original outline in user units.
+	 * @return Equivalent segments with detail below the tolerance removed.
+	 */
+	static List<Segment> simplify(List<Segment> segments, double tolerance) {
+		if (tolerance < 0) {
+			throw new IllegalArgumentException("Tolerance must not be negative: " + tolerance);
+		}
+		return new PathSimplifier(tolerance).run(segments);
+	}
+
+	private List<Segment> run(List<Segment> segments) {
+		double x = 0;
+		double y = 0;
+		double startX = 0;
+		double startY = 0;
+
+		// The control point a following S or T command reflects at the current point.
+		double controlX = 0;
+		double controlY = 0;
+		char lastCurve = 0;
+
+		// Whether the last segment written is the unchanged curve that a following shorthand
+		// command refers to.
+		boolean curveKept = false;
+
+		for (Segment segment : segments) {
+			double[] v = segment.values;
+			char command = segment.command;
+			double[] control = null;
+			switch (command) {
+				case 'S':
+					control = reflect(lastCurve == 'C', x, y, controlX, controlY);
+					break;
+				case 'T':
+					control = reflect(lastCurve == 'Q', x, y, controlX, controlY);
+					break;
+				default:
+					break;
+			}
+
+			char nextCurve = 0;
+			boolean nextKept = false;
+			switch (command) {
+				case 'M':
+					flush();
+					_result.add(segment);
+					startX = segment.x();
+					startY = segment.y();
+					break;
+				case 'Z':
+					flush();
+					_result.add(segment);
+					break;
+				case 'L':
+					line(x, y, v[0], v[1]);
+					break;
+				case 'A':
+					if (segment.x() == x && segment.y() == y) {
+						// An arc ending at its start point is not drawn.
+						continue;
+					}
+					flush();
+					_result.add(segment);
+					break;
+				case 'C':
+				case 'S': {
+					double c1x = command == 'C' ? v[0] : control[0];
+					double c1y = command == 'C' ? v[1] : control[1];
+					double c2x = v[v.length - 4];
+					double c2y = v[v.length - 3];
+					if (isFlat(x, y, segment.x(), segment.y(), c1x, c1y, c2x, c2y)) {
+						line(x, y, segment.x(), segment.y());
+					} else {
+						flush();
+						if (command == 'S' && !curveKept) {
+							segment = new Segment('C', c1x, c1y, c2x, c2y, segment.x(), segment.y());
+						}
+						_result.add(segment);
+						nextKept = true;
+					}
+					nextCurve = 'C';
+					controlX = c2x;
+					controlY = c2y;
+					break;
+				}
+				case 'Q':
+				case 'T': {
+					double cx = command == 'Q' ? v[0] : control[0];
+					double cy = command == 'Q' ? v[1] : control[1];
+					if (isFlat(x, y, segment.x(), segment.y(), cx, cy, cx, cy)) {
+						line(x, y, segment.x(), segment.y());
+					} else {
+						flush();
+						if (command == 'T' && !curveKept) {
+							segment = new Segment('Q', cx, cy, segment.x(), segment.y());
+						}
+						_result.add(segment);
+						nextKept = true;
+					}
+					nextCurve = 'Q';
+					controlX = cx;
+					controlY = cy;
+					break;
+				}
+				default:
+					throw new IllegalArgumentException("Unknown command '" + command + "'");
+			}
+			lastCurve = nextCurve;
+			curveKept = nextKept;
+
+			if (command == 'Z') {
+				x = startX;
+				y = startY;
+			} else {
+				x = segment.x();
+				y = segment.y();
+			}
+		}
+		flush();
+		return _result;
+	}
+
+	private static double[] reflect(boolean afterCurve, double x, double y, double controlX, double controlY) {
+		if (afterCurve) {
+			return new double[] {2 * x - controlX, 2 * y - controlY};
+		}
+		return new double[] {x, y};
+	}
+
+	private boolean isFlat(double x0, double y0, double x1, double y1, double c1x, double c1y, double c2x, double c2y) {
+		return distance(c1x, c1y, x0, y0, x1, y1) <= _tolerance && distance(c2x, c2y, x0, y0, x1, y1) <= _tolerance;
+	}
+
+	private void line(double x0, double y0, double x1, double y1) {
+		if (_run.isEmpty()) {
+			_run.add(new double[] {x0, y0});
+		}
+		_run.add(new double[] {x1, y1});
+	}
+
+	/**
+	 * Writes the pending run of lines.
+	 */
+	private void flush() {
+		int size = _run.size();
+		if (size == 0) {
+			return;
+		}
+
+		boolean[] keep = new boolean[size];
+		keep[size - 1] = true;
+		thin(keep, 0, size - 1);
+		for (int n = 1; n < size; n++) {
+			if (keep[n]) {
+				double[] point = _run.get(n);
+				_result.add(new Segment('L', point[0], point[1]));
+			}
+		}
+		_run.clear();
+	}
+
+	/**
+	 * Marks the points between the given indices that must be kept.
+	 */
+	private void thin(boolean[] keep, int first, int last) {
+		if (last - first < 2) {
+			return;
+		}
+		double[] a = _run.get(first);
+		double[] b = _run.get(last);
+		int farthest = -1;
+		double max = _tolerance;
+		for (int n = first + 1; n < last; n++) {
+			double[] p = _run.get(n);
+			double d = distance(p[0], p[1], a[0], a[1], b[0], b[1]);
+			if (d > max) {
+				max = d;
+				farthest = n;
+			}
+		}
+		if (farthest >= 0) {
+			keep[farthest] = true;
+			thin(keep, first, farthest);
+			thin(keep, farthest, last);
+		}
+	}
+
+	/**
+	 * The distance of point p to the line segment from a to b.
+	 */
+	static double distance(double px, double py, double ax, double ay, double bx, double by) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double length2 = dx * dx + dy * dy;
+		double t = length2 == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / length2;
+		if (t < 0) {
+			t = 0;
+		} else if (t > 1) {
+			t = 1;
+		}
+		double ex = px - (ax + t * dx);
+		double ey = py - (ay + t * dy);
+		return Math.sqrt(ex * ex + ey * ey);
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.multiavatar;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link AvatarCodec} storing the UTF-8 encoded SVG code unchanged.
+ *
+ * @see AvatarCodec#PLAIN
+ */
+final class PlainAvatarCodec implements AvatarCodec {
+
+	PlainAvatarCodec() {
+		// Singleton, see AvatarCodec.PLAIN.
+	}
+
+	@Override
+	public String name() {
+		return "plain";
+	}
+
+	@Override
+	public byte[] encode(byte[] svg) {
+		return svg;
+	}
+
+	@Override
+	public ByteBuffer decode(ByteBuffer data) {
+		return data;
+	}
+
+	@Override
+	public String toString() {
+		return name();
+	}
+
+}
@@ -0,0 +1,815 @@
+package com.multiavatar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.multiavatar.SvgData.Template;
+
+/**
+ * The art of all characters in a compact binary format: templates, theme colors and UTF-8 encoded
+ * SVG code.
+ *
+ * <p>
+ * A pack is read in place from a (memory-mapped) buffer. Rendering copies pre-encoded byte ranges
+ * from the buffer and neither parses nor decodes anything. The built-in art is shipped as the
+ * {@link #builtIn() default pack}. Other art sets are created with a {@link Builder}, written to a
+ * file and {@link #map(Path) mapped} at runtime, without a new release of the library.
+ * </p>
+ *
+ * <p>
+ * All numbers are big-endian. A pack consists of:
+ * </p>
+ *
+ * <ol>
+ * <li>A header of 40 bytes: the magic number <code>MAVP</code>, the format version, the 64-bit
+ * {@link #getVersion() pack version}, the number of characters (16), themes (3) and parts (6), and
+ * the offset and length of the string arena, followed by 4 reserved bytes.</li>
+ * <li>The template table: for each character and part (in ordinal order), the offset and number
+ * of its segment records.</li>
+ * <li>The color table: for each character, theme and part, the offset and number of its color
+ * records.</li>
+ * <li>Segment records of 12 bytes each: the color index of a placeholder or <code>-1</code> for
+ * constant SVG code, followed by the offset and length of its source in the string arena.</li>
+ * <li>Color records of 8 bytes each: offset and length of the color in the string arena.</li>
+ * <li>The string arena: UTF-8 encoded SVG code and colors, each distinct string stored once.</li>
+ * </ol>
+ *
+ * <p>
+ * A pack is immutable and can be used by any number of threads.
+ * </p>
+ */
+public final class TemplatePack {
+
+	private static final int MAGIC = 0x4D415650; // "MAVP"
+
+	private static final int FORMAT = 1;
+
+	private static final int HEADER_SIZE = 40;
+
+	private static final int SEGMENT_SIZE = 12;
+
+	private static final int COLOR_SIZE = 8;
+
+	private static final int LITERAL = -1;
+
+	/**
+	 * Size of the buffers used for streaming output.
+	 */
+	private static final int CHUNK_SIZE = 1024;
+
+	/**
+	 * The end of the template and color tables, where the records start.
+	 */
+	private static final int TABLES_END = HEADER_SIZE + 8 * CharacterType.COUNT * (1 + Theme.COUNT) * AvatarPart.values().length;
+
+	private static final String RESOURCE = "default.pack";
+
+	private static final AvatarPart[] PARTS = AvatarPart.values();
+
+	private static final Theme[] THEMES = Theme.values();
+
+	private static final byte[] SVG_START = Fragment.SVG_START.utf8();
+
+	private static final byte[] METADATA = Fragment.METADATA.utf8();
+
+	private static final byte[] SVG_END = Fragment.SVG_END.utf8();
+
+	private static final class BuiltIn {
+		static final TemplatePack INSTANCE = loadBuiltIn();
+	}
+
+	/**
+	 * The pack data, read with absolute indices only.
+	 */
+	private final ByteBuffer _data;
+
+	private final long _version;
+
+	private final int _arena;
+
+	private TemplatePack(ByteBuffer data) throws IOException {
+		if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+			throw new IOException("Not a template pack.");
+		}
+		int format = data.getInt(4);
+		if (format != FORMAT) {
+			throw new IOException("Unsupported template pack format: " + format);
+		}
+		if (data.getInt(16) != CharacterType.COUNT || data.getInt(20) != Theme.COUNT || data.getInt(24) != PARTS.length) {
+			throw new IOException("Template pack does not match the characters, themes and parts of this library.");
+		}
+		_arena = data.getInt(28);
+		int arenaLength = data.getInt(32);
+		if (_arena < TABLES_END || arenaLength < 0 || (long) _arena + arenaLength > data.limit()) {
+			throw new IOException("Truncated template pack.");
+		}
+		checkTables(data, _arena, arenaLength);
+
+		_data = data;
+		_version = data.getLong(8);
+	}
+
+	/**
+	 * Checks that all table entries and records lie within the pack and that every theme supplies
+	 * the colors used by the template of its part, so that rendering never reads outside of the
+	 * data or the colors of another part.
+	 */
+	private static void checkTables(ByteBuffer data, int arena, int arenaLength) throws IOException {
+		for (CharacterType character : CharacterType.values()) {
+			for (AvatarPart part : PARTS) {
+				int entry = templateEntry(character, part);
+				int records = data.getInt(entry);
+				int count = data.getInt(entry + 4);
+				checkRecords(records, count, SEGMENT_SIZE, arena, "segments of the " + part + " of " + character);
+
+				int params = 0;
+				for (int n = 0; n < count; n++) {
+					int record = records + n * SEGMENT_SIZE;
+					int index = data.getInt(record);
+					if (index < LITERAL) {
+						throw new IOException("Invalid color index " + index + " in the " + part + " of " + character + ".");
+					}
+					params = Math.max(params, index + 1);
+					checkString(data.getInt(record + 4), data.getInt(record + 8), arenaLength, "segment of the " + part + " of " + character);
+				}
+
+				for (Theme theme : THEMES) {
+					int colorEntry = colorEntry(character, theme, part);
+					int colors = data.getInt(colorEntry);
+					int colorCount = data.getInt(colorEntry + 4);
+					String what = "colors of the " + part + " of " + character + " in theme " + theme;
+					checkRecords(colors, colorCount, COLOR_SIZE, arena, what);
+					if (colorCount < params) {
+						throw new IOException("Template pack has " + colorCount + " " + what + ", the template uses " + params + ".");
+					}
+					for (int n = 0; n < colorCount; n++) {
+						int record = colors + n * COLOR_SIZE;
+						checkString(data.getInt(record), data.getInt(record + 4), arenaLength, what);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that the given records lie between the tables and the string arena.
+	 */
+	private static void checkRecords(int offset, int count, int recordSize, int arena, String what) throws IOException {
+		if (count < 0 || offset < TABLES_END || (long) offset + (long) count * recordSize > arena) {
+			throw new IOException("Invalid template pack, " + what + " out of bounds.");
+		}
+	}
+
+	/**
+	 * Checks that the given string lies within the string arena.
+	 */
+	private static void checkString(int offset, int length, int arenaLength, String what) throws IOException {
+		if (offset < 0 || length < 0 || (long) offset + length > arenaLength) {
+			throw new IOException("Invalid template pack, string of the " + what + " out of bounds.");
+		}
+	}
+
+	/**
+	 * The pack with the built-in art of the library.
+	 *
+	 * <p>
+	 * The pack is written by the build as a class path resource, see {@link DefaultPackWriter}. It is
+	 * memory-mapped if the resource is a file, and read into memory otherwise. Without the
+	 * resource, e.g. when running from an IDE that does not execute the build, the pack is built
+	 * from the template sources.
+	 * </p>
+	 */
+	public static TemplatePack builtIn() {
+		return BuiltIn.INSTANCE;
+	}
+
+	/**
+	 * Memory-maps the pack in the given file.
+	 *
+	 * <p>
+	 * The file must not be modified while the pack is in use.
+	 * </p>
+	 *
+	 * @param file A file written by {@link Builder#writeTo(OutputStream)}
+	 * @return The pack reading from the file
+	 * @throws IOException If the file cannot be read or is not a valid pack
+	 */
+	public static TemplatePack map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new TemplatePack(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Reads a pack into memory.
+	 *
+	 * @param in The stream to read the pack from, remains open
+	 * @return The pack read
+	 * @throws IOException If reading fails or the data is not a valid pack
+	 */
+	public static TemplatePack read(InputStream in) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int length;
+		while ((length = in.read(chunk)) >= 0) {
+			buffer.write(chunk, 0, length);
+		}
+		return new TemplatePack(ByteBuffer.wrap(buffer.toByteArray()));
+	}
+
+	/**
+	 * Creates a {@link Builder} for a new pack.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Creates a {@link Builder} that starts with the templates and colors of this pack, e.g. to
+	 * replace some of them.
+	 */
+	public Builder toBuilder() {
+		Builder result = new Builder();
+		for (CharacterType character : CharacterType.values()) {
+			for (AvatarPart part : PARTS) {
+				result.setTemplate(character, part, template(character, part, null).toSource());
+				for (Theme theme : THEMES) {
+					result.setColors(character, theme, part, colors(character, theme, part));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The version of this pack.
+	 *
+	 * <p>
+	 * Unless set explicitly with {@link Builder#setVersion(long)}, the version is a hash of the
+	 * content, so that packs with different art have different versions.
+	 * </p>
+	 */
+	public long getVersion() {
+		return _version;
+	}
+
+	/**
+	 * Renders the given avatar with the art of this pack.
+	 *
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The SVG code of the avatar
+	 */
+	public String render(Avatar avatar, boolean sansEnv) {
+		return new String(renderBytes(avatar, sansEnv), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Renders the UTF-8 encoded SVG of the given avatar with the art of this pack.
+	 *
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The UTF-8 encoding of {@link #render(Avatar, boolean)}
+	 */
+	public byte[] renderBytes(Avatar avatar, boolean sansEnv) {
+		byte[] result = new byte[renderedByteLength(avatar, sansEnv)];
+		put(ByteBuffer.wrap(result), avatar, sansEnv);
+		return result;
+	}
+
+	/**
+	 * Puts the UTF-8 encoded SVG of the given avatar with the art of this pack into the given
+	 * buffer.
+	 *
+	 * @param buffer The buffer to write to, starting at its current position
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @return The number of bytes written
+	 * @throws BufferOverflowException If the remaining space in the buffer is too small, the buffer
+	 *         is left unmodified in that case
+	 */
+	public int renderTo(ByteBuffer buffer, Avatar avatar, boolean sansEnv) {
+		int length = renderedByteLength(avatar, sansEnv);
+		if (buffer.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		put(buffer, avatar, sansEnv);
+		return length;
+	}
+
+	/**
+	 * Appends the SVG code of the given avatar with the art of this pack to the given output.
+	 *
+	 * <p>
+	 * The SVG code is decoded and appended string by string, without building the complete
+	 * document first.
+	 * </p>
+	 *
+	 * @param out The output to append to
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If appending to the output fails
+	 */
+	public void renderTo(Appendable out, Avatar avatar, boolean sansEnv) throws IOException {
+		out.append(Fragment.SVG_START.text());
+		out.append(Fragment.METADATA.text());
+
+		ByteBuffer data = _data.duplicate();
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			Coordinate coordinate = avatar.getValue(part);
+			int entry = templateEntry(coordinate.character, part);
+			int records = _data.getInt(entry);
+			int end = records + _data.getInt(entry + 4) * SEGMENT_SIZE;
+			int colors = _data.getInt(colorEntry(coordinate.character, coordinate.theme, part));
+			for (int record = records; record < end; record += SEGMENT_SIZE) {
+				int range = range(record, colors);
+				select(data, range);
+
+				// Each string of the arena is encoded separately.
+				decoder.reset();
+				while (decoder.decode(data, chars, true).isOverflow()) {
+					drain(chars, out);
+				}
+				while (decoder.flush(chars).isOverflow()) {
+					drain(chars, out);
+				}
+				drain(chars, out);
+			}
+		}
+
+		out.append(Fragment.SVG_END.text());
+	}
+
+	private static void drain(CharBuffer chars, Appendable out) throws IOException {
+		chars.flip();
+		out.append(chars);
+		chars.clear();
+	}
+
+	private void put(ByteBuffer out, Avatar avatar, boolean sansEnv) {
+		out.put(SVG_START);
+		out.put(METADATA);
+
+		ByteBuffer data = _data.duplicate();
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			Coordinate coordinate = avatar.getValue(part);
+			int entry = templateEntry(coordinate.character, part);
+			int records = _data.getInt(entry);
+			int end = records + _data.getInt(entry + 4) * SEGMENT_SIZE;
+			int colors = _data.getInt(colorEntry(coordinate.character, coordinate.theme, part));
+			for (int record = records; record < end; record += SEGMENT_SIZE) {
+				out.put(select(data, range(record, colors)));
+			}
+		}
+
+		out.put(SVG_END);
+	}
+
+	/**
+	 * Writes the UTF-8 encoded SVG of the given avatar with the art of this pack to the given
+	 * stream.
+	 *
+	 * @param out The stream to write to
+	 * @param avatar The {@link Avatar} to render
+	 * @param sansEnv If true, renders without the circular background
+	 * @throws IOException If writing to the stream fails
+	 */
+	public void renderTo(OutputStream out, Avatar avatar, boolean sansEnv) throws IOException {
+		out.write(SVG_START);
+		out.write(METADATA);
+
+		// A memory-mapped pack is copied through a buffer, a pack in memory is written directly.
+		ByteBuffer data = _data.hasArray() ? null : _data.duplicate();
+		byte[] buffer = data == null ? null : new byte[CHUNK_SIZE];
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			Coordinate coordinate = avatar.getValue(part);
+			int entry = templateEntry(coordinate.character, part);
+			int records = _data.getInt(entry);
+			int end = records + _data.getInt(entry + 4) * SEGMENT_SIZE;
+			int colors = _data.getInt(colorEntry(coordinate.character, coordinate.theme, part));
+			for (int record = records; record < end; record += SEGMENT_SIZE) {
+				int range = range(record, colors);
+				if (data == null) {
+					out.write(_data.array(), _data.arrayOffset() + _arena + _data.getInt(range), _data.getInt(range + 4));
+				} else {
+					select(data, range);
+					while (data.hasRemaining()) {
+						int length = Math.min(buffer.length, data.remaining());
+						data.get(buffer, 0, length);
+						out.write(buffer, 0, length);
+					}
+				}
+			}
+		}
+
+		out.write(SVG_END);
+	}
+
+	/**
+	 * The number of bytes in the UTF-8 encoded SVG of the given avatar, see
+	 * {@link #renderBytes(Avatar, boolean)}.
+	 */
+	public int renderedByteLength(Avatar avatar, boolean sansEnv) {
+		int result = SVG_START.length + METADATA.length + SVG_END.length;
+		for (AvatarPart part : PARTS) {
+			if (part == AvatarPart.ENV && sansEnv) {
+				continue;
+			}
+
+			Coordinate coordinate = avatar.getValue(part);
+			int entry = templateEntry(coordinate.character, part);
+			int records = _data.getInt(entry);
+			int end = records + _data.getInt(entry + 4) * SEGMENT_SIZE;
+			int colors = _data.getInt(colorEntry(coordinate.character, coordinate.theme, part));
+			for (int record = records; record < end; record += SEGMENT_SIZE) {
+				result += _data.getInt(range(record, colors) + 4);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The colored fragment for the given part of the given coordinate.
+	 */
+	Fragment fragment(Coordinate coordinate, AvatarPart part) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		int entry = templateEntry(coordinate.character, part);
+		int records = _data.getInt(entry);
+		int end = records + _data.getInt(entry + 4) * SEGMENT_SIZE;
+		int colors = _data.getInt(colorEntry(coordinate.character, coordinate.theme, part));
+		for (int record = records; record < end; record += SEGMENT_SIZE) {
+			int range = range(record, colors);
+			int length = _data.getInt(range + 4);
+			buffer.write(bytes(_arena + _data.getInt(range), length), 0, length);
+		}
+		return new Fragment(buffer.toByteArray());
+	}
+
+	/**
+	 * The templates of the given character.
+	 *
+	 * @param arena The arena to store the segments of the templates in.
+	 * @return The templates by part ordinal.
+	 */
+	Template[] templates(CharacterType character, LiteralArena arena) {
+		Template[] result = new Template[PARTS.length];
+		for (AvatarPart part : PARTS) {
+			result[part.ordinal()] = template(character, part, arena);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the given template.
+	 *
+	 * @param arena The arena to store the segments in, <code>null</code> to parse the template
+	 *        source instead, e.g. because it is only needed temporarily.
+	 */
+	private Template template(CharacterType character, AvatarPart part, LiteralArena arena) {
+		int entry = templateEntry(character, part);
+		int records = _data.getInt(entry);
+		int count = _data.getInt(entry + 4);
+
+		String[] sources = new String[count];
+		boolean latin1 = true;
+		for (int n = 0; n < count; n++) {
+			int record = records + n * SEGMENT_SIZE;
+			sources[n] = string(_data.getInt(record + 4), _data.getInt(record + 8));
+			latin1 &= LiteralArena.isLatin1(sources[n]);
+		}
+
+		if (arena == null || !latin1) {
+			StringBuilder source = new StringBuilder();
+			for (String segment : sources) {
+				source.append(segment);
+			}
+			return new Template(source.toString());
+		}
+
+		Template result = new Template(arena);
+		for (int n = 0; n < count; n++) {
+			result.add(sources[n], _data.getInt(records + n * SEGMENT_SIZE));
+		}
+		return result;
+	}
+
+	private String[] colors(CharacterType character, Theme theme, AvatarPart part) {
+		int entry = colorEntry(character, theme, part);
+		int records = _data.getInt(entry);
+		String[] result = new String[_data.getInt(entry + 4)];
+		for (int n = 0; n < result.length; n++) {
+			int record = records + n * COLOR_SIZE;
+			result[n] = string(_data.getInt(record), _data.getInt(record + 4));
+		}
+		return result;
+	}
+
+	/**
+	 * The position of the arena offset and length of the SVG code of the given segment record, the
+	 * record itself for constant SVG code, and the color record of a placeholder.
+	 *
+	 * @param record The position of the segment record
+	 * @param colors The position of the color records of the theme
+	 */
+	private int range(int record, int colors) {
+		int index = _data.getInt(record);
+		return index == LITERAL ? record + 4 : colors + index * COLOR_SIZE;
+	}
+
+	/**
+	 * Limits the given duplicate of the pack data to the string at the given range.
+	 */
+	private ByteBuffer select(ByteBuffer data, int range) {
+		int offset = _arena + _data.getInt(range);
+		data.limit(offset + _data.getInt(range + 4));
+		data.position(offset);
+		return data;
+	}
+
+	private String string(int offset, int length) {
+		return new String(bytes(_arena + offset, length), StandardCharsets.UTF_8);
+	}
+
+	private byte[] bytes(int offset, int length) {
+		byte[] result = new byte[length];
+		ByteBuffer data = _data.duplicate();
+		data.position(offset);
+		data.get(result);
+		return result;
+	}
+
+	private static int colorEntry(CharacterType character, Theme theme, AvatarPart part) {
+		return HEADER_SIZE + 8 * (CharacterType.COUNT * PARTS.length + colorIndex(character, theme, part));
+	}
+
+	private static int templateEntry(CharacterType character, AvatarPart part) {
+		return HEADER_SIZE + 8 * templateIndex(character, part);
+	}
+
+	private static int templateIndex(CharacterType character, AvatarPart part) {
+		return character.ordinal() * PARTS.length + part.ordinal();
+	}
+
+	private static int colorIndex(CharacterType character, Theme theme, AvatarPart part) {
+		return (character.ordinal() * THEMES.length + theme.ordinal()) * PARTS.length + part.ordinal();
+	}
+
+	private static TemplatePack loadBuiltIn() {
+		URL url = TemplatePack.class.getResource(RESOURCE);
+		try {
+			if (url == null) {
+				return builtInSources().build();
+			}
+			if ("file".equals(url.getProtocol())) {
+				return map(Paths.get(url.toURI()));
+			}
+			try (InputStream in = url.openStream()) {
+				return read(in);
+			}
+		} catch (IOException | URISyntaxException ex) {
+			throw new IllegalStateException("Cannot load built-in template pack: " + url, ex);
+		}
+	}
+
+	/**
+	 * A {@link Builder} with the template sources of {@link SvgData} and the themes of
+	 * {@link ThemeData}.
+	 */
+	static Builder builtInSources() {
+		Builder result = new Builder();
+		for (CharacterType character : CharacterType.values()) {
+			EnumMap<AvatarPart, String> sources = SvgData.sources(character);
+			ThemeData.CharacterThemes themes = ThemeData.getCharacterThemes(character);
+			for (AvatarPart part : PARTS) {
+				String source = sources.get(part);
+				result.setTemplate(character, part, source != null ? source : "");
+				for (Theme theme : THEMES) {
+					result.setColors(character, theme, part, themes.getTheme(theme).getColors(part));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Collects templates and colors for a new {@link TemplatePack}.
+	 *
+	 * <p>
+	 * A template is SVG code with color placeholders in <code>style</code> attributes, like
+	 * <code>style="fill:#01;"</code>. The placeholders are numbered in order of appearance, and the
+	 * n-th placeholder is replaced by the n-th color of the theme. Every template must be set, and
+	 * every theme must supply at least as many colors as the template of its part has placeholders.
+	 * </p>
+	 */
+	public static final class Builder {
+
+		private final String[] _templates = new String[CharacterType.COUNT * PARTS.length];
+
+		private final String[][] _colors = new String[CharacterType.COUNT * THEMES.length * PARTS.length][];
+
+		private Long _version;
+
+		Builder() {
+			// See TemplatePack.builder().
+		}
+
+		/**
+		 * Sets the template for the given part of the given character.
+		 *
+		 * @param source SVG code with color placeholders, empty if the part draws nothing
+		 * @return This builder
+		 */
+		public Builder setTemplate(CharacterType character, AvatarPart part, String source) {
+			_templates[templateIndex(character, part)] = source;
+			return this;
+		}
+
+		/**
+		 * Sets the colors for the given part of the given character in the given theme.
+		 *
+		 * @param colors The values for the placeholders of the template in order, each a CSS color
+		 *        optionally followed by further declarations, like <code>#1df7ff;opacity:0.64</code>
+		 * @return This builder
+		 */
+		public Builder setColors(CharacterType character, Theme theme, AvatarPart part, String... colors) {
+			_colors[colorIndex(character, theme, part)] = colors.clone();
+			return this;
+		}
+
+		/**
+		 * Sets the {@link TemplatePack#getVersion() version} of the pack, instead of a hash of its
+		 * content.
+		 *
+		 * @return This builder
+		 */
+		public Builder setVersion(long version) {
+			_version = Long.valueOf(version);
+			return this;
+		}
+
+		/**
+		 * Creates the pack in memory.
+		 *
+		 * @throws IllegalStateException If a template or colors are missing
+		 */
+		public TemplatePack build() {
+			try {
+				return new TemplatePack(ByteBuffer.wrap(toByteArray()));
+			} catch (IOException ex) {
+				throw new IllegalStateException("Invalid template pack created.", ex);
+			}
+		}
+
+		/**
+		 * Writes the pack, e.g. to a file for {@link TemplatePack#map(Path)}.
+		 *
+		 * @param out The stream to write to, remains open
+		 * @throws IOException If writing fails
+		 * @throws IllegalStateException If a template or colors are missing
+		 */
+		public void writeTo(OutputStream out) throws IOException {
+			out.write(toByteArray());
+		}
+
+		private byte[] toByteArray() {
+			Map<String, Integer> offsets = new HashMap<>();
+			ByteArrayOutputStream arena = new ByteArrayOutputStream();
+
+			List<int[]> segments = new ArrayList<>();
+			int[] templateTable = new int[_templates.length * 2];
+			for (CharacterType character : CharacterType.values()) {
+				for (AvatarPart part : PARTS) {
+					int index = templateIndex(character, part);
+					String source = _templates[index];
+					if (source == null) {
+						throw new IllegalStateException("No template for " + part + " of " + character + ".");
+					}
+
+					Template template = new Template(source);
+					templateTable[2 * index] = segments.size();
+					templateTable[2 * index + 1] = template.getSegmentCount();
+					for (int n = 0; n < template.getSegmentCount(); n++) {
+						byte[] utf8 = template.getSource(n).getBytes(StandardCharsets.UTF_8);
+						int offset = offsets.computeIfAbsent(template.getSource(n), s -> append(arena, utf8));
+						segments.add(new int[] {template.isParam(n) ? template.getParamIndex(n) : LITERAL, offset, utf8.length});
+					}
+
+					for (Theme theme : THEMES) {
+						String[] colors = _colors[colorIndex(character, theme, part)];
+						if (colors == null || colors.length < template.getParamCount()) {
+							throw new IllegalStateException("Missing colors for " + part + " of " + character + " in theme " + theme + ".");
+						}
+					}
+				}
+			}
+
+			List<int[]> colors = new ArrayList<>();
+			int[] colorTable = new int[_colors.length * 2];
+			for (int index = 0; index < _colors.length; index++) {
+				colorTable[2 * index] = colors.size();
+				colorTable[2 * index + 1] = _colors[index].length;
+				for (String color : _colors[index]) {
+					byte[] utf8 = color.getBytes(StandardCharsets.UTF_8);
+					colors.add(new int[] {offsets.computeIfAbsent(color, s -> append(arena, utf8)), utf8.length});
+				}
+			}
+
+			int segmentStart = HEADER_SIZE + 4 * (templateTable.length + colorTable.length);
+			int colorStart = segmentStart + SEGMENT_SIZE * segments.size();
+			int arenaStart = colorStart + COLOR_SIZE * colors.size();
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(arenaStart + arena.size());
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT);
+				out.writeLong(0);
+				out.writeInt(CharacterType.COUNT);
+				out.writeInt(THEMES.length);
+				out.writeInt(PARTS.length);
+				out.writeInt(arenaStart);
+				out.writeInt(arena.size());
+				out.writeInt(0);
+				for (int n = 0; n < templateTable.length; n += 2) {
+					out.writeInt(segmentStart + SEGMENT_SIZE * templateTable[n]);
+					out.writeInt(templateTable[n + 1]);
+				}
+				for (int n = 0; n < colorTable.length; n += 2) {
+					out.writeInt(colorStart + COLOR_SIZE * colorTable[n]);
+					out.writeInt(colorTable[n + 1]);
+				}
+				for (int[] segment : segments) {
+					for (int value : segment) {
+						out.writeInt(value);
+					}
+				}
+				for (int[] color : colors) {
+					out.writeInt(color[0]);
+					out.writeInt(color[1]);
+				}
+				arena.writeTo(out);
+			} catch (IOException ex) {
+				throw new IllegalStateException("Writing to memory failed.", ex);
+			}
+
+			byte[] result = bytes.toByteArray();
+			ByteBuffer.wrap(result).putLong(8, _version != null ? _version.longValue() : hash(result));
+			return result;
+		}
+
+		private static int append(ByteArrayOutputStream arena, byte[] utf8) {
+			int result = arena.size();
+			arena.write(utf8, 0, utf8.length);
+			return result;
+		}
+
+		/**
+		 * FNV-1a hash of the given pack data with an empty version field.
+		 */
+		private static long hash(byte[] data) {
+			long result = 0xCBF29CE484222325L;
+			for (byte b : data) {
+				result = (result ^ (b & 0xFF)) * 0x100000001B3L;
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,185 @@
+package com.multiavatar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holder of the active {@link TemplatePack} that can be replaced while avatars are rendered.
+ *
+ * <p>
+ * Rendering reads the active pack once and renders the complete avatar from it, without locking.
+ * Replacing the pack publishes a new immutable pack in a single volatile write. A rendering that
+ * started before the replacement finishes with the previous pack, all later renderings use the new
+ * one. Changes like {@link #update(UnaryOperator) updates} of single colors copy the active pack,
+ * the active pack itself is never modified.
+ * </p>
+ *
+ * <p>
+ * Caches of rendered avatars must include the {@link #getVersion() version} of the pack in their
+ * keys or drop their content when the version changes. To associate output with a version without
+ * a race, take a {@link #getPack() snapshot} and use it for both:
+ * </p>
+ *
+ * <pre>
+ * TemplatePack pack = registry.getPack();
+ * String etag = Long.toHexString(pack.getVersion()) + "-" + Long.toHexString(avatar.toKey());
+ * byte[] svg = pack.renderBytes(avatar, false);
+ * </pre>
+ *
+ * <p>
+ * To roll out a new pack file, write it under a new name or rename it over the old one, and
+ * {@link #load(Path) load} it. A file that is currently mapped must not be modified in place.
+ * </p>
+ *
+ * <p>
+ * Only rendering through a registry, or through a pack taken from it, uses the active pack. The
+ * rest of the library always renders the {@link TemplatePack#builtIn() built-in} art: the methods
+ * of {@link Multiavatar} and {@link Avatar}, {@link OutputProfile}s, {@link AvatarSheet}s,
+ * {@link Layer}s, pre-compressed gzip output, {@link PaletteRegistry} palettes and the caches
+ * {@link AvatarCache}, {@link OffHeapAvatarCache} and {@link MappedAvatarCache}, whose file
+ * fingerprint also refers to the built-in art. For gzip output, wrap the stream passed to
+ * {@link #renderTo(OutputStream, Avatar, boolean)} in a {@link java.util.zip.GZIPOutputStream}.
+ * </p>
+ */
+public final class TemplateRegistry {
+
+	private volatile TemplatePack _pack;
+
+	/**
+	 * Creates a registry with the {@link TemplatePack#builtIn() built-in} art.
+	 */
+	public TemplateRegistry() {
+		this(TemplatePack.builtIn());
+	}
+
+	/**
+	 * Creates a registry with the given initial pack.
+	 */
+	public TemplateRegistry(TemplatePack pack) {
+		_pack = pack;
+	}
+
+	/**
+	 * The active pack.
+	 *
+	 * <p>
+	 * The result stays valid after the pack is replaced, so a caller can render several avatars
+	 * from the same version.
+	 * </p>
+	 */
+	public TemplatePack getPack() {
+		return _pack;
+	}
+
+	/**
+	 * The {@link TemplatePack#getVersion() version} of the active pack.
+	 */
+	public long getVersion() {
+		return _pack.getVersion();
+	}
+
+	/**
+	 * Makes the given pack the active one.
+	 *
+	 * @param pack The new pack
+	 * @return The previously active pack
+	 */
+	public synchronized TemplatePack install(TemplatePack pack) {
+		if (pack == null) {
+			throw new NullPointerException("No template pack given.");
+		}
+		TemplatePack result = _pack;
+		_pack = pack;
+		return result;
+	}
+
+	/**
+	 * Memory-maps the pack in the given file and makes it the active one.
+	 *
+	 * <p>
+	 * If the file is not a valid pack, the active pack remains unchanged.
+	 * </p>
+	 *
+	 * @param file A file written by {@link TemplatePack.Builder#writeTo(OutputStream)}
+	 * @return The new active pack
+	 * @throws IOException If the file cannot be read or is not a valid pack
+	 */
+	public TemplatePack load(Path file) throws IOException {
+		TemplatePack result = TemplatePack.map(file);
+		install(result);
+		return result;
+	}
+
+	/**
+	 * Replaces the active pack with a modified copy.
+	 *
+	 * <p>
+	 * Updates are serialized, so concurrent updates do not lose changes. Renderings are not blocked.
+	 * </p>
+	 *
+	 * @param change Modifies a {@link TemplatePack#toBuilder() builder} with the content of the
+	 *        active pack, e.g. replaces some colors
+	 * @return The new active pack
+	 * @throws IllegalStateException If the changed content is not a valid pack, the active pack
+	 *         remains unchanged in that case
+	 */
+	public synchronized TemplatePack update(UnaryOperator<TemplatePack.Builder> change) {
+		TemplatePack result = change.apply(_pack.toBuilder()).build();
+		_pack = result;
+		return result;
+	}
+
+	/**
+	 * Renders the given avatar with the active pack.
+	 *
+	 * @see TemplatePack#render(Avatar, boolean)
+	 */
+	public String render(Avatar avatar, boolean sansEnv) {
+		return _pack.render(avatar, sansEnv);
+	}
+
+	/**
+	 * Renders the UTF-8 encoded SVG of the given avatar with the active pack.
+	 *
+	 * @see TemplatePack#renderBytes(Avatar, boolean)
+	 */
+	public byte[] renderBytes(Avatar avatar, boolean sansEnv) {
+		return _pack.renderBytes(avatar, sansEnv);
+	}
+
+	/**
+	 * Writes the UTF-8 encoded SVG of the given avatar with the active pack to the given stream.
+	 *
+	 * @see TemplatePack#renderTo(OutputStream, Avatar, boolean)
+	 */
+	public void renderTo(OutputStream out, Avatar avatar, boolean sansEnv) throws IOException {
+		_pack.renderTo(out, avatar, sansEnv);
+	}
+
+	/**
+	 * Appends the SVG code of the given avatar with the active pack to the given output.
+	 *
+	 * @see TemplatePack#renderTo(Appendable, Avatar, boolean)
+	 */
+	public void renderTo(Appendable out, Avatar avatar, boolean sansEnv) throws IOException {
+		_pack.renderTo(out, avatar, sansEnv);
+	}
+
+	/**
+	 * Puts the UTF-8 encoded SVG of the given avatar with the active pack into the given buffer.
+	 *
+	 * <p>
+	 * To size the buffer for the same pack, take a {@link #getPack() snapshot} and use its
+	 * {@link TemplatePack#renderedByteLength(Avatar, boolean)}.
+	 * </p>
+	 *
+	 * @see TemplatePack#renderTo(ByteBuffer, Avatar, boolean)
+	 */
+	public int renderTo(ByteBuffer buffer, Avatar avatar, boolean sansEnv) {
+		return _pack.renderTo(buffer, avatar, sansEnv);
+	}
+
+}
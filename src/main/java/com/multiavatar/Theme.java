@@ -8,6 +8,11 @@ public enum Theme {
     B('B'),
     C('C');
 
+    /**
+     * Number of themes per character.
+     */
+    static final int COUNT = values().length;
+
     private final char code;
 
     Theme(char code) {
@@ -1,6 +1,7 @@
 package com.multiavatar;
 
 import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Contains all theme color data for the 16 base characters.
@@ -57,17 +58,27 @@ class ThemeData {
         }
     }
 
-    private static final EnumMap<CharacterType, CharacterThemes> THEMES = createThemes();
+    /**
+     * The themes by character ordinal, created on first use of a character.
+     */
+    private static final AtomicReferenceArray<CharacterThemes> THEMES = new AtomicReferenceArray<>(CharacterType.COUNT);
 
     static CharacterThemes getCharacterThemes(CharacterType character) {
-        return THEMES.get(character);
+        CharacterThemes result = THEMES.get(character.ordinal());
+        if (result == null) {
+            // Concurrent callers create equal themes, the first one wins.
+            THEMES.compareAndSet(character.ordinal(), null, createThemes(character));
+            result = THEMES.get(character.ordinal());
+        }
+        return result;
     }
 
-    private static EnumMap<CharacterType, CharacterThemes> createThemes() {
-        EnumMap<CharacterType, CharacterThemes> themes = new EnumMap<>(CharacterType.class);
+    private static CharacterThemes createThemes(CharacterType character) {
+        switch (character) {
 
         // Character 00 - Robo
-        themes.put(CharacterType.ROBO, new CharacterThemes(
+        case ROBO:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#ff2f2b"},
                 new String[]{"#fff", "#000"},
@@ -92,10 +103,11 @@ class ThemeData {
                 new String[]{"#0c00de", "#fff", "none"},
                 new String[]{"#acfffd", "#acfffd"}
             )
-        ));
+        );
 
         // Character 01 - Girl
-        themes.put(CharacterType.GIRL, new CharacterThemes(
+        case GIRL:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#a50000"},
                 new String[]{"#f06", "#8e0039"},
@@ -120,10 +132,11 @@ class ThemeData {
                 new String[]{"#000", "#0072ff"},
                 new String[]{"#ff9809", "none", "#ffc809", "none"}
             )
-        ));
+        );
 
         // Character 02 - Blonde
-        themes.put(CharacterType.BLONDE, new CharacterThemes(
+        case BLONDE:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#ff7520"},
                 new String[]{"#d12823"},
@@ -148,10 +161,11 @@ class ThemeData {
                 new String[]{"#000", "magenta"},
                 new String[]{"#FFCC00", "#FFCC00", "#FFCC00", "#ff0000", "yellow"}
             )
-        ));
+        );
 
         // Character 03 - Evilnormie
-        themes.put(CharacterType.GUY, new CharacterThemes(
+        case GUY:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#6FC30E"},
                 new String[]{"#b4e1fa", "#5b5d6e", "#515262", "#a0d2f0", "#a0d2f0"},
@@ -176,10 +190,11 @@ class ThemeData {
                 new String[]{"#000"},
                 new String[]{"#D2001B", "none", "none", "#D2001B"}
             )
-        ));
+        );
 
         // Character 04 - Country
-        themes.put(CharacterType.COUNTRY, new CharacterThemes(
+        case COUNTRY:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#fc0"},
                 new String[]{"#901e0e", "#ffbe1e", "#ffbe1e", "#c55f54"},
@@ -204,10 +219,11 @@ class ThemeData {
                 new String[]{"#000"},
                 new String[]{"#333", "#afafaf", "#222", "#6d3a1d"}
             )
-        ));
+        );
 
         // Character 05 - Geeknot
-        themes.put(CharacterType.GEEKNOT, new CharacterThemes(
+        case GEEKNOT:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#a09300"},
                 new String[]{"#c7d4e2", "#435363", "#435363", "#141720", "#141720", "#e7ecf2", "#e7ecf2"},
@@ -232,10 +248,11 @@ class ThemeData {
                 new String[]{"none", "#000", "none", "#000", "#5a0000", "#000", "#000", "#000", "none", "none", "none", "none"},
                 new String[]{"#efefef", "none"}
             )
-        ));
+        );
 
         // Character 06 - Asian
-        themes.put(CharacterType.ASIAN, new CharacterThemes(
+        case ASIAN:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#8acf00"},
                 new String[]{"#ee2829", "#ff0"},
@@ -260,10 +277,11 @@ class ThemeData {
                 new String[]{"#000"},
                 new String[]{"none", "none", "none", "none", "none", "#ffc107", "none", "none"}
             )
-        ));
+        );
 
         // Character 07 - Punk
-        themes.put(CharacterType.PUNK, new CharacterThemes(
+        case PUNK:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#00deae"},
                 new String[]{"#ff0000"},
@@ -288,10 +306,11 @@ class ThemeData {
                 new String[]{"#00b5b4", "#000", "#00b5b4", "#000", "#000", "#000"},
                 new String[]{"#14fffd", "#14fffd", "#14fffd", "#0d3a62"}
             )
-        ));
+        );
 
         // Character 08 - Afrohair
-        themes.put(CharacterType.AFROHAIR, new CharacterThemes(
+        case AFROHAIR:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#0df"},
                 new String[]{"#571e57", "#ff0"},
@@ -316,10 +335,11 @@ class ThemeData {
                 new String[]{"none", "#000"},
                 new String[]{"#f7f7f7", "none"}
             )
-        ));
+        );
 
         // Character 09 - Normie Female
-        themes.put(CharacterType.NORMIE_FEMALE, new CharacterThemes(
+        case NORMIE_FEMALE:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#4aff0c"},
                 new String[]{"#101010", "#fff", "#fff"},
@@ -344,10 +364,11 @@ class ThemeData {
                 new String[]{"none", "#000", "#fff"},
                 new String[]{"#ec0000", "#ec0000", "none", "none"}
             )
-        ));
+        );
 
         // Character 10 - Older
-        themes.put(CharacterType.OLDER, new CharacterThemes(
+        case OLDER:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#104c8c"},
                 new String[]{"#354B65", "#3D8EBB", "#89D0DA", "#00FFFD"},
@@ -372,10 +393,11 @@ class ThemeData {
                 new String[]{"#000", "#000"},
                 new String[]{"none", "none", "#633b1d"}
             )
-        ));
+        );
 
         // Character 11 - Firehair
-        themes.put(CharacterType.FIREHAIR, new CharacterThemes(
+        case FIREHAIR:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#4a3f73"},
                 new String[]{"#e6e9ee", "#f1543f", "#ff7058", "#fff", "#fff"},
@@ -400,10 +422,11 @@ class ThemeData {
                 new String[]{"#000", "none", "#000"},
                 new String[]{"none", "#00efff", "none"}
             )
-        ));
+        );
 
         // Character 12 - Blond
-        themes.put(CharacterType.BLOND, new CharacterThemes(
+        case BLOND:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#2668DC"},
                 new String[]{"#2385c6", "#b8d0e0", "#b8d0e0"},
@@ -428,10 +451,11 @@ class ThemeData {
                 new String[]{"#581b1b", "#FF8B8B", "#000"},
                 new String[]{"none", "#9c0092"}
             )
-        ));
+        );
 
         // Character 13 - Ateam
-        themes.put(CharacterType.ATEAM, new CharacterThemes(
+        case ATEAM:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#d10084"},
                 new String[]{"#efedee", "#00a1e0", "#00a1e0", "#efedee", "#ffce1c"},
@@ -456,10 +480,11 @@ class ThemeData {
                 new String[]{"#000"},
                 new String[]{"#53ffff", "#53ffff", "none", "none"}
             )
-        ));
+        );
 
         // Character 14 - Rasta
-        themes.put(CharacterType.RASTA, new CharacterThemes(
+        case RASTA:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#fc0065"},
                 new String[]{"#708913", "#fdea14", "#708913", "#fdea14", "#708913"},
@@ -484,10 +509,11 @@ class ThemeData {
                 new String[]{"#000"},
                 new String[]{"#004E4C", "#004E4C", "#004E4C", "#004E4C", "#004E4C", "#004E4C", "#004E4C", "#004E4C", "#004E4C", "none", "none", "none", "none", "none", "none", "none", "none"}
             )
-        ));
+        );
 
         // Character 15 - Meta
-        themes.put(CharacterType.STREET, new CharacterThemes(
+        case STREET:
+            return new CharacterThemes(
             new Colors(
                 new String[]{"#111"},
                 new String[]{"#000", "#00FFFF"},
@@ -512,8 +538,9 @@ class ThemeData {
                 new String[]{"black", "black", "aqua"},
                 new String[]{"#00fffd", "none", "none", "none", "none"}
             )
-        ));
-
-        return themes;
+        );
+        default:
+            throw new IllegalArgumentException("No themes for character: " + character);
+        }
     }
 }
@@ -0,0 +1,79 @@
+package com.multiavatar;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap allocated per generated avatar with {@link Multiavatar} and with a reused
+ * {@link AvatarRenderer}.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass="com.multiavatar.AllocationBenchmark" -Dexec.classpathScope=test
+ */
+public class AllocationBenchmark {
+
+	private static final int WARMUP = 50000;
+
+	private static final int ITERATIONS = 200000;
+
+	private static volatile int sink;
+
+	public static void main(String[] args) {
+		String[] ids = new String[1024];
+		for (int n = 0; n < ids.length; n++) {
+			ids[n] = "user" + n + "@example.com";
+		}
+
+		AvatarRenderer renderer = new AvatarRenderer();
+
+		run("Multiavatar.generate(id)", n -> Multiavatar.generate(ids[n % ids.length]).length());
+		run("Multiavatar.generate(seed)", n -> Multiavatar.generate((long) n).length());
+		run("AvatarRenderer.generate(id)", n -> renderer.generate(ids[n % ids.length], false).length());
+		run("AvatarRenderer.generate(seed)", n -> renderer.generate((long) n, false).length());
+		run("AvatarRenderer.generateBytes(id)", n -> renderer.generateBytes(ids[n % ids.length], false).remaining());
+	}
+
+	private static void run(String name, Job job) {
+		measure(job, WARMUP);
+		long bytes = measure(job, ITERATIONS);
+		System.out.printf("%-34s %8.1f bytes/avatar%n", name, bytes / (double) ITERATIONS);
+	}
+
+	private static long measure(Job job, int iterations) {
+		long before = allocatedBytes();
+		int length = 0;
+		for (int n = 0; n < iterations; n++) {
+			length += job.run(n);
+		}
+		sink = length;
+		return allocatedBytes() - before;
+	}
+
+	/**
+	 * Whether the JVM measures the memory allocated per thread, see {@link #allocatedBytes()}.
+	 */
+	static boolean isMeasurable() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+				return false;
+			}
+			com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+			return allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled();
+		} catch (LinkageError ex) {
+			// No com.sun.management on this JVM.
+			return false;
+		}
+	}
+
+	/**
+	 * The number of bytes allocated by the current thread so far.
+	 */
+	static long allocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private interface Job {
+		int run(int n);
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AvatarCache}
+ */
+public class AvatarCacheTest {
+
+	@Test
+	public void testGenerate() {
+		AvatarCache cache = new AvatarCache(1024 * 1024);
+		assertEquals(Multiavatar.generate("Binx Bond"), cache.generate("Binx Bond", false));
+		assertEquals(Multiavatar.generate("Binx Bond", true), cache.generate("Binx Bond", true));
+		assertEquals(Multiavatar.generate("Binx Bond"), cache.generate("Binx Bond", false));
+		assertEquals("", cache.generate("", false));
+		assertEquals("", cache.generate(null, false));
+
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getEntryCount());
+		assertEquals(utf8Length(Multiavatar.generate("Binx Bond")) + utf8Length(Multiavatar.generate("Binx Bond", true)),
+			cache.getSize());
+	}
+
+	@Test
+	public void testBudget() {
+		AvatarCache cache = new AvatarCache(100 * 1024);
+		Random rnd = new Random(1);
+		for (int n = 0; n < 2000; n++) {
+			long key = AvatarKey.fromId("user" + rnd.nextInt(200));
+			assertEquals(Avatar.fromKey(key).render(false), cache.render(key, false));
+			assertTrue(cache.getSize() <= cache.getMaxSize());
+		}
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(2000, cache.getHitCount() + cache.getMissCount());
+	}
+
+	@Test
+	public void testCodec() {
+		AvatarCache plain = new AvatarCache(100 * 1024);
+		AvatarCache deflate = new AvatarCache(100 * 1024, AvatarCodec.DEFLATE);
+		Random rnd = new Random(2);
+		for (int n = 0; n < 200; n++) {
+			long key = Avatar.fromRandom(rnd).toKey();
+			String svg = Avatar.fromKey(key).render(false);
+			assertEquals(svg, plain.render(key, false));
+			assertEquals(svg, deflate.render(key, false));
+			assertEquals(svg, deflate.render(key, false));
+			assertTrue(deflate.getSize() <= deflate.getMaxSize());
+		}
+		assertTrue(deflate.getHitCount() > 0);
+		assertTrue(deflate.getEntryCount() > 3 * plain.getEntryCount());
+	}
+
+	@Test
+	public void testHotSetSurvivesScan() {
+		// Room for roughly 50 avatars.
+		AvatarCache cache = new AvatarCache(300 * 1024);
+
+		List<String> hot = new ArrayList<>();
+		for (int n = 0; n < 20; n++) {
+			hot.add("popular" + n);
+		}
+		for (int round = 0; round < 5; round++) {
+			for (String id : hot) {
+				cache.generate(id, false);
+			}
+		}
+
+		// Mostly one-off requests, a plain LRU cache would lose all popular entries here.
+		for (int n = 0; n < 5000; n++) {
+			cache.generate("once" + n, false);
+			if (n % 10 == 0) {
+				cache.generate(hot.get((n / 10) % hot.size()), false);
+			}
+		}
+
+		long hits = cache.getHitCount();
+		for (String id : hot) {
+			cache.generate(id, false);
+		}
+		assertEquals("Popular avatars must survive a scan.", hot.size(), cache.getHitCount() - hits);
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		AvatarCache cache = new AvatarCache(512 * 1024);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					Random rnd = new Random(seed);
+					for (int n = 0; n < 2000; n++) {
+						String id = "user" + (int) Math.abs(rnd.nextGaussian() * 100);
+						boolean sansEnv = rnd.nextBoolean();
+						assertEquals(Multiavatar.generate(id, sansEnv), cache.generate(id, sansEnv));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		assertEquals(16000, cache.getHitCount() + cache.getMissCount());
+		assertTrue(cache.getSize() <= cache.getMaxSize());
+	}
+
+	private static int utf8Length(String svg) {
+		return svg.getBytes(StandardCharsets.UTF_8).length;
+	}
+}
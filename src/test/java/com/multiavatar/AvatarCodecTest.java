@@ -0,0 +1,105 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AvatarCodec}
+ */
+public class AvatarCodecTest {
+
+	@Test
+	public void testPlain() {
+		Avatar avatar = Avatar.fromId("Binx Bond");
+		byte[] encoded = AvatarCodec.PLAIN.encode(avatar, false);
+		assertEquals(avatar.render(false), new String(encoded, StandardCharsets.UTF_8));
+		assertEquals(avatar.render(false), AvatarCodec.PLAIN.decodeString(encoded));
+	}
+
+	@Test
+	public void testDeflate() {
+		Random rnd = new Random(11);
+		long plain = 0;
+		long encoded = 0;
+		for (int n = 0; n < 500; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			boolean sansEnv = rnd.nextBoolean();
+			String svg = avatar.render(sansEnv);
+
+			byte[] data = AvatarCodec.DEFLATE.encode(avatar, sansEnv);
+			assertEquals(svg, AvatarCodec.DEFLATE.decodeString(data));
+			assertArrayEquals(data, AvatarCodec.DEFLATE.encode(svg.getBytes(StandardCharsets.UTF_8)));
+
+			// Direct buffer at an offset.
+			ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 3);
+			direct.position(3);
+			direct.put(data);
+			direct.position(3);
+			assertEquals(svg, text(AvatarCodec.DEFLATE.decode(direct)));
+			assertEquals(3, direct.position());
+
+			plain += svg.length();
+			encoded += data.length;
+		}
+		assertTrue("Compression ratio: " + (double) plain / encoded, encoded * 4 < plain);
+	}
+
+	@Test
+	public void testDictionary() {
+		byte[] dictionary = ((DeflateAvatarCodec) AvatarCodec.DEFLATE).dictionary();
+		assertEquals(32 * 1024, dictionary.length);
+
+		// The most widely used literals are kept.
+		String text = new String(dictionary, StandardCharsets.UTF_8);
+		assertTrue(text.endsWith(Fragment.SVG_END.text()));
+		assertTrue(text.contains(Fragment.METADATA.text()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalid() {
+		byte[] data = AvatarCodec.DEFLATE.encode(Avatar.fromId("Binx Bond"), false);
+		AvatarCodec.DEFLATE.decode(ByteBuffer.wrap(data, 0, data.length / 2));
+	}
+
+	@Test
+	public void testCorrupted() {
+		byte[] data = AvatarCodec.DEFLATE.encode(Avatar.fromId("Binx Bond"), false);
+		int length = ByteBuffer.wrap(data).getInt(0);
+
+		assertInvalid(withLength(data, -1));
+		assertInvalid(withLength(data, 0));
+		assertInvalid(withLength(data, Integer.MAX_VALUE));
+		assertInvalid(withLength(data, data.length * 2000));
+		assertInvalid(withLength(data, length - 1));
+		assertInvalid(withLength(data, length + 1));
+		assertInvalid(Arrays.copyOf(data, data.length + 1));
+		assertInvalid(new byte[3]);
+	}
+
+	private static byte[] withLength(byte[] data, int length) {
+		byte[] result = data.clone();
+		ByteBuffer.wrap(result).putInt(0, length);
+		return result;
+	}
+
+	private static void assertInvalid(byte[] data) {
+		try {
+			AvatarCodec.DEFLATE.decode(ByteBuffer.wrap(data));
+			fail("Invalid data accepted.");
+		} catch (IllegalArgumentException ex) {
+			// Expected.
+		}
+	}
+
+	private static String text(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,94 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AvatarKey}
+ */
+public class AvatarKeyTest {
+
+	@Test
+	public void testRoundTrip() {
+		Random rnd = new Random(1);
+		for (int n = 0; n < 1000; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			long key = avatar.toKey();
+
+			assertTrue(AvatarKey.isValid(key));
+			assertEquals(avatar, Avatar.fromKey(key));
+			assertEquals(avatar.render(false), Avatar.fromKey(key).render(false));
+
+			String text = AvatarKey.format(key);
+			assertEquals(AvatarKey.TEXT_LENGTH, text.length());
+			assertEquals(key, AvatarKey.parse(text));
+			assertEquals(text, AvatarKey.formatTo(new StringBuilder(), key).toString());
+		}
+	}
+
+	@Test
+	public void testFromId() {
+		assertEquals(Avatar.fromId("Binx Bond").toKey(), AvatarKey.fromId("Binx Bond"));
+		assertEquals(Avatar.fromId("Binx Bond"), Avatar.fromId("Binx Bond"));
+		assertEquals(Avatar.fromId("Binx Bond").hashCode(), Avatar.fromId("Binx Bond").hashCode());
+	}
+
+	@Test
+	public void testTextForm() {
+		long key = AvatarKey.pure(CharacterType.RASTA, Theme.B);
+		assertEquals("14B14B14B14B14B14B", AvatarKey.format(key));
+		assertEquals(Avatar.pure(CharacterType.RASTA, Theme.B), Avatar.fromKey(key));
+
+		Avatar avatar = Avatar.fromKey(AvatarKey.parse("00A01B02C03A04B15C"));
+		assertSame(Coordinate.coordinate(CharacterType.ROBO, Theme.A), avatar.env);
+		assertSame(Coordinate.coordinate(CharacterType.GIRL, Theme.B), avatar.head);
+		assertSame(Coordinate.coordinate(CharacterType.BLONDE, Theme.C), avatar.clo);
+		assertSame(Coordinate.coordinate(CharacterType.GUY, Theme.A), avatar.top);
+		assertSame(Coordinate.coordinate(CharacterType.COUNTRY, Theme.B), avatar.eyes);
+		assertSame(Coordinate.coordinate(CharacterType.STREET, Theme.C), avatar.mouth);
+	}
+
+	@Test
+	public void testInvalid() {
+		String[] invalid = {"", "00A01B02C03A04B15", "00A01B02C03A04B16A", "00A01B02C03A04B15D", "0xA01B02C03A04B15C"};
+		for (String text : invalid) {
+			try {
+				AvatarKey.parse(text);
+				fail("Expected failure for: " + text);
+			} catch (IllegalArgumentException ex) {
+				// Expected.
+			}
+		}
+
+		assertFalse(AvatarKey.isValid(-1L));
+		assertFalse(AvatarKey.isValid(48L));
+		long key = AvatarKey.fromId("Binx Bond");
+		for (int partNumber : new int[] {-1, 48, 64}) {
+			try {
+				AvatarKey.with(key, AvatarPart.HEAD, partNumber);
+				fail("Expected failure for part number: " + partNumber);
+			} catch (IllegalArgumentException ex) {
+				// Expected.
+			}
+		}
+		assertEquals(47, AvatarKey.partNumber(AvatarKey.with(key, AvatarPart.HEAD, 47), AvatarPart.HEAD));
+		try {
+			Avatar.fromKey(1L << 40);
+			fail("Expected failure.");
+		} catch (IllegalArgumentException ex) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testCoordinatesInterned() {
+		for (int nr = 0; nr < 48; nr++) {
+			Coordinate coordinate = Coordinate.fromPartNumber(nr);
+			assertEquals(nr, coordinate.getPartNumber());
+			assertSame(coordinate, Coordinate.coordinate(coordinate.getCharacter(), coordinate.getTheme()));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AvatarRenderer}
+ */
+public class AvatarRendererTest {
+
+	@Test
+	public void testGenerate() {
+		AvatarRenderer renderer = new AvatarRenderer();
+		for (int n = 0; n < 200; n++) {
+			String id = "user" + n;
+			boolean sansEnv = n % 3 == 0;
+			String expected = Multiavatar.generate(id, sansEnv);
+			assertEquals(expected, renderer.generate(id, sansEnv).toString());
+			assertEquals(expected, text(renderer.generateBytes(id, sansEnv)));
+
+			assertEquals(Multiavatar.generate((long) n, sansEnv), renderer.generate(n, sansEnv).toString());
+			assertEquals(Multiavatar.generate((long) n, sansEnv), text(renderer.generateBytes(n, sansEnv)));
+		}
+		assertEquals("", renderer.generate("", false).toString());
+		assertEquals(0, renderer.generateBytes(null, false).remaining());
+	}
+
+	@Test
+	public void testRender() {
+		AvatarRenderer renderer = new AvatarRenderer();
+		Random rnd = new Random(13);
+		for (int n = 0; n < 200; n++) {
+			long key = AvatarKey.random(rnd);
+			assertEquals(Avatar.fromKey(key).render(false), renderer.render(key, false).toString());
+			assertEquals(Avatar.fromKey(key).render(true), text(renderer.renderBytes(key, true)));
+		}
+	}
+
+	/**
+	 * Coarse check that rendering does not allocate per avatar, see {@link AllocationBenchmark} for
+	 * the exact numbers.
+	 */
+	@Test
+	public void testNoAllocation() {
+		Assume.assumeTrue("Allocations per thread are not measurable on this JVM.", AllocationBenchmark.isMeasurable());
+
+		AvatarRenderer renderer = new AvatarRenderer();
+		String[] ids = new String[100];
+		for (int n = 0; n < ids.length; n++) {
+			ids[n] = "user" + n;
+		}
+
+		// Allocations before the JIT has compiled the render path do not count, measure until
+		// warmed up.
+		int iterations = 10000;
+		long allocated = Long.MAX_VALUE;
+		for (int round = 0; round < 10 && allocated >= iterations; round++) {
+			long before = AllocationBenchmark.allocatedBytes();
+			int length = 0;
+			for (int n = 0; n < iterations; n++) {
+				length += renderer.generate(ids[n % ids.length], false).length();
+				length += renderer.generateBytes(n, false).remaining();
+			}
+			allocated = AllocationBenchmark.allocatedBytes() - before;
+			assertTrue(length > 0);
+		}
+
+		// Less than a byte per avatar, i.e. only incidental allocations of the measurement.
+		assertTrue("Allocated: " + allocated, allocated < iterations);
+	}
+
+	private static String text(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,114 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AvatarSheet}.
+ */
+public class AvatarSheetTest {
+
+	private static final Pattern USE = Pattern.compile("<use href=\"#([^\"]*)\"/>");
+
+	private static final Pattern SYMBOL = Pattern.compile("<symbol id=\"([^\"]*)\" viewBox=\"0 0 231 231\">(.*?)</symbol>");
+
+	@Test
+	public void testRender() throws IOException {
+		AvatarSheet sheet = new AvatarSheet();
+		Avatar avatar = Avatar.pure(CharacterType.BLONDE, Theme.A);
+		String svg = sheet.render(avatar, false);
+		assertEquals("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 231 231\">"
+			+ "<use href=\"#ma-02A-env\"/><use href=\"#ma-02A-head\"/><use href=\"#ma-02A-clo\"/>"
+			+ "<use href=\"#ma-02A-top\"/><use href=\"#ma-02A-eyes\"/><use href=\"#ma-02A-mouth\"/>"
+			+ "</svg>", svg);
+
+		StringBuilder out = new StringBuilder();
+		sheet.renderTo(out, avatar, true);
+		assertEquals(svg.replace("<use href=\"#ma-02A-env\"/>", ""), out.toString());
+		assertEquals(6, sheet.getSymbolCount());
+
+		StringBuilder defs = new StringBuilder();
+		sheet.renderDefsTo(defs);
+		assertEquals(sheet.renderDefs(), defs.toString());
+		assertTrue(defs.indexOf("<dc:creator>Multiavatar</dc:creator>") > 0);
+
+		sheet.reset();
+		assertEquals(0, sheet.getSymbolCount());
+		assertFalse(sheet.renderDefs().contains("<symbol"));
+	}
+
+	@Test
+	public void testExpand() {
+		// Replacing each reference with its symbol content yields the inline SVG.
+		for (OutputProfile profile : new OutputProfile[] {OutputProfile.DEFAULT, OutputProfile.compact(), OutputProfile.cssVariables()}) {
+			AvatarSheet sheet = new AvatarSheet(profile);
+			Random rnd = new Random(16);
+			Avatar[] avatars = new Avatar[200];
+			String[] svgs = new String[avatars.length];
+			for (int n = 0; n < avatars.length; n++) {
+				avatars[n] = Avatar.fromRandom(rnd);
+				svgs[n] = sheet.render(avatars[n], n % 2 == 0);
+			}
+
+			Map<String, String> symbols = new HashMap<>();
+			Matcher matcher = SYMBOL.matcher(sheet.renderDefs());
+			while (matcher.find()) {
+				assertNull(symbols.put(matcher.group(1), matcher.group(2)));
+			}
+			assertEquals(sheet.getSymbolCount(), symbols.size());
+
+			Set<String> used = new HashSet<>();
+			for (int n = 0; n < avatars.length; n++) {
+				StringBuffer expanded = new StringBuffer();
+				Matcher use = USE.matcher(svgs[n]);
+				while (use.find()) {
+					used.add(use.group(1));
+					use.appendReplacement(expanded, Matcher.quoteReplacement(symbols.get(use.group(1))));
+				}
+				use.appendTail(expanded);
+
+				String expected = avatars[n].render(profile, n % 2 == 0).replace(Fragment.METADATA.text(), "");
+				assertEquals(expected, expanded.toString());
+			}
+			assertEquals(symbols.keySet(), used);
+		}
+	}
+
+	@Test
+	public void testIncludeAll() {
+		AvatarSheet sheet = new AvatarSheet(OutputProfile.cssVariables());
+		sheet.includeAll();
+
+		// One symbol per character and part, shared by all themes.
+		assertTrue(sheet.getSymbolCount() <= CharacterType.COUNT * AvatarPart.values().length);
+		String defs = sheet.renderDefs();
+		assertFalse(defs.contains("#"));
+
+		String svg = sheet.render(Avatar.pure(CharacterType.ROBO, Theme.C), true);
+		assertTrue(svg, svg.contains(" style=\"--ma-head-0:"));
+		assertFalse(svg.contains("--ma-env-0"));
+		assertEquals(defs, sheet.renderDefs());
+	}
+
+	@Test
+	public void testSharedSymbols() {
+		AvatarSheet sheet = new AvatarSheet();
+		for (CharacterType character : CharacterType.values()) {
+			for (Theme theme : Theme.values()) {
+				sheet.render(Avatar.pure(character, theme), false);
+			}
+		}
+		assertTrue(sheet.getSymbolCount() < Coordinate.PART_NUMBERS * AvatarPart.values().length);
+	}
+
+}
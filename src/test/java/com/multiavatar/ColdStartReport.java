@@ -0,0 +1,34 @@
+package com.multiavatar;
+
+/**
+ * Measures the time until the first avatar is rendered in a fresh JVM, and the additional time
+ * until the first avatar of each character is rendered.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass="com.multiavatar.ColdStartReport" -Dexec.classpathScope=test
+ *
+ * <p>
+ * The report must run in a fresh class loader, since any earlier use of the library hides the
+ * cost of loading it.
+ * </p>
+ */
+public class ColdStartReport {
+
+	public static void main(String[] args) {
+		long start = System.nanoTime();
+		String first = Multiavatar.generate(CharacterType.ROBO, Theme.A);
+		long firstAvatar = System.nanoTime() - start;
+		System.out.println(String.format("%-14s %8.2f ms (%d chars)", "first avatar", firstAvatar / 1e6, first.length()));
+
+		for (CharacterType character : CharacterType.values()) {
+			long before = System.nanoTime();
+			Multiavatar.generate(character, Theme.B);
+			long time = System.nanoTime() - before;
+			System.out.println(String.format("%-14s %8.2f ms", character, time / 1e6));
+		}
+
+		long before = System.nanoTime();
+		Multiavatar.generate("Binx Bond");
+		System.out.println(String.format("%-14s %8.2f ms", "first id", (System.nanoTime() - before) / 1e6));
+		System.out.println(String.format("%-14s %8.2f ms", "total", (System.nanoTime() - start) / 1e6));
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.multiavatar;
+
+/**
+ * Prints the bytes saved by the {@link OutputProfile#compact(int) compact} and
+ * {@link OutputProfile#forSize(int) level-of-detail} output profiles for each character.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass="com.multiavatar.CompactReport" -Dexec.classpathScope=test
+ */
+public class CompactReport {
+
+	public static void main(String[] args) {
+		StringBuilder header = new StringBuilder(String.format("%-14s %6s", "character", "bytes"));
+		for (int precision = 0; precision <= OutputProfile.MAX_PRECISION; precision++) {
+			header.append(String.format(" %8s", "p=" + precision));
+		}
+		System.out.println(header);
+
+		long total = 0;
+		long[] saved = new long[OutputProfile.MAX_PRECISION + 1];
+		for (CharacterType character : CharacterType.values()) {
+			int length = Avatar.pure(character, Theme.A).renderedByteLength(false);
+			total += length;
+
+			StringBuilder line = new StringBuilder(String.format("%-14s %6d", character, length));
+			for (int precision = 0; precision <= OutputProfile.MAX_PRECISION; precision++) {
+				int bytes = OutputProfile.compact(precision).getSavedBytes(character);
+				saved[precision] += bytes;
+				line.append(String.format(" %8d", bytes));
+			}
+			System.out.println(line);
+		}
+
+		StringBuilder summary = new StringBuilder(String.format("%-14s %6d", "total", total));
+		for (int precision = 0; precision <= OutputProfile.MAX_PRECISION; precision++) {
+			summary.append(String.format(" %7.1f%%", 100.0 * saved[precision] / total));
+		}
+		System.out.println(summary);
+		System.out.println();
+
+		System.out.println(String.format("%-14s %6s %9s %8s", "pixel size", "decimals", "bytes", "saved"));
+		for (int size = OutputProfile.MIN_LOD_SIZE; size <= OutputProfile.MAX_LOD_SIZE; size *= 2) {
+			OutputProfile profile = OutputProfile.forSize(size);
+			long bytes = 0;
+			for (CharacterType character : CharacterType.values()) {
+				bytes += Avatar.pure(character, Theme.A).renderedByteLength(profile, false);
+			}
+			System.out.println(String.format("%-14d %6d %9d %7.1f%%", size, profile.getPrecision(), bytes, 100.0 * (total - bytes) / total));
+		}
+	}
+
+}
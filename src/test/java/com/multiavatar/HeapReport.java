@@ -0,0 +1,66 @@
+package com.multiavatar;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reports the heap retained by the template and theme data of all characters.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass="com.multiavatar.HeapReport" -Dexec.classpathScope=test
+ *
+ * <p>
+ * Each figure is the growth of the used heap after a full garbage collection, so the report must
+ * run before any other use of the library in the JVM. Results vary by a few hundred bytes between
+ * runs.
+ * </p>
+ */
+public class HeapReport {
+
+	public static void main(String[] args) {
+		// Load classes and the default pack, which is mapped outside of the heap.
+		TemplatePack.builtIn();
+		SvgData.Template.EMPTY.getParamCount();
+		ThemeData.Colors.class.getName();
+
+		// The first collection also removes the garbage of the startup.
+		usedHeap();
+		long before = usedHeap();
+		for (CharacterType character : CharacterType.values()) {
+			SvgData.getSvgTemplate(character, AvatarPart.ENV);
+		}
+		long templates = usedHeap();
+		for (CharacterType character : CharacterType.values()) {
+			ThemeData.getCharacterThemes(character);
+		}
+		long themes = usedHeap();
+		for (int nr = 0; nr < Coordinate.PART_NUMBERS; nr++) {
+			for (AvatarPart part : AvatarPart.values()) {
+				FragmentTable.DEFAULT.get(nr, part);
+			}
+		}
+		long fragments = usedHeap();
+
+		int segments = 0;
+		int sourceLength = 0;
+		for (CharacterType character : CharacterType.values()) {
+			for (AvatarPart part : AvatarPart.values()) {
+				SvgData.Template template = SvgData.getSvgTemplate(character, part);
+				segments += template.getSegmentCount();
+				sourceLength += template.toSource().length();
+			}
+		}
+
+		System.out.println(String.format("%-22s %8d", "template segments", segments));
+		System.out.println(String.format("%-22s %8d chars", "template sources", sourceLength));
+		System.out.println(String.format("%-22s %8d bytes, %d distinct texts", "literal arena", SvgData.getLiterals().size(), SvgData.getLiterals().count()));
+		System.out.println(String.format("%-22s %8.1f KB", "templates", (templates - before) / 1024.0));
+		System.out.println(String.format("%-22s %8.1f KB", "themes", (themes - templates) / 1024.0));
+		System.out.println(String.format("%-22s %8.1f KB", "default fragments", (fragments - themes) / 1024.0));
+	}
+
+	private static long usedHeap() {
+		for (int n = 0; n < 5; n++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+}
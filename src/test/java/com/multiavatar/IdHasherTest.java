@@ -0,0 +1,87 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.security.MessageDigest;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Verifies that {@link IdHasher} selects the same parts as the string based reference algorithm.
+ */
+public class IdHasherTest {
+
+	private static final AvatarPart[] HASH_ORDER = {
+		AvatarPart.ENV, AvatarPart.CLO, AvatarPart.HEAD, AvatarPart.MOUTH, AvatarPart.EYES, AvatarPart.TOP
+	};
+
+	@Test
+	public void testMatchesReference() throws Exception {
+		Random rnd = new Random(42);
+		for (int n = 0; n < 10000; n++) {
+			String id = randomId(rnd);
+			assertEquals("Part numbers for '" + id + "'", referenceHash(id), IdHasher.hash(id));
+		}
+	}
+
+	@Test
+	public void testUnicode() throws Exception {
+		String[] ids = {"测试用户", "Binx Bond", "😀 smile", "broken \uD800 surrogate", "\uDC00", "é"};
+		for (String id : ids) {
+			assertEquals("Part numbers for '" + id + "'", referenceHash(id), IdHasher.hash(id));
+		}
+	}
+
+	/**
+	 * Identifiers longer than the input buffer are hashed in chunks.
+	 */
+	@Test
+	public void testLongIds() throws Exception {
+		Random rnd = new Random(43);
+		for (int n = 0; n < 200; n++) {
+			String id = randomId(rnd, 50 + rnd.nextInt(1000));
+			assertEquals("Part numbers for '" + id + "'", referenceHash(id), IdHasher.hash(id));
+		}
+	}
+
+	private static String randomId(Random rnd) {
+		return randomId(rnd, rnd.nextInt(40));
+	}
+
+	private static String randomId(Random rnd, int length) {
+		StringBuilder result = new StringBuilder();
+		for (int n = 0; n < length; n++) {
+			switch (rnd.nextInt(4)) {
+				case 0: result.append((char) (0x20 + rnd.nextInt(0x5F))); break;
+				case 1: result.append((char) (0x80 + rnd.nextInt(0x780))); break;
+				case 2: result.append((char) (0x800 + rnd.nextInt(0xC800))); break;
+				default: result.appendCodePoint(0x10000 + rnd.nextInt(0x10000)); break;
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * The original string based implementation of {@link Avatar#fromId(String)}.
+	 */
+	private static long referenceHash(String id) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		byte[] hash = digest.digest(id.getBytes("UTF-8"));
+		StringBuilder hexString = new StringBuilder();
+		for (byte b : hash) {
+			String hex = Integer.toHexString(0xff & b);
+			if (hex.length() == 1) hexString.append('0');
+			hexString.append(hex);
+		}
+		String digits = hexString.toString().replaceAll("\\D", "");
+
+		long result = 0;
+		for (int n = 0; n < HASH_ORDER.length; n++) {
+			int value = Integer.parseInt(digits.substring(n * 2, n * 2 + 2));
+			long part = Math.round((47f / 100f) * value);
+			result |= part << (AvatarKey.PART_BITS * HASH_ORDER[n].ordinal());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,143 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Layer} and the per-layer API of {@link Multiavatar}.
+ */
+public class LayerTest {
+
+	@Test
+	public void testKeys() {
+		Set<String> keys = new HashSet<>();
+		for (CharacterType character : CharacterType.values()) {
+			for (Theme theme : Theme.values()) {
+				for (AvatarPart part : AvatarPart.values()) {
+					Layer layer = Layer.layer(part, character, theme);
+					assertSame(layer, Layer.fromKey(layer.getKey()));
+					assertSame(part, layer.getPart());
+					assertSame(Coordinate.coordinate(character, theme), layer.getCoordinate());
+					assertTrue(keys.add(layer.getKey()));
+				}
+			}
+		}
+		assertEquals(288, keys.size());
+		assertEquals("02A-head", Layer.layer(AvatarPart.HEAD, CharacterType.BLONDE, Theme.A).getKey());
+	}
+
+	@Test
+	public void testInvalidKeys() {
+		for (String key : new String[] {"", "02A", "02A-", "02A-hat", "16A-head", "02D-head", "02A_head", "02A-HEAD"}) {
+			try {
+				Layer.fromKey(key);
+				fail("Accepted: " + key);
+			} catch (IllegalArgumentException ex) {
+				// Expected.
+			}
+		}
+	}
+
+	@Test
+	public void testCompose() {
+		Random rnd = new Random(18);
+		for (int n = 0; n < 100; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				List<Layer> layers = avatar.getLayers(sansEnv);
+				assertEquals(sansEnv ? 5 : 6, layers.size());
+
+				StringBuilder svg = new StringBuilder();
+				svg.append(Fragment.SVG_START.text()).append(Fragment.METADATA.text());
+				for (Layer layer : layers) {
+					svg.append(layer.renderFragment());
+				}
+				svg.append(Fragment.SVG_END.text());
+				assertEquals(avatar.render(sansEnv), svg.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testRenderLayered() {
+		Random rnd = new Random(19);
+		for (int n = 0; n < 50; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				String layered = avatar.renderLayered(sansEnv);
+				assertEquals(avatar.render(sansEnv), layered.replaceAll("<g data-part=\"[a-z]+\" data-layer=\"[0-9A-Z]+-[a-z]+\">|</g>", ""));
+
+				String css = avatar.renderLayered(OutputProfile.cssVariables(), sansEnv);
+				assertEquals(sansEnv ? 5 : 6, css.split(" style=\"--ma-").length - 1);
+			}
+		}
+	}
+
+	@Test
+	public void testDiff() {
+		Random rnd = new Random(20);
+		Avatar avatar = Avatar.fromRandom(rnd);
+		assertTrue(avatar.diff(avatar, false).isEmpty());
+		for (int n = 0; n < 100; n++) {
+			// Change a single part, like an editor does.
+			AvatarPart changed = AvatarPart.values()[rnd.nextInt(6)];
+			Avatar next = Avatar.fromKey(AvatarKey.with(avatar.toKey(), changed, rnd.nextInt(Coordinate.PART_NUMBERS)));
+			boolean same = next.getValue(changed) == avatar.getValue(changed);
+
+			List<Layer> diff = next.diff(avatar, false);
+			assertEquals(same ? 0 : 1, diff.size());
+			assertEquals(same || changed == AvatarPart.ENV ? 0 : 1, next.diff(avatar, true).size());
+
+			// Patching the layered rendering of the old avatar yields the new one.
+			String svg = avatar.renderLayered(false);
+			for (Layer layer : diff) {
+				assertSame(changed, layer.getPart());
+				String part = layer.getKey().substring(4);
+				svg = svg.replaceAll("<g data-part=\"" + part + "\".*?</g>", Matcher.quoteReplacement(layer.renderGroup()));
+			}
+			assertEquals(next.renderLayered(false), svg);
+
+			avatar = next;
+		}
+
+		Avatar other = Avatar.fromRandom(rnd);
+		List<Layer> diff = other.diff(avatar, false);
+		for (Layer layer : other.getLayers(false)) {
+			assertEquals(diff.contains(layer), avatar.getValue(layer.getPart()) != layer.getCoordinate());
+		}
+	}
+
+	@Test
+	public void testLayerKeys() {
+		List<String> keys = Multiavatar.getLayerKeys("Binx Bond", false);
+		assertEquals(6, keys.size());
+
+		StringBuilder svg = new StringBuilder();
+		for (String key : keys) {
+			svg.append(Layer.fromKey(key).renderFragment());
+		}
+		assertTrue(Multiavatar.generate("Binx Bond").contains(svg));
+		assertEquals(5, Multiavatar.getLayerKeys("Binx Bond", true).size());
+		assertTrue(Multiavatar.getLayerKeys("", false).isEmpty());
+	}
+
+	@Test
+	public void testRenderLayer() {
+		String svg = Multiavatar.renderLayer(AvatarPart.TOP, CharacterType.RASTA, Theme.B);
+		assertEquals(svg, Multiavatar.renderLayer("14B-top"));
+		assertEquals(Fragment.SVG_START.text() + Fragment.METADATA.text()
+			+ Layer.layer(AvatarPart.TOP, CharacterType.RASTA, Theme.B).renderFragment() + Fragment.SVG_END.text(), svg);
+
+		String css = Layer.layer(AvatarPart.TOP, CharacterType.RASTA, Theme.B).render(OutputProfile.cssVariables());
+		assertTrue(css, css.contains(" style=\"--ma-top-0:"));
+		assertTrue(css.contains("var(--ma-top-0)"));
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.multiavatar.SvgData.Template;
+
+/**
+ * Tests for {@link LiteralArena}.
+ */
+public class LiteralArenaTest {
+
+	@Test
+	public void testDeduplication() {
+		LiteralArena arena = new LiteralArena();
+		int a = arena.add(";stroke-linecap:round;");
+		int b = arena.add("\"/><path d=\"");
+		assertEquals(a, arena.add(";stroke-linecap:round;"));
+		assertNotEquals(a, b);
+		assertEquals(2, arena.count());
+		assertEquals(";stroke-linecap:round;".length() + "\"/><path d=\"".length(), arena.size());
+		assertEquals("\"/><path d=\"", arena.get(b, "\"/><path d=\"".length()));
+
+		StringBuilder out = new StringBuilder("x");
+		arena.appendTo(out, a, 7);
+		assertEquals("x;stroke", out.toString());
+	}
+
+	@Test
+	public void testLatin1() {
+		LiteralArena arena = new LiteralArena();
+		int offset = arena.add("café");
+		assertEquals("café", arena.get(offset, 4));
+		assertEquals(-1, arena.add("€"));
+	}
+
+	@Test
+	public void testGrowth() {
+		LiteralArena arena = new LiteralArena();
+		Set<Integer> offsets = new HashSet<>();
+		for (int n = 0; n < 5000; n++) {
+			String text = "<path d=\"m" + n + " 0\"/>";
+			int offset = arena.add(text);
+			assertTrue(offsets.add(Integer.valueOf(offset)));
+			assertEquals(text, arena.get(offset, text.length()));
+		}
+		for (int n = 0; n < 5000; n += 7) {
+			String text = "<path d=\"m" + n + " 0\"/>";
+			assertEquals(text, arena.get(arena.add(text), text.length()));
+		}
+		assertEquals(5000, arena.count());
+	}
+
+	@Test
+	public void testSharedTemplate() {
+		LiteralArena arena = new LiteralArena();
+		Template template = new Template(arena);
+		template.add("<path style=\"fill:", -1);
+		template.add("#01", 0);
+		template.add(";\"/>", -1);
+		assertEquals("<path style=\"fill:#01;\"/>", template.toSource());
+		assertEquals(1, template.getParamCount());
+		assertEquals(3, template.getSegmentCount());
+
+		StringBuilder out = new StringBuilder();
+		template.render(out, new String[] {"red"});
+		assertEquals("<path style=\"fill:red;\"/>", out.toString());
+
+		try {
+			template.add("☃", -1);
+			fail("Not Latin-1.");
+		} catch (IllegalArgumentException ex) {
+			assertEquals(3, template.getSegmentCount());
+		}
+	}
+
+}
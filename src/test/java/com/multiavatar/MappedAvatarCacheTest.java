@@ -0,0 +1,220 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link MappedAvatarCache}
+ */
+public class MappedAvatarCacheTest {
+
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	@Test
+	public void testSurvivesReopen() throws IOException {
+		Path dir = _folder.getRoot().toPath().resolve("cache");
+		long[] keys = randomKeys(200);
+
+		try (MappedAvatarCache cache = MappedAvatarCache.open(dir, 4 * 1024 * 1024)) {
+			for (long key : keys) {
+				assertNull(cache.get(key, false));
+				assertEquals(Avatar.fromKey(key).render(false), text(cache.render(key, false)));
+			}
+			assertEquals(Multiavatar.generate("Binx Bond", true), text(cache.generate("Binx Bond", true)));
+		}
+
+		try (MappedAvatarCache cache = MappedAvatarCache.open(dir, 4 * 1024 * 1024)) {
+			assertEquals(keys.length + 1, cache.getEntryCount());
+			for (long key : keys) {
+				assertEquals(Avatar.fromKey(key).render(false), text(cache.get(key, false)));
+			}
+			assertEquals(Multiavatar.generate("Binx Bond", true), text(cache.get(AvatarKey.fromId("Binx Bond"), true)));
+		}
+	}
+
+	@Test
+	public void testSharedReader() throws IOException {
+		Path dir = _folder.getRoot().toPath();
+		long[] keys = randomKeys(50);
+
+		try (MappedAvatarCache writer = MappedAvatarCache.open(dir, 1024 * 1024);
+				MappedAvatarCache reader = MappedAvatarCache.openReadOnly(dir)) {
+			assertTrue(reader.isReadOnly());
+			for (long key : keys) {
+				assertNull(reader.get(key, false));
+				writer.render(key, false);
+
+				// Visible through the reader's mapping immediately.
+				assertEquals(Avatar.fromKey(key).render(false), text(reader.get(key, false)));
+			}
+
+			// Reader renders without storing.
+			long key = AvatarKey.fromId("Binx Bond");
+			assertEquals(Multiavatar.generate("Binx Bond"), text(reader.render(key, false)));
+			assertNull(writer.get(key, false));
+		}
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		Path dir = _folder.getRoot().toPath();
+		try (MappedAvatarCache cache = MappedAvatarCache.open(dir, 16 * 1024 * 1024)) {
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for (int t = 0; t < 8; t++) {
+					int seed = t;
+					futures.add(executor.submit(() -> {
+						Random rnd = new Random(seed);
+						for (int n = 0; n < 1000; n++) {
+							long key = AvatarKey.fromId("user" + rnd.nextInt(500));
+
+							// Records appended by other threads must be complete when found.
+							ByteBuffer cached = cache.get(key, false);
+							if (cached == null) {
+								cached = cache.render(key, false);
+							}
+							assertEquals(Avatar.fromKey(key).render(false), text(cached));
+						}
+						return null;
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} finally {
+				executor.shutdown();
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			}
+			assertTrue(cache.getEntryCount() <= 500);
+		}
+	}
+
+	@Test
+	public void testCodec() throws IOException {
+		Path dir = _folder.getRoot().toPath();
+		long[] keys = randomKeys(100);
+		try (MappedAvatarCache plain = MappedAvatarCache.open(dir, 1024 * 1024);
+				MappedAvatarCache deflate = MappedAvatarCache.open(dir, 1024 * 1024, AvatarCodec.DEFLATE)) {
+			assertNotEquals(plain.getDataFile(), deflate.getDataFile());
+			for (long key : keys) {
+				String svg = Avatar.fromKey(key).render(false);
+				assertEquals(svg, text(plain.render(key, false)));
+				assertEquals(svg, text(deflate.render(key, false)));
+			}
+			assertTrue(deflate.getDataSize() * 4 < plain.getDataSize());
+		}
+
+		try (MappedAvatarCache deflate = MappedAvatarCache.openReadOnly(dir, AvatarCodec.DEFLATE)) {
+			assertEquals(keys.length, deflate.getEntryCount());
+			for (long key : keys) {
+				assertEquals(Avatar.fromKey(key).render(false), text(deflate.get(key, false)));
+			}
+		}
+	}
+
+	@Test
+	public void testFull() throws IOException {
+		Path dir = _folder.getRoot().toPath();
+		long[] keys = randomKeys(100);
+		try (MappedAvatarCache cache = MappedAvatarCache.open(dir, 64 * 1024)) {
+			for (long key : keys) {
+				assertEquals(Avatar.fromKey(key).render(true), text(cache.render(key, true)));
+			}
+			assertTrue(cache.getEntryCount() < keys.length);
+			assertTrue(cache.getDataSize() <= 64 * 1024);
+		}
+	}
+
+	@Test
+	public void testRejectsStaleFiles() throws IOException {
+		Path dir = _folder.getRoot().toPath();
+		long key = AvatarKey.fromId("Binx Bond");
+		Path indexFile;
+		try (MappedAvatarCache cache = MappedAvatarCache.open(dir, 1024 * 1024)) {
+			cache.render(key, false);
+			indexFile = cache.getIndexFile();
+		}
+		assertTrue(indexFile.getFileName().toString().startsWith(MappedAvatarCache.fileName(AvatarCodec.PLAIN)));
+
+		// Simulate files written from different art.
+		try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[8]), 16);
+		}
+
+		try {
+			MappedAvatarCache.openReadOnly(dir).close();
+			fail("Stale files must be rejected.");
+		} catch (IOException ex) {
+			// Expected.
+		}
+
+		try (MappedAvatarCache cache = MappedAvatarCache.open(dir, 1024 * 1024)) {
+			assertEquals(0, cache.getEntryCount());
+			assertNull(cache.get(key, false));
+		}
+	}
+
+	@Test
+	public void testDeletesOutdatedFiles() throws IOException {
+		Path dir = _folder.getRoot().toPath();
+		Path outdatedIndex = Files.createFile(dir.resolve("avatars-0123456789abcdef.idx"));
+		Path outdatedData = Files.createFile(dir.resolve("avatars-0123456789abcdef-DEFLATE.dat"));
+		Path other = Files.createFile(dir.resolve("avatars.txt"));
+
+		try (MappedAvatarCache deflate = MappedAvatarCache.open(dir, 1024 * 1024, AvatarCodec.DEFLATE)) {
+			deflate.render(AvatarKey.fromId("Binx Bond"), false);
+		}
+		assertFalse(Files.exists(outdatedIndex));
+		assertFalse(Files.exists(outdatedData));
+		assertTrue(Files.exists(other));
+
+		// Files of the current art in other encodings are kept.
+		try (MappedAvatarCache plain = MappedAvatarCache.open(dir, 1024 * 1024)) {
+			assertEquals(0, plain.getEntryCount());
+		}
+		try (MappedAvatarCache deflate = MappedAvatarCache.openReadOnly(dir, AvatarCodec.DEFLATE)) {
+			assertEquals(1, deflate.getEntryCount());
+		}
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void testReadOnlyMissing() throws IOException {
+		MappedAvatarCache.openReadOnly(_folder.getRoot().toPath());
+	}
+
+	private static long[] randomKeys(int count) {
+		Random rnd = new Random(count);
+		long[] result = new long[count];
+		for (int n = 0; n < count; n++) {
+			result[n] = Avatar.fromRandom(rnd).toKey();
+		}
+		return result;
+	}
+
+	private static String text(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -3,6 +3,9 @@ package com.multiavatar;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 /**
  * Unit tests for Multiavatar
  */
@@ -32,6 +35,27 @@ public class MultiavatarTest {
         assertTrue("SVG without env should be valid", svgWithoutEnv.startsWith("<svg"));
     }
 
+    @Test
+    public void testGenerateTo() throws IOException {
+        StringWriter out = new StringWriter();
+        Multiavatar.generateTo(out, "Binx Bond");
+        assertEquals(Multiavatar.generate("Binx Bond"), out.toString());
+
+        StringBuilder buffer = new StringBuilder();
+        Multiavatar.generateTo(buffer, "Binx Bond", true);
+        Multiavatar.generateTo(buffer, "");
+        Multiavatar.generateTo(buffer, CharacterType.ROBO, Theme.C);
+        Multiavatar.generateTo(buffer, 42L, true);
+        assertEquals(Multiavatar.generate("Binx Bond", true)
+            + Multiavatar.generate(CharacterType.ROBO, Theme.C)
+            + Multiavatar.generate(42L, true), buffer.toString());
+
+        StringBuilder part = new StringBuilder();
+        Coordinate coordinate = Coordinate.coordinate(CharacterType.ROBO, Theme.C);
+        coordinate.renderPart((Appendable) part, AvatarPart.TOP);
+        assertEquals(FragmentTable.DEFAULT.get(coordinate, AvatarPart.TOP).text(), part.toString());
+    }
+
     @Test
     public void testDeterministic() {
         String svg1 = Multiavatar.generate("Same Input");
@@ -0,0 +1,266 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OffHeapAvatarCache}
+ */
+public class OffHeapAvatarCacheTest {
+
+	@Test
+	public void testRender() {
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(4 * 1024 * 1024, 64 * 1024);
+		Random rnd = new Random(3);
+		for (int n = 0; n < 500; n++) {
+			long key = Avatar.fromRandom(rnd).toKey();
+			boolean sansEnv = rnd.nextBoolean();
+
+			assertNull(cache.get(key, sansEnv));
+			ByteBuffer rendered = cache.render(key, sansEnv);
+			assertTrue(rendered.isReadOnly());
+			assertEquals(Avatar.fromKey(key).render(sansEnv), text(rendered));
+			assertEquals(Avatar.fromKey(key).render(sansEnv), text(cache.get(key, sansEnv)));
+		}
+		assertEquals(500, cache.getEntryCount());
+		assertEquals(500, cache.getHitCount());
+		assertEquals(1000, cache.getMissCount());
+		assertEquals(0, cache.getEvictionCount());
+		assertTrue(cache.getAllocatedSize() <= cache.getCapacity());
+	}
+
+	@Test
+	public void testRenderToBuffer() {
+		for (AvatarCodec codec : new AvatarCodec[] { AvatarCodec.PLAIN, AvatarCodec.DEFLATE }) {
+			OffHeapAvatarCache cache = new OffHeapAvatarCache(1024 * 1024, 32 * 1024, codec);
+			ByteBuffer dst = ByteBuffer.allocateDirect(cache.getSlabSize());
+			Random rnd = new Random(6);
+			for (int n = 0; n < 100; n++) {
+				long key = Avatar.fromRandom(rnd).toKey();
+				boolean sansEnv = rnd.nextBoolean();
+				String svg = Avatar.fromKey(key).render(sansEnv);
+
+				dst.clear();
+				assertEquals(-1, cache.get(key, sansEnv, dst));
+				assertEquals(0, dst.position());
+
+				int length = cache.render(key, sansEnv, dst);
+				assertEquals(length, dst.position());
+				dst.flip();
+				assertEquals(svg, text(dst));
+
+				dst.clear();
+				assertEquals(length, cache.get(key, sansEnv, dst));
+				dst.flip();
+				assertEquals(svg, text(dst));
+
+				ByteBuffer small = ByteBuffer.allocate(length - 1);
+				try {
+					cache.get(key, sansEnv, small);
+					fail("Buffer too small.");
+				} catch (BufferOverflowException ex) {
+					// Expected.
+					assertEquals(0, small.position());
+				}
+			}
+			assertEquals(100, cache.getEntryCount());
+		}
+	}
+
+	/**
+	 * Coarse check that a hit copying into a buffer of the caller does not allocate.
+	 */
+	@Test
+	public void testNoAllocation() {
+		Assume.assumeTrue("Allocations per thread are not measurable on this JVM.", AllocationBenchmark.isMeasurable());
+
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(4 * 1024 * 1024, 64 * 1024);
+		ByteBuffer dst = ByteBuffer.allocateDirect(cache.getSlabSize());
+		long[] keys = new long[100];
+		for (int n = 0; n < keys.length; n++) {
+			keys[n] = AvatarKey.fromId("user" + n);
+			dst.clear();
+			cache.render(keys[n], false, dst);
+		}
+
+		int iterations = 10000;
+		long allocated = Long.MAX_VALUE;
+		for (int round = 0; round < 10 && allocated >= iterations; round++) {
+			long before = AllocationBenchmark.allocatedBytes();
+			long length = 0;
+			for (int n = 0; n < iterations; n++) {
+				dst.clear();
+				length += cache.render(keys[n % keys.length], false, dst);
+			}
+			allocated = AllocationBenchmark.allocatedBytes() - before;
+			assertTrue(length > 0);
+		}
+
+		assertTrue("Allocated: " + allocated, allocated < iterations);
+		assertEquals(100, cache.getEntryCount());
+	}
+
+	@Test
+	public void testGenerate() {
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(1024 * 1024);
+		assertEquals(Multiavatar.generate("Binx Bond"), text(cache.generate("Binx Bond", false)));
+		assertEquals(Multiavatar.generate("Binx Bond", true), text(cache.generate("Binx Bond", true)));
+		assertEquals(Multiavatar.generate("Binx Bond"), text(cache.generate("Binx Bond", false)));
+		assertEquals("", text(cache.generate("", false)));
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testCodec() {
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(1024 * 1024, 32 * 1024, AvatarCodec.DEFLATE);
+		Random rnd = new Random(5);
+		for (int n = 0; n < 200; n++) {
+			long key = Avatar.fromRandom(rnd).toKey();
+			boolean sansEnv = rnd.nextBoolean();
+			String svg = Avatar.fromKey(key).render(sansEnv);
+			assertEquals(svg, text(cache.render(key, sansEnv)));
+			assertEquals(svg, text(cache.get(key, sansEnv)));
+		}
+		assertEquals(200, cache.getEntryCount());
+		assertEquals(0, cache.getEvictionCount());
+		assertTrue(cache.getSize() * 4 < 200 * 4000);
+	}
+
+	@Test
+	public void testEviction() {
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(256 * 1024, 32 * 1024);
+		Random rnd = new Random(4);
+		List<Long> keys = new ArrayList<>();
+		for (int n = 0; n < 5000; n++) {
+			long key = Avatar.fromRandom(rnd).toKey();
+			keys.add(key);
+			assertEquals(Avatar.fromKey(key).render(false), text(cache.render(key, false)));
+		}
+		assertTrue(cache.getEvictionCount() > 0);
+		assertTrue(cache.getAllocatedSize() <= cache.getCapacity());
+
+		int cached = 0;
+		for (long key : keys) {
+			ByteBuffer buffer = cache.get(key, false);
+			if (buffer != null) {
+				cached++;
+				assertEquals(Avatar.fromKey(key).render(false), text(buffer));
+			}
+		}
+		assertEquals(cache.getEntryCount(), cached);
+
+		cache.clear();
+		assertEquals(0, cache.getEntryCount());
+		assertNull(cache.get(keys.get(keys.size() - 1), false));
+	}
+
+	/**
+	 * A cache with fewer slabs than size classes in use must still cache avatars of every size.
+	 */
+	@Test
+	public void testFewSlabs() {
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(2 * 16 * 1024, 16 * 1024);
+		Random rnd = new Random(7);
+		int minLength = Integer.MAX_VALUE;
+		int maxLength = 0;
+		for (int round = 0; round < 2; round++) {
+			for (int n = 0; n < 300; n++) {
+				long key = Avatar.fromRandom(rnd).toKey();
+				boolean sansEnv = rnd.nextBoolean();
+				int length = cache.render(key, sansEnv).remaining();
+				minLength = Math.min(minLength, length);
+				maxLength = Math.max(maxLength, length);
+
+				ByteBuffer cached = cache.get(key, sansEnv);
+				assertNotNull("Not cached: " + length + " bytes", cached);
+				assertEquals(Avatar.fromKey(key).render(sansEnv), text(cached));
+			}
+			assertTrue(cache.getAllocatedSize() <= cache.getCapacity());
+
+			// Slabs are assigned again after clearing.
+			cache.clear();
+			assertEquals(0, cache.getEntryCount());
+			assertEquals(0, cache.getSize());
+		}
+
+		// More than two size classes.
+		assertTrue(maxLength > minLength * 1.25 * 1.25);
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(32 * 1024 * 1024, 64 * 1024);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					Random rnd = new Random(seed);
+					for (int n = 0; n < 2000; n++) {
+						String id = "user" + (int) Math.abs(rnd.nextGaussian() * 300);
+						boolean sansEnv = rnd.nextBoolean();
+						assertEquals(Multiavatar.generate(id, sansEnv), text(cache.generate(id, sansEnv)));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		assertEquals(16000, cache.getHitCount() + cache.getMissCount());
+	}
+
+	@Test
+	public void testConcurrentEviction() throws Exception {
+		// Few chunks per size class, so most lookups race with the eviction of other entries.
+		OffHeapAvatarCache cache = new OffHeapAvatarCache(64 * 1024, 32 * 1024);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					Random rnd = new Random(seed);
+					for (int n = 0; n < 2000; n++) {
+						long key = AvatarKey.fromId("user" + rnd.nextInt(200));
+						ByteBuffer svg = cache.render(key, false);
+
+						// Give other threads the chance to reuse the chunk of the entry.
+						Thread.yield();
+						assertEquals(Avatar.fromKey(key).render(false), text(svg));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		assertTrue(cache.getEvictionCount() > 0);
+	}
+
+	private static String text(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
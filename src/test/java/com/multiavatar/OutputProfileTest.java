@@ -0,0 +1,323 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link OutputProfile} and the path re-encoding in {@link PathEncoder}.
+ */
+public class OutputProfileTest {
+
+	private static final Pattern PATH_DATA = Pattern.compile("\\sd=\"([^\"]*)\"");
+
+	@Test
+	public void testDefaultUnchanged() throws IOException {
+		Random rnd = new Random(14);
+		for (int n = 0; n < 100; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				String svg = avatar.render(sansEnv);
+				assertEquals(svg, avatar.render(OutputProfile.DEFAULT, sansEnv));
+				assertEquals(svg.length(), avatar.renderedLength(OutputProfile.DEFAULT, sansEnv));
+			}
+		}
+		assertEquals(Multiavatar.generate("Binx Bond", false), Multiavatar.generate("Binx Bond", OutputProfile.DEFAULT, false));
+	}
+
+	@Test
+	public void testCompactRendering() throws IOException {
+		OutputProfile profile = OutputProfile.compact();
+		Random rnd = new Random(15);
+		for (int n = 0; n < 100; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				String svg = avatar.render(profile, sansEnv);
+				assertTrue(svg.length() < avatar.render(sansEnv).length());
+				assertEquals(svg.length(), avatar.renderedLength(profile, sansEnv));
+
+				byte[] utf8 = svg.getBytes(StandardCharsets.UTF_8);
+				assertEquals(utf8.length, avatar.renderedByteLength(profile, sansEnv));
+
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				avatar.renderTo(bytes, profile, sansEnv);
+				assertArrayEquals(utf8, bytes.toByteArray());
+
+				StringBuilder chars = new StringBuilder();
+				avatar.renderTo(chars, profile, sansEnv);
+				assertEquals(svg, chars.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testByteSinks() throws IOException {
+		OutputProfile[] profiles = {OutputProfile.compact(), OutputProfile.forSize(32), OutputProfile.cssVariables(), OutputProfile.compact().withCssVariables()};
+		Random rnd = new Random(16);
+		for (int n = 0; n < 20; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (OutputProfile profile : profiles) {
+				for (boolean sansEnv : new boolean[] {false, true}) {
+					byte[] utf8 = avatar.render(profile, sansEnv).getBytes(StandardCharsets.UTF_8);
+
+					ByteBuffer buffer = ByteBuffer.allocate(utf8.length);
+					assertEquals(utf8.length, avatar.renderTo(buffer, profile, sansEnv));
+					assertArrayEquals(utf8, buffer.array());
+
+					ByteArrayOutputStream buffers = new ByteArrayOutputStream();
+					for (ByteBuffer part : avatar.renderBuffers(profile, sansEnv)) {
+						byte[] bytes = new byte[part.remaining()];
+						part.get(bytes);
+						buffers.write(bytes);
+					}
+					assertArrayEquals(utf8, buffers.toByteArray());
+
+					byte[] gzip = avatar.renderGzip(profile, sansEnv);
+					assertEquals(gzip.length, avatar.gzipLength(profile, sansEnv));
+					assertArrayEquals(utf8, gunzip(gzip));
+
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					avatar.renderGzipTo(out, profile, sansEnv);
+					assertArrayEquals(gzip, out.toByteArray());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPathsPreserved() {
+		for (int precision = 0; precision <= OutputProfile.MAX_PRECISION; precision++) {
+			FragmentTable compact = OutputProfile.compact(precision).fragments();
+			double tolerance = 0.5 * Math.pow(10, -precision) + 1e-9;
+			for (int nr = 0; nr < 48; nr++) {
+				for (AvatarPart part : AvatarPart.values()) {
+					List<String> original = pathData(FragmentTable.DEFAULT.get(nr, part).text());
+					List<String> encoded = pathData(compact.get(nr, part).text());
+					assertEquals(original.size(), encoded.size());
+					for (int i = 0; i < original.size(); i++) {
+						assertEquivalent(original.get(i), encoded.get(i), tolerance);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testParse() {
+		List<PathEncoder.Segment> segments = PathEncoder.parse("m10 20h5v-5l1-1 2 2zM0 0a5 5 0 1010 10");
+		assertEquals("M 10.0 20.0", segments.get(0).toString());
+		assertEquals("L 15.0 20.0", segments.get(1).toString());
+		assertEquals("L 15.0 15.0", segments.get(2).toString());
+		assertEquals("L 16.0 14.0", segments.get(3).toString());
+		assertEquals("L 18.0 16.0", segments.get(4).toString());
+		assertEquals("Z", segments.get(5).toString());
+		assertEquals("M 0.0 0.0", segments.get(6).toString());
+		assertEquals("A 5.0 5.0 0.0 1.0 0.0 10.0 10.0", segments.get(7).toString());
+	}
+
+	@Test
+	public void testEncode() {
+		assertEquals("M10 20h5v-5", PathEncoder.encode(PathEncoder.parse("M 10.04 20 L 15 20 L 15 15"), 0));
+		assertEquals("M.5-.5", PathEncoder.encode(PathEncoder.parse("M 0.5 -0.5"), 1));
+	}
+
+	@Test
+	public void testSavedBytes() {
+		for (CharacterType character : CharacterType.values()) {
+			int saved = OutputProfile.compact().getSavedBytes(character);
+			assertTrue(character + ": " + saved, saved > 0);
+			assertTrue(OutputProfile.compact(0).getSavedBytes(character) >= saved);
+			assertEquals(0, OutputProfile.DEFAULT.getSavedBytes(character));
+		}
+	}
+
+	@Test
+	public void testProfiles() {
+		assertFalse(OutputProfile.DEFAULT.isCompact());
+		assertEquals(-1, OutputProfile.DEFAULT.getPrecision());
+		assertTrue(OutputProfile.compact().isCompact());
+		assertEquals(OutputProfile.COMPACT_PRECISION, OutputProfile.compact().getPrecision());
+		assertSame(OutputProfile.compact(2), OutputProfile.compact(2));
+	}
+
+	@Test
+	public void testForSize() {
+		OutputProfile lod = OutputProfile.forSize(32);
+		assertSame(lod, OutputProfile.forSize(17));
+		assertSame(OutputProfile.forSize(16), OutputProfile.forSize(1));
+		assertSame(OutputProfile.DEFAULT, OutputProfile.forSize(OutputProfile.MAX_LOD_SIZE + 1));
+		assertEquals(32, lod.getPixelSize());
+		assertEquals(0, lod.getPrecision());
+		assertEquals(0, OutputProfile.compact().getPixelSize());
+		assertEquals("lod(32)", lod.toString());
+
+		for (CharacterType character : CharacterType.values()) {
+			int saved = lod.getSavedBytes(character);
+			assertTrue(character + ": " + saved, saved >= OutputProfile.compact(0).getSavedBytes(character));
+			assertTrue(saved >= OutputProfile.forSize(256).getSavedBytes(character));
+		}
+
+		Avatar avatar = Avatar.pure(CharacterType.BLONDE, Theme.A);
+		String thumbnail = avatar.render(32, false);
+		assertEquals(avatar.render(lod, false), thumbnail);
+		assertTrue(thumbnail.length() < avatar.render(false).length() / 2);
+	}
+
+	@Test
+	public void testLodSubpaths() {
+		// Simplification never removes subpaths or elements.
+		FragmentTable lod = OutputProfile.forSize(16).fragments();
+		for (int nr = 0; nr < 48; nr++) {
+			for (AvatarPart part : AvatarPart.values()) {
+				List<String> original = pathData(FragmentTable.DEFAULT.get(nr, part).text());
+				List<String> simplified = pathData(lod.get(nr, part).text());
+				assertEquals(original.size(), simplified.size());
+				for (int i = 0; i < original.size(); i++) {
+					assertEquals(moves(original.get(i)), moves(simplified.get(i)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testCssVariables() throws IOException {
+		OutputProfile profile = OutputProfile.cssVariables();
+		assertTrue(profile.hasCssVariables());
+		assertFalse(OutputProfile.DEFAULT.hasCssVariables());
+		assertSame(profile, profile.withCssVariables());
+		assertSame(profile, OutputProfile.DEFAULT.withCssVariables());
+		assertEquals("default+css", profile.toString());
+
+		OutputProfile lod = OutputProfile.forSize(32).withCssVariables();
+		assertEquals(32, lod.getPixelSize());
+		assertEquals("lod(32)+css", lod.toString());
+
+		Random rnd = new Random(17);
+		for (int n = 0; n < 100; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				String svg = avatar.render(profile, sansEnv);
+				assertEquals(avatar.render(sansEnv), resolveVariables(svg));
+				assertTrue(svg.contains(" style=\"" + avatar.renderColorStyle(sansEnv) + "\""));
+				assertEquals(svg.length(), avatar.renderedLength(profile, sansEnv));
+
+				byte[] utf8 = svg.getBytes(StandardCharsets.UTF_8);
+				assertEquals(utf8.length, avatar.renderedByteLength(profile, sansEnv));
+
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				avatar.renderTo(bytes, profile, sansEnv);
+				assertArrayEquals(utf8, bytes.toByteArray());
+
+				StringBuilder chars = new StringBuilder();
+				avatar.renderTo(chars, profile, sansEnv);
+				assertEquals(svg, chars.toString());
+			}
+		}
+
+		// The geometry does not depend on the theme.
+		FragmentTable fragments = profile.fragments();
+		for (CharacterType character : CharacterType.values()) {
+			for (AvatarPart part : AvatarPart.values()) {
+				String text = fragments.get(Coordinate.coordinate(character, Theme.A), part).text();
+				assertEquals(text, fragments.get(Coordinate.coordinate(character, Theme.B), part).text());
+				assertEquals(text, fragments.get(Coordinate.coordinate(character, Theme.C), part).text());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() {
+		OutputProfile.forSize(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPrecision() {
+		OutputProfile.compact(OutputProfile.MAX_PRECISION + 1);
+	}
+
+	private static byte[] gunzip(byte[] gzip) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			byte[] buffer = new byte[4096];
+			int cnt;
+			while ((cnt = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, cnt);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static void assertEquivalent(String original, String encoded, double tolerance) {
+		List<PathEncoder.Segment> expected = PathEncoder.parse(original);
+		List<PathEncoder.Segment> actual = PathEncoder.parse(encoded);
+		assertEquals(encoded, expected.size(), actual.size());
+		for (int n = 0; n < expected.size(); n++) {
+			PathEncoder.Segment e = expected.get(n);
+			PathEncoder.Segment a = actual.get(n);
+			assertEquals(encoded, e.command, a.command);
+			assertEquals(encoded, e.values.length, a.values.length);
+			for (int i = 0; i < e.values.length; i++) {
+				assertEquals(encoded, e.values[i], a.values[i], tolerance);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the custom property references in the given SVG with the values defined in its
+	 * root style and removes that style and all declarations resolving to <code>initial</code>.
+	 */
+	private static String resolveVariables(String svg) {
+		Matcher style = Pattern.compile(" style=\"(--[^\"]*)\">").matcher(svg);
+		assertTrue(style.find());
+		Map<String, String> values = new HashMap<>();
+		for (String declaration : style.group(1).split(";")) {
+			int colon = declaration.indexOf(':');
+			values.put(declaration.substring(0, colon), declaration.substring(colon + 1));
+		}
+
+		StringBuffer result = new StringBuffer();
+		Matcher reference = Pattern.compile("var\\((--[^)]*)\\)").matcher(svg.substring(0, style.start()) + ">" + svg.substring(style.end()));
+		while (reference.find()) {
+			reference.appendReplacement(result, Matcher.quoteReplacement(values.get(reference.group(1))));
+		}
+		reference.appendTail(result);
+
+		// Declarations that only other themes of the character set.
+		return result.toString().replaceAll("[a-z-]+:initial;", "");
+	}
+
+	private static int moves(String data) {
+		int result = 0;
+		for (PathEncoder.Segment segment : PathEncoder.parse(data)) {
+			if (segment.command == 'M') {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private static List<String> pathData(String svg) {
+		List<String> result = new ArrayList<>();
+		Matcher matcher = PATH_DATA.matcher(svg);
+		while (matcher.find()) {
+			result.add(matcher.group(1));
+		}
+		return result;
+	}
+
+}
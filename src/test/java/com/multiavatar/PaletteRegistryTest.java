@@ -0,0 +1,113 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PaletteRegistry}.
+ */
+public class PaletteRegistryTest {
+
+	@Test
+	public void testBaseTheme() {
+		PaletteRegistry palettes = new PaletteRegistry();
+		palettes.register("same", CharacterType.GIRL, Theme.B, Collections.emptyMap());
+
+		Avatar girl = Avatar.pure(CharacterType.GIRL, Theme.B);
+		assertEquals(girl.render(false), palettes.render(girl, "same", false));
+
+		// The palette replaces the theme of the avatar.
+		Avatar girlC = Avatar.pure(CharacterType.GIRL, Theme.C);
+		assertEquals(girl.render(true), palettes.render(girlC, "same", true));
+
+		// Characters not registered keep their colors.
+		Avatar robo = Avatar.pure(CharacterType.ROBO, Theme.C);
+		assertEquals(robo.render(false), palettes.render(robo, "same", false));
+	}
+
+	@Test
+	public void testColors() throws IOException {
+		PaletteRegistry palettes = new PaletteRegistry();
+		Map<AvatarPart, String[]> dark = new EnumMap<>(AvatarPart.class);
+		dark.put(AvatarPart.ENV, new String[] {"#202020"});
+		for (CharacterType character : CharacterType.values()) {
+			palettes.register("dark", character, Theme.A, dark);
+			assertTrue(palettes.isRegistered("dark", character));
+		}
+		assertEquals(Collections.singleton("dark"), palettes.getPaletteNames());
+
+		Avatar robo = Avatar.pure(CharacterType.ROBO, Theme.A);
+		String expected = robo.render(false).replace("#ff2f2b", "#202020");
+		assertEquals(expected, palettes.render(robo, "dark", false));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		palettes.renderTo(out, robo, "dark", false);
+		assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+	}
+
+	@Test
+	public void testReplace() {
+		PaletteRegistry palettes = new PaletteRegistry();
+		Map<AvatarPart, String[]> colors = new EnumMap<>(AvatarPart.class);
+		colors.put(AvatarPart.ENV, new String[] {"red"});
+		palettes.register("brand", CharacterType.ROBO, Theme.A, colors);
+		colors.put(AvatarPart.ENV, new String[] {"blue"});
+		palettes.register("brand", CharacterType.ROBO, Theme.A, colors);
+
+		String svg = palettes.render(Avatar.pure(CharacterType.ROBO, Theme.A), "brand", false);
+		assertTrue(svg.contains("fill:blue;"));
+		assertFalse(svg.contains("fill:red;"));
+
+		assertTrue(palettes.unregister("brand"));
+		assertFalse(palettes.isRegistered("brand", CharacterType.ROBO));
+	}
+
+	@Test
+	public void testInvalid() {
+		PaletteRegistry palettes = new PaletteRegistry();
+		Map<AvatarPart, String[]> colors = new EnumMap<>(AvatarPart.class);
+		colors.put(AvatarPart.CLO, new String[0]);
+		try {
+			palettes.register("brand", CharacterType.ROBO, Theme.A, colors);
+			fail("Colors are missing.");
+		} catch (IllegalArgumentException ex) {
+			assertFalse(palettes.isRegistered("brand", CharacterType.ROBO));
+		}
+
+		try {
+			palettes.render(Avatar.fromId("Binx Bond"), "unknown", false);
+			fail("No such palette.");
+		} catch (IllegalArgumentException ex) {
+			// Expected.
+		}
+		assertTrue(palettes.getPaletteNames().isEmpty());
+	}
+
+	@Test
+	public void testColorValues() {
+		PaletteRegistry palettes = new PaletteRegistry();
+		for (String valid : new String[] {"#123", "#1df7ff;opacity:0.64", "none", "rgb(10, 20, 30)", "red;stroke-width:2"}) {
+			palettes.register("brand", CharacterType.ROBO, Theme.A, Collections.singletonMap(AvatarPart.ENV, new String[] {valid}));
+			assertTrue(palettes.render(Avatar.pure(CharacterType.ROBO, Theme.A), "brand", false).contains("fill:" + valid + ";"));
+		}
+
+		for (String invalid : new String[] {"#000\"/><script>alert(1)</script>", "red' onload='x", "#000&amp;", "<b>", "red;", "url(http://example.com/x)", ""}) {
+			try {
+				palettes.register("evil", CharacterType.ROBO, Theme.A, Collections.singletonMap(AvatarPart.ENV, new String[] {invalid}));
+				fail("Accepted: " + invalid);
+			} catch (IllegalArgumentException ex) {
+				// Expected.
+			}
+		}
+		assertFalse(palettes.getPaletteNames().contains("evil"));
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PathSimplifier}.
+ */
+public class PathSimplifierTest {
+
+	@Test
+	public void testPolyline() {
+		assertEquals("M0 0l10 1 10-1", simplify("M0 0L5 0.3L10 1L15 0.4L20 0", 0.5));
+		assertEquals("M0 0h20", simplify("M0 0L5 0.3L10 1L15 0.4L20 0", 1));
+		assertEquals("M0 0l5 .3 5 .7 5-.6 5-.4", simplify("M0 0L5 0.3L10 1L15 0.4L20 0", 0));
+	}
+
+	@Test
+	public void testFlatCurve() {
+		assertEquals("M0 0h20", simplify("M0 0C5 0.5 15 0.5 20 0", 1));
+		assertEquals("M0 0c5 5 15 5 20 0", simplify("M0 0C5 5 15 5 20 0", 1));
+		assertEquals("M0 0h20", simplify("M0 0Q10 0.5 20 0", 1));
+	}
+
+	@Test
+	public void testShorthandAfterFlattenedCurve() {
+		// The S command reflects the second control point of the flattened curve, it must be
+		// written with both control points.
+		assertEquals("M0 0h10c1 1 10 0 10 10", simplify("M0 0C3 0 9 -1 10 0S20 0 20 10", 1));
+
+		// After a kept curve, the shorthand stays valid.
+		assertEquals("M0 0c3 5 9 5 10 0s10 0 10 10", simplify("M0 0C3 5 9 5 10 0S20 0 20 10", 1));
+
+		assertEquals("M0 0h10q5 .5 10 10", simplify("M0 0Q5 -0.5 10 0T20 10", 1));
+	}
+
+	@Test
+	public void testSubpaths() {
+		assertEquals("M0 0h20zm30 0h20z", simplify("M0 0L10 0.1L20 0zM30 0L40 0.1L50 0z", 1));
+	}
+
+	@Test
+	public void testDegenerateArc() {
+		assertEquals("M0 0a5 5 0 1 1 10 0z", simplify("M0 0a5 5 0 1 1 10 0a5 5 0 0 0 0 0z", 1));
+	}
+
+	@Test
+	public void testDistance() {
+		assertEquals(1, PathSimplifier.distance(5, 1, 0, 0, 10, 0), 1e-9);
+		assertEquals(5, PathSimplifier.distance(13, 4, 0, 0, 10, 0), 1e-9);
+		assertEquals(5, PathSimplifier.distance(3, 4, 0, 0, 0, 0), 1e-9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeTolerance() {
+		PathSimplifier.simplify(PathEncoder.parse("M0 0"), -1);
+	}
+
+	private static String simplify(String data, double tolerance) {
+		List<PathEncoder.Segment> segments = PathSimplifier.simplify(PathEncoder.parse(data), tolerance);
+		return PathEncoder.encode(segments, 2);
+	}
+
+}
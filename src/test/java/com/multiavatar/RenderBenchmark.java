@@ -0,0 +1,86 @@
+package com.multiavatar;
+
+import java.util.Random;
+
+import com.multiavatar.SvgData.Template;
+
+/**
+ * Micro benchmark comparing rendering through the {@link Template} segments with rendering from the
+ * pre-expanded {@link FragmentTable}.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass="com.multiavatar.RenderBenchmark" -Dexec.classpathScope=test
+ */
+public class RenderBenchmark {
+
+	private static final int WARMUP = 20000;
+
+	private static final int ITERATIONS = 200000;
+
+	private static volatile int sink;
+
+	public static void main(String[] args) {
+		Avatar[] random = new Avatar[1024];
+		Random rnd = new Random(42);
+		for (int n = 0; n < random.length; n++) {
+			random[n] = Avatar.fromRandom(rnd);
+		}
+
+		run("BLONDE (02A)", new Avatar[] {Avatar.pure(CharacterType.BLONDE, Theme.A)});
+		run("RASTA (14A)", new Avatar[] {Avatar.pure(CharacterType.RASTA, Theme.A)});
+		run("ROBO (00A)", new Avatar[] {Avatar.pure(CharacterType.ROBO, Theme.A)});
+		run("random", random);
+	}
+
+	private static void run(String name, Avatar[] avatars) {
+		for (Avatar avatar : avatars) {
+			if (!renderWithTemplates(avatar).equals(avatar.render(false))) {
+				throw new AssertionError("Output differs for: " + avatar);
+			}
+		}
+
+		measureTemplates(avatars, WARMUP);
+		measureFragments(avatars, WARMUP);
+
+		double templates = measureTemplates(avatars, ITERATIONS);
+		double fragments = measureFragments(avatars, ITERATIONS);
+
+		System.out.printf("%-14s templates: %8.0f ns/op   fragments: %8.0f ns/op   speedup: %.1fx%n",
+			name, templates, fragments, templates / fragments);
+	}
+
+	private static double measureTemplates(Avatar[] avatars, int iterations) {
+		long start = System.nanoTime();
+		int length = 0;
+		for (int n = 0; n < iterations; n++) {
+			length += renderWithTemplates(avatars[n % avatars.length]).length();
+		}
+		sink = length;
+		return (System.nanoTime() - start) / (double) iterations;
+	}
+
+	private static double measureFragments(Avatar[] avatars, int iterations) {
+		long start = System.nanoTime();
+		int length = 0;
+		for (int n = 0; n < iterations; n++) {
+			length += avatars[n % avatars.length].render(false).length();
+		}
+		sink = length;
+		return (System.nanoTime() - start) / (double) iterations;
+	}
+
+	/**
+	 * The rendering path before fragments were pre-expanded.
+	 */
+	private static String renderWithTemplates(Avatar avatar) {
+		StringBuilder result = new StringBuilder(Fragment.SVG_START.text());
+		result.append(Fragment.METADATA.text());
+		for (AvatarPart part : AvatarPart.values()) {
+			Coordinate coordinate = avatar.getValue(part);
+			ThemeData.Colors colors = ThemeData.getCharacterThemes(coordinate.character).getTheme(coordinate.theme);
+			Template template = SvgData.getSvgTemplate(coordinate.character, part);
+			template.render(result, colors.getColors(part));
+		}
+		result.append(Fragment.SVG_END.text());
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for rendering avatars directly to UTF-8 bytes.
+ */
+public class RenderBytesTest {
+
+	@Test
+	public void testOutputStream() throws IOException {
+		Random rnd = new Random(7);
+		for (int n = 0; n < 200; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				avatar.renderTo(out, sansEnv);
+				assertArrayEquals(avatar.render(sansEnv).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+			}
+		}
+	}
+
+	@Test
+	public void testByteBuffer() {
+		Random rnd = new Random(8);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+		for (int n = 0; n < 200; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				buffer.clear();
+				int length = avatar.renderTo(buffer, sansEnv);
+				assertEquals(length, buffer.position());
+
+				byte[] bytes = new byte[length];
+				buffer.flip();
+				buffer.get(bytes);
+				assertArrayEquals(avatar.render(sansEnv).getBytes(StandardCharsets.UTF_8), bytes);
+			}
+		}
+	}
+
+	@Test
+	public void testRenderedLength() {
+		Random rnd = new Random(12);
+		for (int n = 0; n < 200; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				String svg = avatar.render(sansEnv);
+				assertEquals(svg.length(), avatar.renderedLength(sansEnv));
+				assertEquals(svg.getBytes(StandardCharsets.UTF_8).length, avatar.renderedByteLength(sansEnv));
+			}
+		}
+	}
+
+	@Test
+	public void testByteBufferOverflow() {
+		Avatar avatar = Avatar.fromId("Binx Bond");
+		ByteBuffer buffer = ByteBuffer.allocate(100);
+		try {
+			avatar.renderTo(buffer, false);
+			fail("Expected overflow.");
+		} catch (BufferOverflowException ex) {
+			// Expected.
+		}
+		assertEquals("Buffer must be left unmodified.", 0, buffer.position());
+		assertTrue(Arrays.equals(new byte[100], buffer.array()));
+	}
+
+	@Test
+	public void testGatheringWrite() throws IOException {
+		Random rnd = new Random(9);
+		File file = File.createTempFile("avatar", ".svg");
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+			for (int n = 0; n < 50; n++) {
+				Avatar avatar = Avatar.fromRandom(rnd);
+				for (boolean sansEnv : new boolean[] {false, true}) {
+					ByteBuffer[] buffers = avatar.renderBuffers(sansEnv);
+					assertEquals(sansEnv ? Avatar.MAX_BUFFERS - 1 : Avatar.MAX_BUFFERS, buffers.length);
+					for (ByteBuffer buffer : buffers) {
+						assertTrue(buffer.isReadOnly());
+						assertTrue(buffer.isDirect());
+					}
+
+					channel.truncate(0);
+					channel.position(0);
+					while (buffers[buffers.length - 1].hasRemaining()) {
+						channel.write(buffers);
+					}
+
+					byte[] expected = avatar.render(sansEnv).getBytes(StandardCharsets.UTF_8);
+					assertEquals(expected.length, channel.size());
+
+					ByteBuffer content = ByteBuffer.allocate(expected.length);
+					channel.read(content, 0);
+					assertArrayEquals(expected, content.array());
+
+					// Consuming the buffers must not affect other renderings.
+					ByteBuffer[] again = avatar.renderBuffers(sansEnv);
+					assertTrue(again[0].hasRemaining());
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests for rendering avatars as pre-compressed gzip streams.
+ */
+public class RenderGzipTest {
+
+	@Test
+	public void testDecompress() throws IOException {
+		Random rnd = new Random(9);
+		for (int n = 0; n < 200; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			for (boolean sansEnv : new boolean[] {false, true}) {
+				byte[] gzip = avatar.renderGzip(sansEnv);
+				assertEquals(avatar.render(sansEnv), gunzip(gzip));
+
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				avatar.renderGzipTo(out, sansEnv);
+				assertArrayEquals(gzip, out.toByteArray());
+			}
+		}
+	}
+
+	@Test
+	public void testCompresses() {
+		Random rnd = new Random(10);
+		long plain = 0;
+		long compressed = 0;
+		for (int n = 0; n < 100; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			plain += avatar.render(false).length();
+			compressed += avatar.renderGzip(false).length;
+		}
+		assertTrue(compressed < plain * 2 / 3);
+	}
+
+	private static String gunzip(byte[] gzip) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			byte[] buffer = new byte[4096];
+			int cnt;
+			while ((cnt = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, cnt);
+			}
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,29 @@
+package com.multiavatar;
+
+import java.util.Random;
+
+/**
+ * Compares the size of a page of inline avatars with the same page rendered through an
+ * {@link AvatarSheet}.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass="com.multiavatar.SheetReport" -Dexec.classpathScope=test
+ */
+public class SheetReport {
+
+	public static void main(String[] args) {
+		System.out.println(String.format("%8s %10s %10s %8s %7s", "avatars", "inline", "sheet", "symbols", "ratio"));
+		for (int count : new int[] {10, 50, 100, 500, 1000}) {
+			Random rnd = new Random(42);
+			AvatarSheet sheet = new AvatarSheet();
+			long inline = 0;
+			long referenced = 0;
+			for (int n = 0; n < count; n++) {
+				Avatar avatar = Avatar.fromRandom(rnd);
+				inline += avatar.renderedLength(false);
+				referenced += sheet.render(avatar, false).length();
+			}
+			referenced += sheet.renderDefs().length();
+			System.out.println(String.format("%8d %10d %10d %8d %6.1fx", count, inline, referenced, sheet.getSymbolCount(), (double) inline / referenced));
+		}
+	}
+
+}
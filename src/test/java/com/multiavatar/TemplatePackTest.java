@@ -0,0 +1,240 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.multiavatar.SvgData.Template;
+
+/**
+ * Tests for {@link TemplatePack}.
+ */
+public class TemplatePackTest {
+
+	@Test
+	public void testBuiltInMatchesSources() throws IOException {
+		ByteArrayOutputStream sources = new ByteArrayOutputStream();
+		TemplatePack.builtInSources().writeTo(sources);
+		TemplatePack fromSources = TemplatePack.read(new ByteArrayInputStream(sources.toByteArray()));
+
+		// A stale resource of the build has a different content hash.
+		assertEquals(fromSources.getVersion(), TemplatePack.builtIn().getVersion());
+	}
+
+	@Test
+	public void testTemplates() {
+		for (CharacterType character : CharacterType.values()) {
+			for (AvatarPart part : AvatarPart.values()) {
+				String source = SvgData.sources(character).get(part);
+				Template parsed = new Template(source);
+				Template template = SvgData.getSvgTemplate(character, part);
+				assertEquals(source, template.toSource());
+				assertEquals(parsed.getParamCount(), template.getParamCount());
+				assertEquals(parsed.getLiterals(), template.getLiterals());
+			}
+		}
+	}
+
+	@Test
+	public void testRenderTemplate() throws IOException {
+		for (CharacterType character : CharacterType.values()) {
+			String[] colors = ThemeData.getCharacterThemes(character).getTheme(Theme.A).getColors(AvatarPart.CLO);
+			Template stored = SvgData.getSvgTemplate(character, AvatarPart.CLO);
+			Template parsed = new Template(SvgData.sources(character).get(AvatarPart.CLO));
+			for (Template template : new Template[] { stored, parsed }) {
+				StringBuilder expected = new StringBuilder();
+				template.render(expected, colors);
+
+				StringWriter out = new StringWriter();
+				template.render((Appendable) out, colors);
+				assertEquals(expected.toString(), out.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testRender() {
+		TemplatePack pack = TemplatePack.builtIn();
+		Random rnd = new Random(42);
+		for (int n = 0; n < 200; n++) {
+			Avatar avatar = Avatar.fromRandom(rnd);
+			boolean sansEnv = n % 2 == 0;
+			String expected = avatar.render(sansEnv);
+			assertEquals(expected, pack.render(avatar, sansEnv));
+			assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, pack.renderedByteLength(avatar, sansEnv));
+		}
+	}
+
+	@Test
+	public void testMap() throws IOException {
+		TemplatePack modified = TemplatePack.builtIn().toBuilder()
+			.setColors(CharacterType.ROBO, Theme.A, AvatarPart.ENV, "#123456")
+			.build();
+		assertNotEquals(TemplatePack.builtIn().getVersion(), modified.getVersion());
+
+		Path file = Files.createTempFile("multiavatar", ".pack");
+		try {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				modified.toBuilder().setVersion(7).writeTo(out);
+			}
+			TemplatePack mapped = TemplatePack.map(file);
+			assertEquals(7, mapped.getVersion());
+
+			Avatar robo = Avatar.pure(CharacterType.ROBO, Theme.A);
+			String expected = robo.render(false).replace("#ff2f2b", "#123456");
+			assertEquals(expected, mapped.render(robo, false));
+			assertEquals(robo.render(true), mapped.render(robo, true));
+
+			Avatar girl = Avatar.pure(CharacterType.GIRL, Theme.B);
+			assertEquals(girl.render(false), mapped.render(girl, false));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testCustomTemplate() {
+		TemplatePack pack = TemplatePack.builtIn().toBuilder()
+			.setTemplate(CharacterType.GUY, AvatarPart.TOP, "<circle r=\"9\" style=\"fill:#0;stroke:#1;\"/>")
+			.setColors(CharacterType.GUY, Theme.C, AvatarPart.TOP, "red", "blue")
+			.build();
+		String svg = pack.render(Avatar.pure(CharacterType.GUY, Theme.C), false);
+		assertTrue(svg, svg.contains("<circle r=\"9\" style=\"fill:red;stroke:blue;\"/>"));
+	}
+
+	@Test
+	public void testSinks() throws IOException {
+		StringBuilder comment = new StringBuilder("<!--");
+		for (int n = 0; n < 500; n++) {
+			comment.append(" \u00e4\u20ac\ud83d\ude00");
+		}
+		comment.append(" -->");
+		TemplatePack pack = TemplatePack.builtIn().toBuilder()
+			.setTemplate(CharacterType.GUY, AvatarPart.TOP, comment + "<circle style=\"fill:#0;\"/>")
+			.setColors(CharacterType.GUY, Theme.C, AvatarPart.TOP, "red")
+			.build();
+
+		Path file = Files.createTempFile("multiavatar", ".pack");
+		try {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				pack.toBuilder().writeTo(out);
+			}
+			Avatar avatar = Avatar.pure(CharacterType.GUY, Theme.C);
+			for (TemplatePack sink : new TemplatePack[] { pack, TemplatePack.map(file) }) {
+				String svg = sink.render(avatar, false);
+				assertTrue(svg.contains(comment + "<circle style=\"fill:red;\"/>"));
+
+				StringBuilder text = new StringBuilder();
+				sink.renderTo(text, avatar, false);
+				assertEquals(svg, text.toString());
+
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				sink.renderTo(bytes, avatar, false);
+				assertArrayEquals(svg.getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+				assertEquals(bytes.size(), sink.renderedByteLength(avatar, false));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testMissingColors() {
+		TemplatePack.Builder builder = TemplatePack.builtIn().toBuilder()
+			.setColors(CharacterType.GUY, Theme.C, AvatarPart.CLO, new String[0]);
+		try {
+			builder.build();
+			fail("Colors are missing.");
+		} catch (IllegalStateException ex) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testInvalidData() {
+		try {
+			TemplatePack.read(new ByteArrayInputStream("<svg></svg>".getBytes(StandardCharsets.UTF_8)));
+			fail("Not a pack.");
+		} catch (IOException ex) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+		byte[] pack = builtInBytes();
+		for (int length = 0; length < pack.length; length += 97) {
+			try {
+				TemplatePack.read(new ByteArrayInputStream(pack, 0, length));
+				fail("Truncated to " + length + " bytes.");
+			} catch (IOException ex) {
+				// Expected.
+			}
+		}
+	}
+
+	@Test
+	public void testColorIndexOutOfRange() throws IOException {
+		byte[] pack = builtInBytes();
+		ByteBuffer data = ByteBuffer.wrap(pack);
+
+		// The first placeholder of the environment of the first character.
+		int records = data.getInt(40);
+		int record = records;
+		while (data.getInt(record) < 0) {
+			record += 12;
+		}
+		data.putInt(record, 99);
+		try {
+			TemplatePack.read(new ByteArrayInputStream(pack));
+			fail("Placeholder without color.");
+		} catch (IOException ex) {
+			assertTrue(ex.getMessage(), ex.getMessage().contains("colors"));
+		}
+	}
+
+	@Test
+	public void testCorrupted() throws IOException {
+		byte[] original = builtInBytes();
+		int arena = ByteBuffer.wrap(original).getInt(28);
+		Random rnd = new Random(13);
+		for (int n = 0; n < 500; n++) {
+			byte[] pack = original.clone();
+			for (int i = 0; i < 4; i++) {
+				pack[40 + rnd.nextInt(arena - 40)] = (byte) rnd.nextInt();
+			}
+
+			TemplatePack corrupted;
+			try {
+				corrupted = TemplatePack.read(new ByteArrayInputStream(pack));
+			} catch (IOException ex) {
+				continue;
+			}
+
+			// A pack that is accepted renders every avatar without failing.
+			for (CharacterType character : CharacterType.values()) {
+				for (Theme theme : Theme.values()) {
+					corrupted.render(Avatar.pure(character, theme), false);
+				}
+			}
+		}
+	}
+
+	private static byte[] builtInBytes() throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		TemplatePack.builtIn().toBuilder().writeTo(result);
+		return result.toByteArray();
+	}
+
+}
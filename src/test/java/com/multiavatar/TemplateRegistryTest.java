@@ -0,0 +1,178 @@
+package com.multiavatar;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TemplateRegistry}.
+ */
+public class TemplateRegistryTest {
+
+	private static final Avatar ROBO = Avatar.pure(CharacterType.ROBO, Theme.A);
+
+	@Test
+	public void testInstall() {
+		TemplateRegistry registry = new TemplateRegistry();
+		TemplatePack builtIn = TemplatePack.builtIn();
+		assertSame(builtIn, registry.getPack());
+		assertEquals(builtIn.getVersion(), registry.getVersion());
+		assertEquals(ROBO.render(false), registry.render(ROBO, false));
+
+		TemplatePack dark = dark(builtIn);
+		assertSame(builtIn, registry.install(dark));
+		assertSame(dark, registry.getPack());
+		assertEquals(dark.getVersion(), registry.getVersion());
+		assertNotEquals(builtIn.getVersion(), registry.getVersion());
+		assertEquals(ROBO.render(false).replace("#ff2f2b", "#000"), registry.render(ROBO, false));
+
+		// A snapshot still renders the old version.
+		assertEquals(ROBO.render(false), builtIn.render(ROBO, false));
+	}
+
+	@Test
+	public void testUpdate() {
+		TemplateRegistry registry = new TemplateRegistry();
+		TemplatePack before = registry.getPack();
+		TemplatePack after = registry.update(builder -> builder.setColors(CharacterType.ROBO, Theme.A, AvatarPart.ENV, "#000"));
+		assertSame(after, registry.getPack());
+		assertEquals(ROBO.render(false), before.render(ROBO, false));
+		assertEquals(ROBO.render(false).replace("#ff2f2b", "#000"), registry.render(ROBO, false));
+
+		try {
+			registry.update(builder -> builder.setColors(CharacterType.ROBO, Theme.A, AvatarPart.CLO));
+			fail("Colors are missing.");
+		} catch (IllegalStateException ex) {
+			assertSame(after, registry.getPack());
+		}
+	}
+
+	@Test
+	public void testLoad() throws IOException {
+		Path file = Files.createTempFile("multiavatar", ".pack");
+		try {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				TemplatePack.builtIn().toBuilder().setVersion(2).writeTo(out);
+			}
+			TemplateRegistry registry = new TemplateRegistry();
+			registry.load(file);
+			assertEquals(2, registry.getVersion());
+			assertEquals(ROBO.render(true), registry.render(ROBO, true));
+
+			Files.write(file, new byte[] {1, 2, 3});
+			try {
+				registry.load(file);
+				fail("Not a pack.");
+			} catch (IOException ex) {
+				assertEquals(2, registry.getVersion());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testSwapUnderLoad() throws Exception {
+		TemplatePack builtIn = TemplatePack.builtIn();
+		TemplatePack dark = dark(builtIn);
+		TemplateRegistry registry = new TemplateRegistry();
+
+		AtomicInteger darkCount = new AtomicInteger();
+		AtomicInteger builtInCount = new AtomicInteger();
+		AtomicBoolean stop = new AtomicBoolean();
+		CountDownLatch started = new CountDownLatch(4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int n = 0; n < 4; n++) {
+				long seed = n;
+				results.add(executor.submit(() -> {
+					Random rnd = new Random(seed);
+					started.countDown();
+					while (!stop.get()) {
+						Avatar avatar = Avatar.fromRandom(rnd);
+						String svg = registry.render(avatar, false);
+
+						// Every avatar is rendered completely from one of the packs.
+						if (svg.equals(dark.render(avatar, false))) {
+							darkCount.incrementAndGet();
+						} else {
+							assertEquals(builtIn.render(avatar, false), svg);
+							builtInCount.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+
+			// Swap while the workers render, until they have seen both packs several times.
+			assertTrue(started.await(60, TimeUnit.SECONDS));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+			for (int n = 0; n < 200 || darkCount.get() < 100 || builtInCount.get() < 100; n++) {
+				assertTrue("Renders did not overlap with swaps.", System.nanoTime() < deadline);
+				registry.install(n % 2 == 0 ? dark : builtIn);
+				Thread.yield();
+			}
+			stop.set(true);
+
+			for (Future<?> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			stop.set(true);
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSinks() throws IOException {
+		TemplateRegistry registry = new TemplateRegistry(dark(TemplatePack.builtIn()));
+		String svg = registry.render(ROBO, false);
+
+		StringBuilder text = new StringBuilder("<!-- -->");
+		registry.renderTo(text, ROBO, false);
+		assertEquals("<!-- -->" + svg, text.toString());
+
+		ByteBuffer buffer = ByteBuffer.allocate(registry.getPack().renderedByteLength(ROBO, false) + 2);
+		buffer.position(2);
+		assertEquals(buffer.remaining(), registry.renderTo(buffer, ROBO, false));
+		assertEquals(svg, new String(buffer.array(), 2, buffer.position() - 2, StandardCharsets.UTF_8));
+
+		ByteBuffer small = ByteBuffer.allocate(10);
+		try {
+			registry.renderTo(small, ROBO, false);
+			fail("Buffer too small.");
+		} catch (BufferOverflowException ex) {
+			assertEquals(0, small.position());
+		}
+	}
+
+	private static TemplatePack dark(TemplatePack pack) {
+		TemplatePack.Builder builder = pack.toBuilder();
+		for (CharacterType character : CharacterType.values()) {
+			for (Theme theme : Theme.values()) {
+				builder.setColors(character, theme, AvatarPart.ENV, "#000");
+			}
+		}
+		return builder.build();
+	}
+
+}